@@ -21,9 +21,11 @@ import org.jdbi.v3.postgres.PostgresPlugin;
 import org.kiwiproject.champagne.config.AppConfig;
 import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.dao.BuildDao;
+import org.kiwiproject.champagne.dao.BuildMetricsDao;
 import org.kiwiproject.champagne.dao.ComponentDao;
 import org.kiwiproject.champagne.dao.DeployableSystemDao;
 import org.kiwiproject.champagne.dao.DeploymentEnvironmentDao;
+import org.kiwiproject.champagne.dao.DeploymentMetricsDao;
 import org.kiwiproject.champagne.dao.HostDao;
 import org.kiwiproject.champagne.dao.ReleaseDao;
 import org.kiwiproject.champagne.dao.ReleaseStatusDao;
@@ -33,6 +35,9 @@ import org.kiwiproject.champagne.dao.TaskStatusDao;
 import org.kiwiproject.champagne.dao.UserDao;
 import org.kiwiproject.champagne.dao.mappers.BuildMapper;
 import org.kiwiproject.champagne.job.CleanOutAuditsJob;
+import org.kiwiproject.champagne.job.CreateAuditPartitionsJob;
+import org.kiwiproject.champagne.job.RefreshDeploymentMetricsJob;
+import org.kiwiproject.champagne.job.RollUpBuildCountsJob;
 import org.kiwiproject.champagne.model.Build;
 import org.kiwiproject.champagne.resource.ApplicationErrorWithAuthResource;
 import org.kiwiproject.champagne.resource.AuditRecordResource;
@@ -46,7 +51,9 @@ import org.kiwiproject.champagne.resource.TagResource;
 import org.kiwiproject.champagne.resource.TaskResource;
 import org.kiwiproject.champagne.resource.UserResource;
 import org.kiwiproject.champagne.resource.filter.DeployableSystemRequestFilter;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
 import org.kiwiproject.champagne.service.ManualTaskService;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.ErrorContextBuilder;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.model.ServiceDetails;
@@ -102,6 +109,8 @@ public class App extends Application<AppConfig> {
         var taskStatusDao = jdbi.onDemand(TaskStatusDao.class);
         var deploymentEnvironmentDao = jdbi.onDemand(DeploymentEnvironmentDao.class);
         var buildDao = jdbi.onDemand(BuildDao.class);
+        var buildMetricsDao = jdbi.onDemand(BuildMetricsDao.class);
+        var deploymentMetricsDao = jdbi.onDemand(DeploymentMetricsDao.class);
         var hostDao = jdbi.onDemand(HostDao.class);
         var componentDao = jdbi.onDemand(ComponentDao.class);
         var errorDao = setupApplicationErrors(jdbi, configuration, environment);
@@ -111,27 +120,41 @@ public class App extends Application<AppConfig> {
         var jsonHelper = JsonHelper.newDropwizardJsonHelper();
         jdbi.registerRowMapper(Build.class, new BuildMapper(jsonHelper));
 
-        var manualTaskService = new ManualTaskService(releaseDao, releaseStatusDao, taskDao, taskStatusDao);
+        var manualTaskService = new ManualTaskService(releaseStatusDao);
+        var auditRecordWriter = configuration.getAuditWriter().newAuditRecordWriter(auditRecordDao, environment);
+        var systemAccessCache = new DeployableSystemAccessCache(configuration.getSystemAccessCacheSpec(), deployableSystemDao, environment.metrics());
+        var environmentJsonHelper = new JsonHelper(environment.getObjectMapper());
+        var responseCache = new SystemResponseCache(configuration.getResponseCacheSpec(), environmentJsonHelper, environment.metrics());
 
         environment.jersey().register(new AuthResource(userDao));
-        environment.jersey().register(new AuditRecordResource(auditRecordDao));
+        environment.jersey().register(new AuditRecordResource(auditRecordDao, environmentJsonHelper));
         environment.jersey().register(new BuildResource(buildDao, jsonHelper));
-        environment.jersey().register(new DeploymentEnvironmentResource(deploymentEnvironmentDao, auditRecordDao, errorDao, manualTaskService));
-        environment.jersey().register(new HostConfigurationResource(hostDao, componentDao, tagDao, auditRecordDao, errorDao));
-        environment.jersey().register(new TaskResource(releaseDao, releaseStatusDao, taskDao, taskStatusDao, deploymentEnvironmentDao, auditRecordDao, errorDao));
-        environment.jersey().register(new UserResource(userDao, deployableSystemDao, auditRecordDao, errorDao));
+        environment.jersey().register(new DeploymentEnvironmentResource(deploymentEnvironmentDao, auditRecordWriter, responseCache, errorDao, manualTaskService));
+        environment.jersey().register(new HostConfigurationResource(hostDao, componentDao, auditRecordWriter, responseCache, errorDao));
+        environment.jersey().register(new TaskResource(releaseDao, releaseStatusDao, taskDao, taskStatusDao, auditRecordWriter, responseCache, errorDao));
+        environment.jersey().register(new UserResource(userDao, deployableSystemDao, systemAccessCache, auditRecordWriter, responseCache, errorDao));
         environment.jersey().register(new ApplicationErrorWithAuthResource(errorDao));
-        environment.jersey().register(new DeployableSystemResource(deployableSystemDao, userDao, deploymentEnvironmentDao, auditRecordDao, errorDao));
-        environment.jersey().register(new TagResource(tagDao, auditRecordDao, errorDao));
-        environment.jersey().register(new MetricsResource(buildDao));
+        environment.jersey().register(new DeployableSystemResource(deployableSystemDao, userDao, deploymentEnvironmentDao, systemAccessCache, auditRecordWriter, responseCache, errorDao));
+        environment.jersey().register(new TagResource(tagDao, auditRecordWriter, responseCache, errorDao));
+        environment.jersey().register(new MetricsResource(buildMetricsDao, deploymentMetricsDao));
 
         configureCors(environment);
 
         // Setup jobs
-        var cleanOutAuditsJob = new CleanOutAuditsJob(auditRecordDao, configuration.getAuditRecordsMaxRetain().toMilliseconds());
+        var cleanOutAuditsJob = new CleanOutAuditsJob(auditRecordDao, configuration.getAuditRecordsMaxRetain().toMilliseconds(),
+                configuration.getAuditDeletion(), environment.metrics());
         registerJob(environment, "Clean Out Audits", configuration.getAuditCleanup(), cleanOutAuditsJob);
 
-        environment.jersey().register(new DeployableSystemRequestFilter(deployableSystemDao, userDao));
+        var createAuditPartitionsJob = new CreateAuditPartitionsJob(auditRecordDao, configuration.getAuditPartitionMonthsAhead());
+        registerJob(environment, "Create Audit Partitions", configuration.getAuditPartitionMaintenance(), createAuditPartitionsJob);
+
+        var rollUpBuildCountsJob = new RollUpBuildCountsJob(buildMetricsDao);
+        registerJob(environment, "Roll Up Build Counts", configuration.getBuildCountRollup(), rollUpBuildCountsJob);
+
+        var refreshDeploymentMetricsJob = new RefreshDeploymentMetricsJob(deploymentMetricsDao);
+        registerJob(environment, "Refresh Deployment Metrics", configuration.getDeploymentMetricsRefresh(), refreshDeploymentMetricsJob);
+
+        environment.jersey().register(new DeployableSystemRequestFilter(systemAccessCache));
     }
 
     private static void setupJsonProcessing(Environment environment) {
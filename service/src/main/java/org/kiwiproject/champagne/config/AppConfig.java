@@ -5,6 +5,7 @@ import io.dropwizard.core.Configuration;
 import io.dropwizard.db.DataSourceFactory;
 import io.dropwizard.util.Duration;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
@@ -24,6 +25,12 @@ public class AppConfig extends Configuration {
     @NotBlank
     private String jwtCacheSpec = "expireAfterWrite=60m";
 
+    @NotBlank
+    private String systemAccessCacheSpec = "maximumSize=10000,expireAfterWrite=5m";
+
+    @NotBlank
+    private String responseCacheSpec = "maximumSize=1000,expireAfterWrite=30s";
+
     @NotNull
     @Valid
     private JwtCookieAuthConfiguration jwtCookieAuth = new JwtCookieAuthConfiguration();
@@ -33,4 +40,24 @@ public class AppConfig extends Configuration {
 
     @NotNull
     private Duration auditRecordsMaxRetain = Duration.days(30);
+
+    @NotNull
+    @Valid
+    private AuditDeletionConfig auditDeletion = new AuditDeletionConfig();
+
+    @NotNull
+    private JobSchedule auditPartitionMaintenance = JobSchedule.ofIntervalDelay(Duration.days(1));
+
+    @Min(1)
+    private int auditPartitionMonthsAhead = 3;
+
+    @NotNull
+    private JobSchedule buildCountRollup = JobSchedule.ofIntervalDelay(Duration.minutes(5));
+
+    @NotNull
+    private JobSchedule deploymentMetricsRefresh = JobSchedule.ofIntervalDelay(Duration.minutes(15));
+
+    @NotNull
+    @Valid
+    private AuditWriterConfig auditWriter = new AuditWriterConfig();
 }
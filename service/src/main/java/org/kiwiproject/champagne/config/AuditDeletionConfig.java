@@ -0,0 +1,34 @@
+package org.kiwiproject.champagne.config;
+
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configures how the audit cleanup removes expired audit records. PARTITIONS drops the monthly partitions that only
+ * hold expired records and deletes the expired records left in the default partition. ROWS deletes every expired
+ * record, for exact retention. Rows are always deleted in chunks with a pause in between, and a run stops after the
+ * max run time, leaving the rest for the next run.
+ */
+@Getter
+@Setter
+public class AuditDeletionConfig {
+
+    public enum Mode {
+        PARTITIONS, ROWS
+    }
+
+    @NotNull
+    private Mode mode = Mode.PARTITIONS;
+
+    @Min(1)
+    private int chunkSize = 1_000;
+
+    @NotNull
+    private Duration pauseBetweenChunks = Duration.milliseconds(250);
+
+    @NotNull
+    private Duration maxRunTime = Duration.minutes(10);
+}
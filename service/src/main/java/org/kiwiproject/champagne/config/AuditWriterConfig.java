@@ -0,0 +1,60 @@
+package org.kiwiproject.champagne.config;
+
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.core.setup.Environment;
+import io.dropwizard.util.Duration;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
+import org.kiwiproject.champagne.service.AsyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+
+/**
+ * Configures how audit records are written. SYNC writes them on the request thread, ASYNC queues them and writes them
+ * in batches in the background.
+ */
+@Getter
+@Setter
+public class AuditWriterConfig {
+
+    public enum Mode {
+        SYNC, ASYNC
+    }
+
+    @NotNull
+    private Mode mode = Mode.SYNC;
+
+    @Min(1)
+    private int queueCapacity = 10_000;
+
+    @Min(1)
+    private int batchSize = 100;
+
+    @NotNull
+    private Duration flushInterval = Duration.seconds(1);
+
+    @NotNull
+    private Duration shutdownTimeout = Duration.seconds(30);
+
+    public AuditRecordWriter newAuditRecordWriter(AuditRecordDao auditRecordDao, Environment environment) {
+        if (mode == Mode.SYNC) {
+            return new SyncAuditRecordWriter(auditRecordDao);
+        }
+
+        var executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("audit-writer-%d")
+                .setDaemon(true)
+                .build());
+
+        var writer = new AsyncAuditRecordWriter(auditRecordDao, queueCapacity, batchSize, flushInterval,
+                shutdownTimeout, executor, environment.metrics());
+        environment.lifecycle().manage(writer);
+
+        return writer;
+    }
+}
@@ -1,37 +1,191 @@
 package org.kiwiproject.champagne.dao;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.jdbi.v3.core.result.ResultIterable;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.AllowUnusedBindings;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
 import org.kiwiproject.champagne.dao.mappers.AuditRecordMapper;
 import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecordFilter;
+import org.kiwiproject.champagne.util.Cursors.Cursor;
 
 @RegisterRowMapper(AuditRecordMapper.class)
 public interface AuditRecordDao {
 
+    int EXPORT_FETCH_SIZE = 1_000;
+
     @SqlUpdate("insert into audit_records (user_system_identifier, action, record_type, record_id, deployable_system_id) " +
             "values (:userSystemIdentifier, :action, :recordType, :recordId, :deployableSystemId)")
     @GetGeneratedKeys
     long insertAuditRecord(@BindBean AuditRecord auditRecord);
 
-    @SqlQuery("select * from audit_records where deployable_system_id = :systemId order by audit_timestamp desc offset :offset limit :limit")
+    @SqlBatch("insert into audit_records (user_system_identifier, action, record_type, record_id, deployable_system_id) " +
+            "values (:userSystemIdentifier, :action, :recordType, :recordId, :deployableSystemId)")
+    void insertAuditRecords(@BindBean List<AuditRecord> auditRecords);
+
+    @SqlQuery("select * from audit_records where deployable_system_id = :systemId order by audit_timestamp desc, id desc offset :offset limit :limit")
     List<AuditRecord> findPagedAuditRecordsForSystem(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId);
 
     @SqlQuery("select count(*) from audit_records where deployable_system_id = :systemId")
     long countAuditRecordsForSystem(@Bind("systemId") long systemId);
 
-    @SqlQuery("select * from audit_records order by audit_timestamp desc offset :offset limit :limit")
+    @SqlQuery("select * from audit_records order by audit_timestamp desc, id desc offset :offset limit :limit")
     List<AuditRecord> findPagedAuditRecords(@Bind("offset") int offset, @Bind("limit") int limit);
 
     @SqlQuery("select count(*) from audit_records")
     long countAuditRecords();
 
-    @SqlUpdate("delete from audit_records where audit_timestamp < :maxRetainDate")
-    int deleteAuditRecordsOlderThan(@Bind("maxRetainDate") Instant maxRetainDate);
+    /**
+     * Keyset (seek) paged search of the audit records matching the given filter, newest first, returning the records
+     * strictly after the given cursor, or the first page when the cursor is null. Only the criteria set on the filter
+     * are added to the query so each search can use the index matching it: the per-system, record type and id, user or
+     * timestamp index.
+     */
+    default List<AuditRecord> findAuditRecordsAfterCursor(AuditRecordFilter filter, Cursor cursor, int limit) {
+        var whereClause = whereClauseOf(filter, nonNull(cursor));
+
+        return isNull(cursor)
+                ? findFilteredAuditRecords(whereClause, filter, null, null, limit)
+                : findFilteredAuditRecords(whereClause, filter, cursor.timestamp(), cursor.id(), limit);
+    }
+
+    @SqlQuery("select * from audit_records<where> order by audit_timestamp desc, id desc limit :limit")
+    @AllowUnusedBindings
+    List<AuditRecord> findFilteredAuditRecords(@Define("where") String whereClause,
+                                               @BindBean("filter") AuditRecordFilter filter,
+                                               @Bind("cursorTimestamp") Instant cursorTimestamp,
+                                               @Bind("cursorId") Long cursorId,
+                                               @Bind("limit") int limit);
+
+    default long countAuditRecords(AuditRecordFilter filter) {
+        return countFilteredAuditRecords(whereClauseOf(filter, false), filter);
+    }
+
+    @SqlQuery("select count(*) from audit_records<where>")
+    @AllowUnusedBindings
+    long countFilteredAuditRecords(@Define("where") String whereClause, @BindBean("filter") AuditRecordFilter filter);
+
+    /**
+     * Passes every audit record matching the given filter, oldest first, to the given consumer. The records are read
+     * from a server-side cursor {@link #EXPORT_FETCH_SIZE} rows at a time, which needs the transaction, so memory use
+     * stays the same no matter how many records match.
+     */
+    @Transaction(readOnly = true)
+    default void forEachAuditRecord(AuditRecordFilter filter, Consumer<AuditRecord> consumer) {
+        try (var auditRecords = streamFilteredAuditRecords(whereClauseOf(filter, false), filter).iterator()) {
+            auditRecords.forEachRemaining(consumer);
+        }
+    }
+
+    @SqlQuery("select * from audit_records<where> order by audit_timestamp, id")
+    @FetchSize(EXPORT_FETCH_SIZE)
+    @AllowUnusedBindings
+    ResultIterable<AuditRecord> streamFilteredAuditRecords(@Define("where") String whereClause, @BindBean("filter") AuditRecordFilter filter);
+
+    /**
+     * Builds the where clause for the criteria set on the filter. Only fixed predicates are added, the values are
+     * always bound.
+     */
+    private static String whereClauseOf(AuditRecordFilter filter, boolean afterCursor) {
+        var predicates = new ArrayList<String>();
+
+        if (nonNull(filter.getDeployableSystemId())) {
+            predicates.add("deployable_system_id = :filter.deployableSystemId");
+        }
+
+        if (nonNull(filter.getRecordType())) {
+            predicates.add("record_type = :filter.recordType");
+        }
+
+        if (nonNull(filter.getRecordId())) {
+            predicates.add("record_id = :filter.recordId");
+        }
+
+        if (nonNull(filter.getUserSystemIdentifier())) {
+            predicates.add("user_system_identifier = :filter.userSystemIdentifier");
+        }
+
+        if (nonNull(filter.getAction())) {
+            predicates.add("action = :filter.action");
+        }
+
+        if (nonNull(filter.getFrom())) {
+            predicates.add("audit_timestamp >= :filter.from");
+        }
+
+        if (nonNull(filter.getTo())) {
+            predicates.add("audit_timestamp < :filter.to");
+        }
+
+        if (afterCursor) {
+            predicates.add("(audit_timestamp, id) < (:cursorTimestamp, :cursorId)");
+        }
+
+        return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+    }
+
+    /**
+     * Creates the monthly partition holding the audit records of the month of the given date, when it doesn't exist
+     * yet. Returns the name of the partition.
+     */
+    @SqlQuery("select create_audit_records_partition(:month)")
+    String createMonthlyPartition(@Bind("month") LocalDate month);
+
+    /**
+     * Returns the names of the monthly partitions of the audit records, oldest first. The default partition, which
+     * catches records outside every monthly partition, is not included.
+     */
+    @SqlQuery("select c.relname from pg_inherits i"
+            + " join pg_class c on c.oid = i.inhrelid"
+            + " join pg_class p on p.oid = i.inhparent"
+            + " where p.relname = 'audit_records' and c.relname <> 'audit_records_default'"
+            + " order by c.relname")
+    List<String> findMonthlyPartitionNames();
+
+    /**
+     * Drops the given partition with all of its audit records. The name must come from
+     * {@link #findMonthlyPartitionNames()}, as it is inlined in the statement.
+     */
+    @SqlUpdate("drop table if exists <partitionName>")
+    void dropPartition(@Define("partitionName") String partitionName);
+
+    /**
+     * Deletes up to the given number of the oldest audit records older than the given date. Returns the number of
+     * records deleted, which is less than the chunk size once no expired records are left.
+     */
+    @SqlUpdate("delete from audit_records where (id, audit_timestamp) in"
+            + " (select id, audit_timestamp from audit_records where audit_timestamp < :maxRetainDate"
+            + " order by audit_timestamp limit :chunkSize)")
+    int deleteAuditRecordChunkOlderThan(@Bind("maxRetainDate") Instant maxRetainDate, @Bind("chunkSize") int chunkSize);
+
+    /**
+     * Same as {@link #deleteAuditRecordChunkOlderThan(Instant, int)} for the records in the default partition only.
+     */
+    @SqlUpdate("delete from audit_records_default where (id, audit_timestamp) in"
+            + " (select id, audit_timestamp from audit_records_default where audit_timestamp < :maxRetainDate"
+            + " order by audit_timestamp limit :chunkSize)")
+    int deleteDefaultPartitionAuditRecordChunkOlderThan(@Bind("maxRetainDate") Instant maxRetainDate, @Bind("chunkSize") int chunkSize);
+
+    /**
+     * Returns the timestamp of the oldest audit record, or null when there are none.
+     */
+    @SqlQuery("select min(audit_timestamp) from audit_records")
+    Instant findOldestAuditTimestamp();
 }
@@ -1,5 +1,6 @@
 package org.kiwiproject.champagne.dao;
 
+import static java.util.Objects.isNull;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.kiwiproject.base.KiwiStrings.f;
 import static org.kiwiproject.champagne.dao.DaoHelper.LIKE_QUERY_FORMAT;
@@ -7,15 +8,28 @@ import static org.kiwiproject.champagne.dao.DaoHelper.LIKE_QUERY_FORMAT;
 import java.time.Instant;
 import java.util.List;
 
+import org.jdbi.v3.sqlobject.config.RegisterRowMapperFactory;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.kiwiproject.champagne.dao.mappers.CountedMapperFactory;
 import org.kiwiproject.champagne.model.Build;
+import org.kiwiproject.champagne.util.Cursors.Cursor;
 
 public interface BuildDao {
-    
+
+    /**
+     * The component filter predicate shared by every filtered query so the pages, cursors and counts always agree. It
+     * matches the already wrapped {@code :componentFilter} anywhere in the version or identifier, ignoring case, using
+     * the trigram indexes on those columns.
+     */
+    String COMPONENT_FILTER = " and (component_version ilike :componentFilter or component_identifier ilike :componentFilter)";
+
+    String EXTRA_INFO_FILTER = " and extra_deployment_info @> cast(:extraInfo as jsonb)";
+
     default List<Build> findPagedBuilds(int offset, int limit, long systemId, String componentFilter) {
         if (isBlank(componentFilter)) {
             // No filtering
@@ -23,14 +37,84 @@ public interface BuildDao {
         }
 
         // Both name and version filtering
-        return findPagedBuildsWithVersionOrIdentifierFilters(offset, limit, systemId, f(LIKE_QUERY_FORMAT, componentFilter));
+        return findPagedBuildsWithVersionOrIdentifierFilters(offset, limit, systemId, f(LIKE_QUERY_FORMAT, componentFilter), componentFilter);
     }
 
-    @SqlQuery("select * from builds where deployable_system_id = :systemId order by created_at desc offset :offset limit :limit")
+    @SqlQuery("select * from builds where deployable_system_id = :systemId order by created_at desc, id desc offset :offset limit :limit")
     List<Build> findPagedBuildsNoFilter(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId);
 
-    @SqlQuery("select * from builds where builds.deployable_system_id = :systemId and (component_version like :componentFilter or component_identifier like :componentFilter) order by created_at desc offset :offset limit :limit")
-    List<Build> findPagedBuildsWithVersionOrIdentifierFilters(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId, @Bind("componentFilter") String componentFilter);
+    /**
+     * Builds whose identifier is exactly the filter are listed first.
+     */
+    @SqlQuery("select * from builds where builds.deployable_system_id = :systemId" + COMPONENT_FILTER
+            + " order by lower(component_identifier) = lower(:exactFilter) desc, created_at desc, id desc offset :offset limit :limit")
+    List<Build> findPagedBuildsWithVersionOrIdentifierFilters(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId,
+                                                              @Bind("componentFilter") String componentFilter, @Bind("exactFilter") String exactFilter);
+
+    /**
+     * Same as {@link #findPagedBuilds(int, int, long, String)} but each build also carries the total number of matching
+     * builds, counted by the same statement. Use {@link Counted#totalCountOf(List, int, java.util.function.LongSupplier)}
+     * with {@link #countBuilds(long, String)} to get the total of a page past the end.
+     */
+    default List<Counted<Build>> findPagedBuildsWithTotalCount(int offset, int limit, long systemId, String componentFilter) {
+        if (isBlank(componentFilter)) {
+            return findPagedBuildsWithTotalCountNoFilter(offset, limit, systemId);
+        }
+
+        return findPagedBuildsWithTotalCountWithVersionOrIdentifierFilters(offset, limit, systemId, f(LIKE_QUERY_FORMAT, componentFilter), componentFilter);
+    }
+
+    @SqlQuery("select *, count(*) over () as total_count from builds where deployable_system_id = :systemId order by created_at desc, id desc offset :offset limit :limit")
+    @RegisterRowMapperFactory(CountedMapperFactory.class)
+    List<Counted<Build>> findPagedBuildsWithTotalCountNoFilter(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId);
+
+    @SqlQuery("select *, count(*) over () as total_count from builds where builds.deployable_system_id = :systemId" + COMPONENT_FILTER
+            + " order by lower(component_identifier) = lower(:exactFilter) desc, created_at desc, id desc offset :offset limit :limit")
+    @RegisterRowMapperFactory(CountedMapperFactory.class)
+    List<Counted<Build>> findPagedBuildsWithTotalCountWithVersionOrIdentifierFilters(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId,
+                                                                                     @Bind("componentFilter") String componentFilter, @Bind("exactFilter") String exactFilter);
+
+    /**
+     * Keyset (seek) version of {@link #findPagedBuilds(int, int, long, String)}. Returns the builds that come after the
+     * given cursor in (created_at, id) descending order, or the first builds when the cursor is null. This reads
+     * straight off the (deployable_system_id, created_at, id) index no matter how deep the page is. Filtered results
+     * stay in that order, as ranking exact matches first would not be stable across cursors.
+     */
+    default List<Build> findBuildsAfterCursor(Cursor cursor, int limit, long systemId, String componentFilter) {
+        if (isBlank(componentFilter)) {
+            return isNull(cursor)
+                    ? findPagedBuildsNoFilter(0, limit, systemId)
+                    : findBuildsAfterCursorNoFilter(cursor.timestamp(), cursor.id(), limit, systemId);
+        }
+
+        var filter = f(LIKE_QUERY_FORMAT, componentFilter);
+        return isNull(cursor)
+                ? findFirstBuildsWithVersionOrIdentifierFilters(limit, systemId, filter)
+                : findBuildsAfterCursorWithVersionOrIdentifierFilters(cursor.timestamp(), cursor.id(), limit, systemId, filter);
+    }
+
+    @SqlQuery("select * from builds where deployable_system_id = :systemId and (created_at, id) < (:createdAt, :id) order by created_at desc, id desc limit :limit")
+    List<Build> findBuildsAfterCursorNoFilter(@Bind("createdAt") Instant createdAt, @Bind("id") long id, @Bind("limit") int limit, @Bind("systemId") long systemId);
+
+    @SqlQuery("select * from builds where builds.deployable_system_id = :systemId" + COMPONENT_FILTER + " order by created_at desc, id desc limit :limit")
+    List<Build> findFirstBuildsWithVersionOrIdentifierFilters(@Bind("limit") int limit, @Bind("systemId") long systemId, @Bind("componentFilter") String componentFilter);
+
+    @SqlQuery("select * from builds where builds.deployable_system_id = :systemId and (created_at, id) < (:createdAt, :id)" + COMPONENT_FILTER
+            + " order by created_at desc, id desc limit :limit")
+    List<Build> findBuildsAfterCursorWithVersionOrIdentifierFilters(@Bind("createdAt") Instant createdAt, @Bind("id") long id, @Bind("limit") int limit, @Bind("systemId") long systemId, @Bind("componentFilter") String componentFilter);
+
+    /**
+     * Pages the builds whose extra deployment info contains the given JSON object, i.e. has all of its keys with the
+     * same values. Served by the GIN index on the extra deployment info.
+     */
+    @SqlQuery("select *, count(*) over () as total_count from builds where deployable_system_id = :systemId" + EXTRA_INFO_FILTER
+            + " order by created_at desc, id desc offset :offset limit :limit")
+    @RegisterRowMapperFactory(CountedMapperFactory.class)
+    List<Counted<Build>> findPagedBuildsWithTotalCountWithExtraInfoFilter(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId,
+                                                                          @Bind("extraInfo") String extraInfoJson);
+
+    @SqlQuery("select count(*) from builds where deployable_system_id = :systemId" + EXTRA_INFO_FILTER)
+    long countBuildsWithExtraInfoFilter(@Bind("systemId") long systemId, @Bind("extraInfo") String extraInfoJson);
 
     default long countBuilds(long systemId, String componentFilter) {
         if (isBlank(componentFilter)) {
@@ -39,22 +123,30 @@ public interface BuildDao {
         }
 
         // Both name and version filtering
-        return countBuildsWithVersionOrIdentifierFilters(systemId, componentFilter);
+        return countBuildsWithVersionOrIdentifierFilters(systemId, f(LIKE_QUERY_FORMAT, componentFilter));
     }
 
     @SqlQuery("select count(*) from builds where deployable_system_id = :systemId")
     long countBuildsNoFilter(@Bind("systemId") long systemId);
 
-    @SqlQuery("select count(*) from builds where builds.deployable_system_id = :systemId and (component_version like :componentFilter or component_identifier like :componentFilter)")
+    @SqlQuery("select count(*) from builds where builds.deployable_system_id = :systemId" + COMPONENT_FILTER)
     long countBuildsWithVersionOrIdentifierFilters(@Bind("systemId") long systemId, @Bind("componentFilter") String componentFilter);
 
     @SqlUpdate("insert into builds " 
         + "(repo_namespace, repo_name, commit_ref, commit_user, source_branch, component_identifier, component_version, distribution_location, extra_deployment_info, change_log, git_provider, deployable_system_id) "
         + "values " 
-        + "(:repoNamespace, :repoName, :commitRef, :commitUser, :sourceBranch, :componentIdentifier, :componentVersion, :distributionLocation, :extraData, :changeLog, :gitProvider, :deployableSystemId)")
+        + "(:repoNamespace, :repoName, :commitRef, :commitUser, :sourceBranch, :componentIdentifier, :componentVersion, :distributionLocation, cast(:extraData as jsonb), :changeLog, :gitProvider, :deployableSystemId)")
     @GetGeneratedKeys
     long insertBuild(@BindBean Build build, @Bind("extraData") String extraDataJson);
 
-    @SqlQuery("select count(*) from builds where deployable_system_id = :systemId and created_at >= :start and created_at <= :end")
-    long countBuildsInSystemInRange(@Bind("systemId") long systemId, @Bind("start") Instant start, @Bind("end") Instant end);
+    /**
+     * Inserts the builds as one JDBC batch in a single transaction and returns their ids in the same order. The extra
+     * deployment info JSON is given per build, in the same order as the builds.
+     */
+    @SqlBatch("insert into builds "
+        + "(repo_namespace, repo_name, commit_ref, commit_user, source_branch, component_identifier, component_version, distribution_location, extra_deployment_info, change_log, git_provider, deployable_system_id) "
+        + "values "
+        + "(:repoNamespace, :repoName, :commitRef, :commitUser, :sourceBranch, :componentIdentifier, :componentVersion, :distributionLocation, cast(:extraData as jsonb), :changeLog, :gitProvider, :deployableSystemId)")
+    @GetGeneratedKeys("id")
+    List<Long> insertBuilds(@BindBean List<Build> builds, @Bind("extraData") List<String> extraDataJson);
 }
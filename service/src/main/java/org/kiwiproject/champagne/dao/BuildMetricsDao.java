@@ -0,0 +1,54 @@
+package org.kiwiproject.champagne.dao;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+/**
+ * Reads and maintains the daily per system, per component build counts in {@code build_daily_counts}, so build
+ * metrics never have to count the raw builds table.
+ */
+public interface BuildMetricsDao {
+
+    /**
+     * The UTC date of a build. {@code created_at} holds the wall clock time of the database session time zone, so it
+     * is converted to UTC to match the UTC dates used by the rollup job and the metrics.
+     */
+    String BUILD_DATE_UTC = "cast(timezone('UTC', timezone(current_setting('TimeZone'), created_at)) as date)";
+
+    /**
+     * Recounts the builds created on or after the start of the given UTC date and replaces the daily counts for those
+     * days. The start is converted to the session time zone rather than converting {@code created_at}, so the range is
+     * served by the {@code created_at} index.
+     */
+    @SqlUpdate("insert into build_daily_counts (deployable_system_id, build_date, component_identifier, build_count)"
+            + " select deployable_system_id, " + BUILD_DATE_UTC + ", component_identifier, count(*) from builds"
+            + " where created_at >= timezone(current_setting('TimeZone'), timezone('UTC', cast(:since as timestamp)))"
+            + " and deployable_system_id is not null"
+            + " group by deployable_system_id, " + BUILD_DATE_UTC + ", component_identifier"
+            + " on conflict (deployable_system_id, build_date, component_identifier) do update set build_count = excluded.build_count")
+    int rollUpBuildCountsSince(@Bind("since") LocalDate since);
+
+    /**
+     * The latest UTC date with a daily build count, empty when nothing has been rolled up yet.
+     */
+    @SqlQuery("select build_date from build_daily_counts order by build_date desc limit 1")
+    Optional<LocalDate> findLastBuildDate();
+
+    @SqlQuery("select coalesce(sum(build_count), 0) from build_daily_counts"
+            + " where deployable_system_id = :systemId and build_date >= :start and build_date <= :end")
+    long countBuildsInSystemInRange(@Bind("systemId") long systemId, @Bind("start") LocalDate start, @Bind("end") LocalDate end);
+
+    @SqlQuery("select component_identifier, sum(build_count) as build_count from build_daily_counts"
+            + " where deployable_system_id = :systemId and build_date >= :start and build_date <= :end"
+            + " group by component_identifier")
+    @KeyColumn("component_identifier")
+    @ValueColumn("build_count")
+    Map<String, Long> countBuildsByComponentInRange(@Bind("systemId") long systemId, @Bind("start") LocalDate start, @Bind("end") LocalDate end);
+}
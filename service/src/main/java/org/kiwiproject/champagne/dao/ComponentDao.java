@@ -5,24 +5,29 @@ import java.util.List;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
-import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
-import org.kiwiproject.champagne.dao.mappers.ComponentMapper;
+import org.kiwiproject.champagne.dao.mappers.ComponentWithTagMapper;
 import org.kiwiproject.champagne.model.Component;
 
-@RegisterRowMapper(ComponentMapper.class)
+@RegisterRowMapper(ComponentWithTagMapper.class)
 public interface ComponentDao {
 
-    @SqlQuery("select * from components where tag_id in (<tagIds>) order by component_name")
-    List<Component> findComponentsByHostTags(@BindList("tagIds") List<Long> tagIds);
+    /**
+     * Selects components with their tag joined in, which {@link ComponentWithTagMapper} maps to
+     * {@link Component#getTag()}.
+     */
+    String COMPONENTS_WITH_TAG = "select c.*, t.created_at as tag_created_at, t.updated_at as tag_updated_at,"
+            + " t.name as tag_name, t.deployable_system_id as tag_deployable_system_id"
+            + " from components c"
+            + " left join tags t on t.id = c.tag_id";
 
-    @SqlQuery("select * from components where deployable_system_id = :deployableSystemId order by component_name")
-    List<Component> findComponentsForSystem(@Bind("deployableSystemId") long deployableSystemId);
+    @SqlQuery(COMPONENTS_WITH_TAG + " where c.tag_id in (select tag_id from host_tags where host_id = :hostId) order by c.component_name")
+    List<Component> findComponentsForHost(@Bind("hostId") long hostId);
 
-    @SqlQuery("select * from components where deployable_system_id = :deployableSystemId and component_name like :name order by component_name")
-    List<Component> findComponentsForSystemMatchingName(@Bind("deployableSystemId") long deployableSystemId, @Bind("name") String name);
+    @SqlQuery(COMPONENTS_WITH_TAG + " where c.deployable_system_id = :deployableSystemId order by c.component_name")
+    List<Component> findComponentsForSystem(@Bind("deployableSystemId") long deployableSystemId);
 
     @SqlUpdate("insert into components (component_name, tag_id, deployable_system_id) values (:componentName, :tagId, :deployableSystemId)")
     @GetGeneratedKeys
@@ -0,0 +1,35 @@
+package org.kiwiproject.champagne.dao;
+
+import static org.kiwiproject.collect.KiwiLists.first;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import lombok.Value;
+
+/**
+ * Pairs a row returned from a paged query with the total number of rows matching that query. The total is computed in
+ * the same statement using a {@code count(*) over ()} window, exposed as the {@code total_count} column.
+ */
+@Value
+public class Counted<T> {
+
+    T value;
+    long totalCount;
+
+    public static <T> List<T> valuesOf(List<Counted<T>> rows) {
+        return rows.stream().map(Counted::getValue).toList();
+    }
+
+    /**
+     * Returns the total count carried by the rows. A page past the end of the results has no rows to carry the total,
+     * so in that case (and only that case) the given count query is used instead.
+     */
+    public static <T> long totalCountOf(List<Counted<T>> rows, int offset, LongSupplier countQuery) {
+        if (!rows.isEmpty()) {
+            return first(rows).getTotalCount();
+        }
+
+        return offset == 0 ? 0 : countQuery.getAsLong();
+    }
+}
@@ -1,6 +1,7 @@
 package org.kiwiproject.champagne.dao;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
@@ -9,10 +10,12 @@ import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.kiwiproject.champagne.dao.mappers.DeployableSystemAccessMapper;
 import org.kiwiproject.champagne.dao.mappers.DeployableSystemForUserMapper;
 import org.kiwiproject.champagne.dao.mappers.DeployableSystemMapper;
 import org.kiwiproject.champagne.dao.mappers.SystemUserMapper;
 import org.kiwiproject.champagne.model.DeployableSystem;
+import org.kiwiproject.champagne.model.DeployableSystemAccess;
 
 public interface DeployableSystemDao {
 
@@ -44,12 +47,21 @@ public interface DeployableSystemDao {
     @SqlUpdate("delete from deployable_systems where id = :id")
     int deleteById(@Bind("id") long id);
 
-    @SqlQuery("select system_admin from users_deployable_systems where user_id = :userId and deployable_system_id = :systemId")
-    boolean isUserAdminOfSystem(@Bind("userId") long userId, @Bind("systemId") long systemId);
-
     @SqlQuery("select true from users_deployable_systems where deployable_system_id = :systemId and user_id = :userId")
     Boolean isUserInSystem(@Bind("userId") long userId, @Bind("systemId") long systemId);
 
+    /**
+     * Looks up the user by system identifier along with their membership and admin flag in the given system, in one
+     * query. Empty when there is no such user; a user who is not in the system is returned as a non-member.
+     */
+    @SqlQuery("select u.id as user_id, cast(:systemId as bigint) as system_id, usd.user_id is not null as member,"
+            + " coalesce(usd.system_admin, false) as system_admin"
+            + " from users u left join users_deployable_systems usd on usd.user_id = u.id and usd.deployable_system_id = :systemId"
+            + " where u.system_identifier = :systemIdentifier")
+    @RegisterRowMapper(DeployableSystemAccessMapper.class)
+    Optional<DeployableSystemAccess> findAccessBySystemIdentifier(@Bind("systemIdentifier") String systemIdentifier,
+                                                                  @Bind("systemId") long systemId);
+
     default void insertOrUpdateSystemUser(long systemId, long userId, boolean isAdmin) {
         if (BooleanUtils.isTrue(isUserInSystem(userId, systemId))) {
             updateAdminStatusForUserInSystem(systemId, userId, isAdmin);
@@ -0,0 +1,52 @@
+package org.kiwiproject.champagne.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.kiwiproject.champagne.dao.mappers.DeploymentMetricsMapper;
+import org.kiwiproject.champagne.model.DeploymentMetrics;
+
+/**
+ * Deployment analytics read from the {@code deployment_daily_stats} and {@code deployment_execution_daily_stats}
+ * materialized views, which pre-aggregate deployments and executions per system, environment and UTC day.
+ */
+@RegisterRowMapper(DeploymentMetricsMapper.class)
+public interface DeploymentMetricsDao {
+
+    @SqlUpdate("refresh materialized view concurrently deployment_daily_stats")
+    void refreshDeploymentDailyStats();
+
+    @SqlUpdate("refresh materialized view concurrently deployment_execution_daily_stats")
+    void refreshDeploymentExecutionDailyStats();
+
+    /**
+     * Returns the metrics of each environment of the system that had a deployment or execution between the given
+     * dates (inclusive). The {@code days} are the length of that window, used for the deployment frequency.
+     */
+    @SqlQuery("select coalesce(d.environment_id, e.environment_id) as environment_id,"
+            + " coalesce(d.deployment_count, 0) as deployment_count,"
+            + " cast(coalesce(d.deployment_count, 0) as double precision) / :days as deployments_per_day,"
+            + " coalesce(d.failed_deployment_count, 0) as failed_deployment_count,"
+            + " cast(d.failed_deployment_count as double precision) / nullif(d.deployment_count + d.failed_deployment_count, 0) as change_failure_rate,"
+            + " cast(d.lead_time_seconds_sum as double precision) / nullif(d.lead_time_count, 0) as average_lead_time_seconds,"
+            + " coalesce(e.execution_count, 0) as execution_count,"
+            + " coalesce(e.failed_execution_count, 0) as failed_execution_count,"
+            + " cast(e.duration_seconds_sum as double precision) / nullif(e.finished_execution_count, 0) as average_execution_seconds"
+            + " from (select environment_id, sum(deployment_count) as deployment_count, sum(failed_deployment_count) as failed_deployment_count,"
+            + "   sum(lead_time_count) as lead_time_count, sum(lead_time_seconds_sum) as lead_time_seconds_sum"
+            + "   from deployment_daily_stats where deployable_system_id = :systemId and stat_date >= :start and stat_date <= :end"
+            + "   group by environment_id) d"
+            + " full outer join (select environment_id, sum(execution_count) as execution_count, sum(failed_execution_count) as failed_execution_count,"
+            + "   sum(finished_execution_count) as finished_execution_count, sum(duration_seconds_sum) as duration_seconds_sum"
+            + "   from deployment_execution_daily_stats where deployable_system_id = :systemId and stat_date >= :start and stat_date <= :end"
+            + "   group by environment_id) e on e.environment_id = d.environment_id"
+            + " order by environment_id")
+    List<DeploymentMetrics> findDeploymentMetrics(@Bind("systemId") long systemId,
+                                                  @Bind("start") LocalDate start,
+                                                  @Bind("end") LocalDate end,
+                                                  @Bind("days") int days);
+}
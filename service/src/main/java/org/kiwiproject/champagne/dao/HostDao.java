@@ -1,42 +1,152 @@
 package org.kiwiproject.champagne.dao;
 
+import static java.util.function.Function.identity;
+import static java.util.function.Predicate.not;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.BindMethods;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowReducer;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
 import org.kiwiproject.champagne.dao.mappers.HostMapper;
+import org.kiwiproject.champagne.dao.mappers.HostTagsReducer;
 import org.kiwiproject.champagne.model.Host;
 
 @RegisterRowMapper(HostMapper.class)
 public interface HostDao {
 
-    @SqlQuery("select * from hosts where environment_id = :envId and deployable_system_id = :systemId order by hostname")
+    /**
+     * An association between a host and one of its tags.
+     */
+    record HostTag(long hostId, long tagId) {}
+
+    /**
+     * Selects the hosts of an environment left joined to their tags, to be assembled by {@link HostTagsReducer}.
+     */
+    String HOSTS_WITH_TAGS_IN_ENV = "select h.*, t.id as tag_id, t.created_at as tag_created_at, t.updated_at as tag_updated_at,"
+            + " t.name as tag_name, t.deployable_system_id as tag_deployable_system_id"
+            + " from hosts h"
+            + " left join host_tags ht on ht.host_id = h.id"
+            + " left join tags t on t.id = ht.tag_id"
+            + " where h.environment_id = :envId and h.deployable_system_id = :systemId";
+
+    String HOSTS_WITH_TAGS_ORDER = " order by h.hostname, h.id, t.name";
+
+    @SqlQuery(HOSTS_WITH_TAGS_IN_ENV + HOSTS_WITH_TAGS_ORDER)
+    @UseRowReducer(HostTagsReducer.class)
     List<Host> findHostsByEnvId(@Bind("envId") Long envId, @Bind("systemId") long systemId);
 
+    /**
+     * Finds the hosts of an environment, with all of their tags, that have a tag of a component of the system whose
+     * name matches the given LIKE pattern.
+     */
+    @SqlQuery(HOSTS_WITH_TAGS_IN_ENV
+            + " and exists (select 1 from host_tags cht join components c on c.tag_id = cht.tag_id"
+            + " where cht.host_id = h.id and c.deployable_system_id = :systemId and c.component_name like :componentFilter)"
+            + HOSTS_WITH_TAGS_ORDER)
+    @UseRowReducer(HostTagsReducer.class)
+    List<Host> findHostsByEnvIdMatchingComponent(@Bind("envId") long envId,
+                                                 @Bind("systemId") long systemId,
+                                                 @Bind("componentFilter") String componentFilter);
+
     @SqlUpdate("insert into hosts (environment_id, hostname, source, deployable_system_id) values (:environmentId, :hostname, :source, :deployableSystemId)")
     @GetGeneratedKeys
     long insertHost(@BindBean Host host);
 
+    /**
+     * Replaces the tags of the host with the given tags, only inserting the added and deleting the removed associations.
+     */
+    @Transaction
     default void updateTagList(long hostId, List<Long> tagIds) {
-        removeTagsForHost(hostId);
-        addTagsForHost(hostId, tagIds);
+        lockHosts(List.of(hostId));
+        replaceTagLists(Map.of(hostId, tagIds));
     }
 
-    @SqlUpdate("delete from host_tags where host_id = :hostId")
-    void removeTagsForHost(@Bind("hostId") long hostId);
+    /**
+     * Updates the hostname and replaces the tags of the host in the same transaction. The tags are left alone when the
+     * host doesn't exist.
+     */
+    @Transaction
+    default int updateHostAndTags(long hostId, String hostname, List<Long> tagIds) {
+        var updateCount = updateHost(hostname, hostId);
 
-    @SqlQuery("select tag_id from host_tags where host_id = :hostId")
-    List<Long> findTagIdsForHost(@Bind("hostId") long hostId);
+        if (updateCount > 0) {
+            replaceTagLists(Map.of(hostId, tagIds));
+        }
 
-    @SqlQuery("select h.* from hosts h inner join host_tags ht on ht.host_id = h.id where h.deployable_system_id = :systemId and h.environment_id = :envId and ht.tag_id in (<tagIds>) order by h.hostname")
-    List<Host> findHostsForTagsInEnv(@Bind("systemId") long systemId, @Bind("envId") long envId, @BindList("tagIds") List<Long> tagIds);
+        return updateCount;
+    }
+
+    /**
+     * Bulk version of {@link #updateTagList(long, List)} for hosts of the given system. Hosts that don't exist or
+     * belong to another system are skipped. Returns the ids of the hosts that were retagged.
+     */
+    @Transaction
+    default List<Long> updateTagListsInSystem(Map<Long, List<Long>> tagIdsByHostId, long systemId) {
+        if (tagIdsByHostId.isEmpty()) {
+            return List.of();
+        }
+
+        var hostIds = lockHostsInSystem(List.copyOf(tagIdsByHostId.keySet()), systemId);
+        if (hostIds.isEmpty()) {
+            return List.of();
+        }
+
+        replaceTagLists(hostIds.stream().collect(toMap(identity(), tagIdsByHostId::get)));
+
+        return hostIds;
+    }
+
+    /**
+     * Diffs the current tags of the given hosts against the given tags and applies the difference with one batch of
+     * deletes and one batch of inserts. Callers are expected to hold a lock on the hosts.
+     */
+    default void replaceTagLists(Map<Long, List<Long>> tagIdsByHostId) {
+        Set<HostTag> currentHostTags = Set.copyOf(findHostTags(List.copyOf(tagIdsByHostId.keySet())));
+        Set<HostTag> newHostTags = tagIdsByHostId.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream().map(tagId -> new HostTag(entry.getKey(), tagId)))
+                .collect(toSet());
+
+        var removedHostTags = currentHostTags.stream().filter(not(newHostTags::contains)).toList();
+        if (!removedHostTags.isEmpty()) {
+            removeHostTags(removedHostTags);
+        }
+
+        var addedHostTags = newHostTags.stream().filter(not(currentHostTags::contains)).toList();
+        if (!addedHostTags.isEmpty()) {
+            addHostTags(addedHostTags);
+        }
+    }
+
+    @SqlQuery("select id from hosts where id in (<hostIds>) order by id for update")
+    List<Long> lockHosts(@BindList("hostIds") List<Long> hostIds);
+
+    @SqlQuery("select id from hosts where id in (<hostIds>) and deployable_system_id = :systemId order by id for update")
+    List<Long> lockHostsInSystem(@BindList("hostIds") List<Long> hostIds, @Bind("systemId") long systemId);
+
+    @SqlQuery("select host_id, tag_id from host_tags where host_id in (<hostIds>)")
+    @RegisterConstructorMapper(HostTag.class)
+    List<HostTag> findHostTags(@BindList("hostIds") List<Long> hostIds);
+
+    @SqlBatch("delete from host_tags where host_id = :hostId and tag_id = :tagId")
+    void removeHostTags(@BindMethods List<HostTag> hostTags);
+
+    @SqlBatch("insert into host_tags (host_id, tag_id) values (:hostId, :tagId)")
+    void addHostTags(@BindMethods List<HostTag> hostTags);
 
     @SqlBatch("insert into host_tags (host_id, tag_id) values (:hostId, :tagId)")
     void addTagsForHost(@Bind("hostId") long hostId, @Bind("tagId") List<Long> tagIds);
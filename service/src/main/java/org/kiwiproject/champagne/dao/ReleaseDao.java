@@ -1,14 +1,23 @@
 package org.kiwiproject.champagne.dao;
 
+import static java.util.Objects.nonNull;
+
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.jdbi.v3.sqlobject.CreateSqlObject;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapperFactory;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.manualdeployment.Release;
+import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
+import org.kiwiproject.champagne.dao.mappers.CountedMapperFactory;
 import org.kiwiproject.champagne.dao.mappers.ReleaseMapper;
 
 @RegisterRowMapper(ReleaseMapper.class)
@@ -18,15 +27,40 @@ public interface ReleaseDao {
     @GetGeneratedKeys
     long insertRelease(@BindBean Release release);
 
+    @CreateSqlObject
+    ReleaseStatusDao releaseStatusDao();
+
+    @CreateSqlObject
+    AuditRecordDao auditRecordDao();
+
+    /**
+     * Inserts the release, a PENDING status for it in each environment of its deployable system and, unless the audit
+     * record template is null, the audit records for all of them, in one transaction.
+     */
+    @Transaction
+    default long insertReleaseWithStatuses(Release release, AuditRecord auditRecordTemplate) {
+        var releaseId = insertRelease(release);
+        var statusIds = releaseStatusDao().insertPendingStatusesForSystem(releaseId, release.getDeployableSystemId());
+
+        if (nonNull(auditRecordTemplate)) {
+            var auditRecords = Stream.concat(
+                    Stream.of(auditRecordTemplate.forRecord(Release.class, releaseId)),
+                    statusIds.stream().map(statusId -> auditRecordTemplate.forRecord(ReleaseStatus.class, statusId))
+            ).toList();
+
+            auditRecordDao().insertAuditRecords(auditRecords);
+        }
+
+        return releaseId;
+    }
+
     @SqlQuery("select count(*) from manual_deployment_task_releases where deployable_system_id = :systemId")
     long countReleases(@Bind("systemId") long systemId);
 
-    @SqlQuery("select * from manual_deployment_task_releases where deployable_system_id = :systemId order by release_number desc offset :offset limit :limit")
-    List<Release> findPagedReleases(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId);
+    @SqlQuery("select *, count(*) over () as total_count from manual_deployment_task_releases where deployable_system_id = :systemId order by release_number desc offset :offset limit :limit")
+    @RegisterRowMapperFactory(CountedMapperFactory.class)
+    List<Counted<Release>> findPagedReleasesWithTotalCount(@Bind("offset") int offset, @Bind("limit") int limit, @Bind("systemId") long systemId);
 
     @SqlUpdate("delete from manual_deployment_task_releases where id = :id")
     void deleteById(@Bind("id") long id);
-
-    @SqlQuery("select id from manual_deployment_task_releases")
-    List<Long> findAllReleaseIds();
 }
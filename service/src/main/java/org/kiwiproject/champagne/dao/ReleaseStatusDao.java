@@ -2,28 +2,63 @@ package org.kiwiproject.champagne.dao;
 
 import java.util.List;
 
+import org.jdbi.v3.sqlobject.CreateSqlObject;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
-import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
 import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
+import org.kiwiproject.champagne.model.manualdeployment.EnvironmentStatusBackfill;
 import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
 import org.kiwiproject.champagne.dao.mappers.ReleaseStatusMapper;
 
 @RegisterRowMapper(ReleaseStatusMapper.class)
 public interface ReleaseStatusDao {
 
+    @CreateSqlObject
+    TaskStatusDao taskStatusDao();
+
+    @SqlUpdate("insert into manual_deployment_task_release_statuses"
+            + " (manual_deployment_task_release_id, deployment_environment_id, status)"
+            + " select :releaseId, id, 'PENDING' from deployment_environments where deployable_system_id = :systemId")
+    @GetGeneratedKeys("id")
+    List<Long> insertPendingStatusesForSystem(@Bind("releaseId") long releaseId, @Bind("systemId") long systemId);
+
     @SqlUpdate("insert into manual_deployment_task_release_statuses"
             + " (manual_deployment_task_release_id, deployment_environment_id, status)"
-            + " values (:releaseId, :environmentId, :status)")
-    @GetGeneratedKeys
-    long insertReleaseStatus(@BindBean ReleaseStatus releaseStatus);
+            + " select r.id, e.id, 'NOT_REQUIRED' from manual_deployment_task_releases r"
+            + " join deployment_environments e on e.deployable_system_id = r.deployable_system_id"
+            + " where e.id = :environmentId")
+    int insertNotRequiredStatusesForEnvironment(@Bind("environmentId") long environmentId);
+
+    /**
+     * Creates NOT_REQUIRED release and task statuses in the given (new) environment for every release and task of the
+     * environment's deployable system, and adds the new task statuses to the release task counts. Everything is done
+     * set-based in one transaction, regardless of how many releases and tasks the system has.
+     */
+    @Transaction
+    default EnvironmentStatusBackfill insertNotRequiredReleaseAndTaskStatusesForEnvironment(long environmentId) {
+        var releaseStatusesCreated = insertNotRequiredStatusesForEnvironment(environmentId);
+
+        var taskStatusDao = taskStatusDao();
+        var taskStatusesCreated = taskStatusDao.insertNotRequiredStatusesForEnvironment(environmentId);
+        taskStatusDao.adjustReleaseTaskCountsForEnvironment(environmentId, 1);
+
+        return EnvironmentStatusBackfill.builder()
+                .releaseStatusesCreated(releaseStatusesCreated)
+                .taskStatusesCreated(taskStatusesCreated)
+                .build();
+    }
     
     @SqlQuery("select * from manual_deployment_task_release_statuses where manual_deployment_task_release_id = :releaseId")
     List<ReleaseStatus> findByReleaseId(@Bind("releaseId") long id);
 
+    @SqlQuery("select * from manual_deployment_task_release_statuses where manual_deployment_task_release_id in (<releaseIds>)")
+    List<ReleaseStatus> findByReleaseIds(@BindList("releaseIds") List<Long> releaseIds);
+
     @SqlUpdate("update manual_deployment_task_release_statuses set status = :status, updated_at = now() where id = :id")
     int updateStatus(@Bind("id") long id, @Bind("status") DeploymentTaskStatus status);
 }
@@ -27,10 +27,4 @@ public interface TagDao {
     @SqlUpdate("delete from tags where id = :id")
     int deleteTag(@Bind("id") long id);
 
-    @SqlQuery("select t.* from tags t left join host_tags ht on ht.tag_id = t.id where ht.host_id = :hostId order by t.name")
-    List<Tag> findTagsForHost(@Bind("hostId") long hostId);
-
-    @SqlQuery("select * from tags where id = :id")
-    Tag findTagById(@Bind("id") long id);
-
 }
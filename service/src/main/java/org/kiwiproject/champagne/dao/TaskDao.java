@@ -1,15 +1,25 @@
 package org.kiwiproject.champagne.dao;
 
+import static java.util.Objects.nonNull;
+import static java.util.function.Function.identity;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.jdbi.v3.sqlobject.CreateSqlObject;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecord.Action;
+import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
 import org.kiwiproject.champagne.model.manualdeployment.Task;
+import org.kiwiproject.champagne.model.manualdeployment.TaskStatus;
 import org.kiwiproject.champagne.dao.mappers.TaskMapper;
 
 @RegisterRowMapper(TaskMapper.class)
@@ -31,12 +41,70 @@ public interface TaskDao {
     @SqlUpdate("delete from manual_deployment_tasks where id = :id")
     void deleteById(@Bind("id") long id);
 
+    @CreateSqlObject
+    TaskStatusDao taskStatusDao();
+
+    @CreateSqlObject
+    AuditRecordDao auditRecordDao();
+
+    /**
+     * Inserts the task and a PENDING status for it in each environment of the given deployable system, adds the
+     * statuses to the task counts of the release statuses and rolls up the release statuses from the new counts, in one
+     * transaction. Unless the audit record template is null, audit records are inserted for the new task and statuses
+     * and for the release statuses that changed.
+     */
+    @Transaction
+    default long insertTaskWithStatuses(Task task, long systemId, AuditRecord auditRecordTemplate) {
+        var taskId = insertTask(task);
+
+        var taskStatusDao = taskStatusDao();
+        var statusIds = taskStatusDao.insertPendingStatusesForSystem(taskId, systemId);
+        taskStatusDao.adjustReleaseTaskCountsForTask(taskId, 1);
+        var releaseStatusIds = taskStatusDao.rollUpReleaseStatusesForTask(taskId);
+
+        if (nonNull(auditRecordTemplate)) {
+            var releaseStatusAuditRecordTemplate = auditRecordTemplate.toBuilder().action(Action.UPDATED).build();
+            var auditRecords = Stream.of(
+                    Stream.of(auditRecordTemplate.forRecord(Task.class, taskId)),
+                    statusIds.stream().map(statusId -> auditRecordTemplate.forRecord(TaskStatus.class, statusId)),
+                    releaseStatusIds.stream().map(statusId -> releaseStatusAuditRecordTemplate.forRecord(ReleaseStatus.class, statusId))
+            ).flatMap(identity()).toList();
+
+            auditRecordDao().insertAuditRecords(auditRecords);
+        }
+
+        return taskId;
+    }
+
+    /**
+     * Deletes the task after taking its statuses out of the task counts on the release statuses and rolling up the
+     * release statuses from the remaining counts. The statuses themselves go with the task through the cascading
+     * foreign key. Unless the audit record template is null, audit records are inserted for the deleted task and for
+     * the release statuses that changed, in the same transaction.
+     */
+    @Transaction
+    default void deleteByIdAndReleaseTaskCounts(long id, AuditRecord auditRecordTemplate) {
+        var taskStatusDao = taskStatusDao();
+        taskStatusDao.lockStatusesForTask(id);
+        taskStatusDao.adjustReleaseTaskCountsForTask(id, -1);
+        var releaseStatusIds = taskStatusDao.rollUpReleaseStatusesForTask(id);
+
+        deleteById(id);
+
+        if (nonNull(auditRecordTemplate)) {
+            var releaseStatusAuditRecordTemplate = auditRecordTemplate.toBuilder().action(Action.UPDATED).build();
+            var auditRecords = Stream.concat(
+                    Stream.of(auditRecordTemplate.forRecord(Task.class, id)),
+                    releaseStatusIds.stream().map(statusId -> releaseStatusAuditRecordTemplate.forRecord(ReleaseStatus.class, statusId))
+            ).toList();
+
+            auditRecordDao().insertAuditRecords(auditRecords);
+        }
+    }
+
     @SqlQuery("select * from manual_deployment_tasks where id = :id")
     Optional<Task> findById(@Bind("id") long id);
 
     @SqlQuery("select t.* from manual_deployment_tasks t left join manual_deployment_task_statuses s on s.manual_deployment_task_id = t.id where s.id = :statusId")
     Optional<Task> findByTaskStatusId(@Bind("statusId") long statusId);
-
-    @SqlQuery("select id from manual_deployment_tasks")
-    List<Long> findAllTaskIds();
 }
@@ -1,29 +1,190 @@
 package org.kiwiproject.champagne.dao;
 
+import static java.util.Objects.nonNull;
+
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.jdbi.v3.sqlobject.CreateSqlObject;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
-import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
+import org.kiwiproject.champagne.model.manualdeployment.ReleaseStage;
+import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
 import org.kiwiproject.champagne.model.manualdeployment.TaskStatus;
+import org.kiwiproject.champagne.model.manualdeployment.TaskStatusBulkUpdate;
 import org.kiwiproject.champagne.dao.mappers.TaskStatusMapper;
 
 @RegisterRowMapper(TaskStatusMapper.class)
 public interface TaskStatusDao {
-    
+
+    /**
+     * Adds (or with a negative delta, removes) the matching task statuses to the PENDING/COMPLETE/NOT_REQUIRED task
+     * counts kept on the release status for the same release and environment. The statuses are selected by the
+     * predicate appended to this prefix and closed with {@link #RELEASE_TASK_COUNTS_SUFFIX}.
+     */
+    String RELEASE_TASK_COUNTS_PREFIX = "update manual_deployment_task_release_statuses rs set"
+            + " pending_tasks = rs.pending_tasks + :delta * c.pending,"
+            + " complete_tasks = rs.complete_tasks + :delta * c.complete,"
+            + " not_required_tasks = rs.not_required_tasks + :delta * c.not_required,"
+            + " updated_at = now()"
+            + " from (select t.manual_deployment_task_release_id as release_id, ts.deployment_environment_id as environment_id,"
+            + " count(*) filter (where ts.status = 'PENDING') as pending,"
+            + " count(*) filter (where ts.status = 'COMPLETE') as complete,"
+            + " count(*) filter (where ts.status = 'NOT_REQUIRED') as not_required"
+            + " from manual_deployment_task_statuses ts"
+            + " join manual_deployment_tasks t on t.id = ts.manual_deployment_task_id"
+            + " where ";
+
+    String RELEASE_TASK_COUNTS_SUFFIX = " group by t.manual_deployment_task_release_id, ts.deployment_environment_id) c"
+            + " where rs.manual_deployment_task_release_id = c.release_id and rs.deployment_environment_id = c.environment_id";
+
+    /**
+     * The release status derived from the task counts of release status {@code rs}: PENDING while any task is pending,
+     * NOT_REQUIRED when no task is required, COMPLETE otherwise.
+     */
+    String ROLLED_UP_RELEASE_STATUS = "(case when rs.pending_tasks > 0 then 'PENDING'"
+            + " when rs.not_required_tasks = rs.pending_tasks + rs.complete_tasks + rs.not_required_tasks then 'NOT_REQUIRED'"
+            + " else 'COMPLETE' end)";
+
+    /**
+     * Rolls up the release statuses of the releases and environments of the task statuses selected by the predicate
+     * appended to this prefix and closed with {@link #ROLL_UP_RELEASE_STATUSES_SUFFIX}. Release statuses without tasks
+     * and those already at their rolled up status are left alone.
+     */
+    String ROLL_UP_RELEASE_STATUSES_PREFIX = "update manual_deployment_task_release_statuses rs set status = "
+            + ROLLED_UP_RELEASE_STATUS + ", updated_at = now()"
+            + " where (rs.manual_deployment_task_release_id, rs.deployment_environment_id) in"
+            + " (select t.manual_deployment_task_release_id, ts.deployment_environment_id from manual_deployment_task_statuses ts"
+            + " join manual_deployment_tasks t on t.id = ts.manual_deployment_task_id where ";
+
+    String ROLL_UP_RELEASE_STATUSES_SUFFIX = ")"
+            + " and rs.pending_tasks + rs.complete_tasks + rs.not_required_tasks > 0"
+            + " and rs.status <> " + ROLLED_UP_RELEASE_STATUS;
+
     @SqlUpdate("insert into manual_deployment_task_statuses"
             + " (manual_deployment_task_id, deployment_environment_id, status)"
-            + " values (:taskId, :environmentId, :status)")
-    @GetGeneratedKeys
-    long insertTaskStatus(@BindBean TaskStatus taskStatus);
+            + " select :taskId, id, 'PENDING' from deployment_environments where deployable_system_id = :systemId")
+    @GetGeneratedKeys("id")
+    List<Long> insertPendingStatusesForSystem(@Bind("taskId") long taskId, @Bind("systemId") long systemId);
 
-    @SqlQuery("select * from manual_deployment_task_statuses where manual_deployment_task_id = :taskId")
-    List<TaskStatus> findByTaskId(@Bind("taskId") long id);
+    @SqlUpdate("insert into manual_deployment_task_statuses"
+            + " (manual_deployment_task_id, deployment_environment_id, status)"
+            + " select t.id, e.id, 'NOT_REQUIRED' from manual_deployment_tasks t"
+            + " join manual_deployment_task_releases r on r.id = t.manual_deployment_task_release_id"
+            + " join deployment_environments e on e.deployable_system_id = r.deployable_system_id"
+            + " where e.id = :environmentId")
+    int insertNotRequiredStatusesForEnvironment(@Bind("environmentId") long environmentId);
+
+    @SqlQuery("select s.* from manual_deployment_task_statuses s"
+            + " join manual_deployment_tasks t on t.id = s.manual_deployment_task_id"
+            + " where t.manual_deployment_task_release_id = :releaseId")
+    List<TaskStatus> findByReleaseId(@Bind("releaseId") long releaseId);
+
+    @SqlQuery("select s.id from manual_deployment_task_statuses s"
+            + " join manual_deployment_tasks t on t.id = s.manual_deployment_task_id"
+            + " where t.manual_deployment_task_release_id = :releaseId and t.stage = :stage and s.deployment_environment_id = :environmentId")
+    List<Long> findIdsByReleaseStageAndEnvironment(@Bind("releaseId") long releaseId,
+                                                   @Bind("stage") ReleaseStage stage,
+                                                   @Bind("environmentId") long environmentId);
 
     @SqlUpdate("update manual_deployment_task_statuses set status = :status, updated_at = now() where id = :id")
     int updateStatus(@Bind("id") long id, @Bind("status") DeploymentTaskStatus status);
+
+    @SqlBatch("update manual_deployment_task_statuses set status = :status, updated_at = now() where id = :id")
+    int[] updateStatuses(@Bind("id") List<Long> ids, @Bind("status") DeploymentTaskStatus status);
+
+    /**
+     * Updates the status, moves it between the task counts of its release status and rolls up the release status, as
+     * {@link #updateStatusesAndReleaseTaskCounts(List, DeploymentTaskStatus, AuditRecord)} does for many statuses.
+     */
+    @Transaction
+    default TaskStatusBulkUpdate updateStatusAndReleaseTaskCounts(long id,
+                                                                 DeploymentTaskStatus status,
+                                                                 AuditRecord auditRecordTemplate) {
+        return updateStatusesAndReleaseTaskCounts(List.of(id), status, auditRecordTemplate);
+    }
+
+    @CreateSqlObject
+    AuditRecordDao auditRecordDao();
+
+    /**
+     * Updates the statuses and moves them between the task counts of their release statuses. The status rows are
+     * locked first so a concurrent update of the same status can't count it twice. The counts are moved with one
+     * statement on each side of the batched update, the release statuses of the affected releases and environments are
+     * rolled up from the new counts and, unless the audit record template is null, the audit records for the updated
+     * task and release statuses are inserted, all in the same transaction.
+     */
+    @Transaction
+    default TaskStatusBulkUpdate updateStatusesAndReleaseTaskCounts(List<Long> ids,
+                                                                   DeploymentTaskStatus status,
+                                                                   AuditRecord auditRecordTemplate) {
+        var noUpdates = TaskStatusBulkUpdate.builder().taskStatusIds(List.of()).releaseStatusIds(List.of()).build();
+        if (ids.isEmpty()) {
+            return noUpdates;
+        }
+
+        var lockedIds = lockStatuses(ids);
+        if (lockedIds.isEmpty()) {
+            return noUpdates;
+        }
+
+        adjustReleaseTaskCountsForStatuses(lockedIds, -1);
+        updateStatuses(lockedIds, status);
+        adjustReleaseTaskCountsForStatuses(lockedIds, 1);
+
+        var releaseStatusIds = rollUpReleaseStatusesForStatuses(lockedIds);
+
+        if (nonNull(auditRecordTemplate)) {
+            var auditRecords = Stream.concat(
+                    lockedIds.stream().map(statusId -> auditRecordTemplate.forRecord(TaskStatus.class, statusId)),
+                    releaseStatusIds.stream().map(statusId -> auditRecordTemplate.forRecord(ReleaseStatus.class, statusId))
+            ).toList();
+
+            auditRecordDao().insertAuditRecords(auditRecords);
+        }
+
+        return TaskStatusBulkUpdate.builder()
+                .taskStatusIds(lockedIds)
+                .releaseStatusIds(releaseStatusIds)
+                .build();
+    }
+
+    /**
+     * Sets the release statuses of the releases and environments of the given task statuses to the status rolled up
+     * from their task counts. Release statuses without tasks keep their status. Returns the ids of the release
+     * statuses that changed.
+     */
+    @SqlUpdate(ROLL_UP_RELEASE_STATUSES_PREFIX + "ts.id in (<ids>)" + ROLL_UP_RELEASE_STATUSES_SUFFIX)
+    @GetGeneratedKeys("id")
+    List<Long> rollUpReleaseStatusesForStatuses(@BindList("ids") List<Long> ids);
+
+    /**
+     * Same as {@link #rollUpReleaseStatusesForStatuses(List)} for the statuses of the given task.
+     */
+    @SqlUpdate(ROLL_UP_RELEASE_STATUSES_PREFIX + "t.id = :taskId" + ROLL_UP_RELEASE_STATUSES_SUFFIX)
+    @GetGeneratedKeys("id")
+    List<Long> rollUpReleaseStatusesForTask(@Bind("taskId") long taskId);
+
+    @SqlQuery("select id from manual_deployment_task_statuses where id in (<ids>) order by id for update")
+    List<Long> lockStatuses(@BindList("ids") List<Long> ids);
+
+    @SqlQuery("select id from manual_deployment_task_statuses where manual_deployment_task_id = :taskId order by id for update")
+    List<Long> lockStatusesForTask(@Bind("taskId") long taskId);
+
+    @SqlUpdate(RELEASE_TASK_COUNTS_PREFIX + "ts.id in (<ids>)" + RELEASE_TASK_COUNTS_SUFFIX)
+    int adjustReleaseTaskCountsForStatuses(@BindList("ids") List<Long> ids, @Bind("delta") int delta);
+
+    @SqlUpdate(RELEASE_TASK_COUNTS_PREFIX + "t.id = :taskId" + RELEASE_TASK_COUNTS_SUFFIX)
+    int adjustReleaseTaskCountsForTask(@Bind("taskId") long taskId, @Bind("delta") int delta);
+
+    @SqlUpdate(RELEASE_TASK_COUNTS_PREFIX + "ts.deployment_environment_id = :environmentId" + RELEASE_TASK_COUNTS_SUFFIX)
+    int adjustReleaseTaskCountsForEnvironment(@Bind("environmentId") long environmentId, @Bind("delta") int delta);
 }
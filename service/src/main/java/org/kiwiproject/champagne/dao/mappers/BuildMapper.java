@@ -11,6 +11,7 @@ import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.statement.StatementContext;
 import org.kiwiproject.champagne.model.Build;
 import org.kiwiproject.champagne.model.GitProvider;
+import org.kiwiproject.champagne.model.RawJsonMap;
 import org.kiwiproject.jdbc.KiwiJdbc;
 import org.kiwiproject.json.JsonHelper;
 
@@ -41,9 +42,12 @@ public class BuildMapper implements RowMapper<Build>{
             .build();
     }
 
+    /**
+     * The JSON is only parsed if something reads the map; otherwise it is written back out to clients as is.
+     */
     private Map<String, Object> jsonToMap(ResultSet rs, String columnName) throws SQLException {
         var optionalJson = Optional.ofNullable(rs.getString(columnName));
 
-        return optionalJson.map(jsonHelper::toMap).orElse(Map.of());
+        return optionalJson.<Map<String, Object>>map(json -> new RawJsonMap(json, jsonHelper::toMap)).orElse(Map.of());
     }
 }
@@ -1,6 +1,7 @@
 package org.kiwiproject.champagne.dao.mappers;
 
 import static org.kiwiproject.jdbc.KiwiJdbc.instantFromTimestamp;
+import static org.kiwiproject.jdbc.KiwiJdbc.longValueOrNull;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -9,6 +10,9 @@ import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.statement.StatementContext;
 import org.kiwiproject.champagne.model.Component;
 
+/**
+ * Maps components without their tag. Queries that join the tag in use {@link ComponentWithTagMapper}.
+ */
 public class ComponentMapper implements RowMapper<Component> {
 
     @Override
@@ -18,7 +22,7 @@ public class ComponentMapper implements RowMapper<Component> {
                 .createdAt(instantFromTimestamp(rs, "created_at"))
                 .updatedAt(instantFromTimestamp(rs, "updated_at"))
                 .componentName(rs.getString("component_name"))
-                .tagId(rs.getLong("tag_id"))
+                .tagId(longValueOrNull(rs, "tag_id"))
                 .deployableSystemId(rs.getLong("deployable_system_id"))
                 .build();
     }
@@ -0,0 +1,40 @@
+package org.kiwiproject.champagne.dao.mappers;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.jdbc.KiwiJdbc.instantFromTimestamp;
+import static org.kiwiproject.jdbc.KiwiJdbc.longValueOrNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.kiwiproject.champagne.model.Component;
+import org.kiwiproject.champagne.model.Tag;
+
+/**
+ * Maps components along with their tag, joined in with {@code tag_} prefixed columns (see
+ * {@link org.kiwiproject.champagne.dao.ComponentDao#COMPONENTS_WITH_TAG}).
+ */
+public class ComponentWithTagMapper implements RowMapper<Component> {
+
+    private final ComponentMapper componentMapper = new ComponentMapper();
+
+    @Override
+    public Component map(ResultSet rs, StatementContext ctx) throws SQLException {
+        var component = componentMapper.map(rs, ctx);
+
+        var tagName = rs.getString("tag_name");
+        if (isNull(component.getTagId()) || isNull(tagName)) {
+            return component;
+        }
+
+        return component.withTag(Tag.builder()
+                .id(component.getTagId())
+                .createdAt(instantFromTimestamp(rs, "tag_created_at"))
+                .updatedAt(instantFromTimestamp(rs, "tag_updated_at"))
+                .name(tagName)
+                .deployableSystemId(longValueOrNull(rs, "tag_deployable_system_id"))
+                .build());
+    }
+}
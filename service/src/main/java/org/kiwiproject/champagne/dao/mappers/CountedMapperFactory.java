@@ -0,0 +1,33 @@
+package org.kiwiproject.champagne.dao.mappers;
+
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+import org.jdbi.v3.core.config.ConfigRegistry;
+import org.jdbi.v3.core.generic.GenericTypes;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.RowMapperFactory;
+import org.jdbi.v3.core.mapper.RowMappers;
+import org.kiwiproject.champagne.dao.Counted;
+
+/**
+ * Maps {@link Counted} rows by delegating to whatever row mapper is registered for the wrapped type and reading the
+ * {@code total_count} column alongside it.
+ */
+public class CountedMapperFactory implements RowMapperFactory {
+
+    @Override
+    public Optional<RowMapper<?>> build(Type type, ConfigRegistry config) {
+        if (GenericTypes.getErasedType(type) != Counted.class) {
+            return Optional.empty();
+        }
+
+        return GenericTypes.findGenericParameter(type, Counted.class)
+                .flatMap(valueType -> config.get(RowMappers.class).findFor(valueType))
+                .map(CountedMapperFactory::countedMapper);
+    }
+
+    private static RowMapper<?> countedMapper(RowMapper<?> valueMapper) {
+        return (rs, ctx) -> new Counted<>(valueMapper.map(rs, ctx), rs.getLong("total_count"));
+    }
+}
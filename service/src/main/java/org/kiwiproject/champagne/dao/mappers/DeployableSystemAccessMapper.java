@@ -0,0 +1,21 @@
+package org.kiwiproject.champagne.dao.mappers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.kiwiproject.champagne.model.DeployableSystemAccess;
+
+public class DeployableSystemAccessMapper implements RowMapper<DeployableSystemAccess> {
+
+    @Override
+    public DeployableSystemAccess map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return DeployableSystemAccess.builder()
+                .userId(rs.getLong("user_id"))
+                .systemId(rs.getLong("system_id"))
+                .member(rs.getBoolean("member"))
+                .admin(rs.getBoolean("system_admin"))
+                .build();
+    }
+}
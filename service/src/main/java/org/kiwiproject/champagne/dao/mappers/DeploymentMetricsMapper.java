@@ -0,0 +1,26 @@
+package org.kiwiproject.champagne.dao.mappers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.kiwiproject.champagne.model.DeploymentMetrics;
+
+public class DeploymentMetricsMapper implements RowMapper<DeploymentMetrics> {
+
+    @Override
+    public DeploymentMetrics map(ResultSet rs, StatementContext ctx) throws SQLException {
+        return DeploymentMetrics.builder()
+                .environmentId(rs.getLong("environment_id"))
+                .deploymentCount(rs.getLong("deployment_count"))
+                .deploymentsPerDay(rs.getDouble("deployments_per_day"))
+                .failedDeploymentCount(rs.getLong("failed_deployment_count"))
+                .changeFailureRate(rs.getObject("change_failure_rate", Double.class))
+                .averageLeadTimeSeconds(rs.getObject("average_lead_time_seconds", Double.class))
+                .executionCount(rs.getLong("execution_count"))
+                .failedExecutionCount(rs.getLong("failed_execution_count"))
+                .averageExecutionSeconds(rs.getObject("average_execution_seconds", Double.class))
+                .build();
+    }
+}
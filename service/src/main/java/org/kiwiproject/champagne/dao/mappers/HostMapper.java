@@ -19,7 +19,7 @@ public class HostMapper implements RowMapper<Host> {
             .id(rs.getLong("id"))
             .createdAt(instantFromTimestamp(rs, "created_at"))
             .updatedAt(instantFromTimestamp(rs, "updated_at"))
-            .environmentId(rs.getLong("id"))
+            .environmentId(rs.getLong("environment_id"))
             .hostname(rs.getString("hostname"))
             .source(enumValueOrNull(rs, "source", Source.class))
             .build();
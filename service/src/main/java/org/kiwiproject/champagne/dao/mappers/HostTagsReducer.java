@@ -0,0 +1,39 @@
+package org.kiwiproject.champagne.dao.mappers;
+
+import static java.util.Objects.nonNull;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.jdbi.v3.core.result.LinkedHashMapRowReducer;
+import org.jdbi.v3.core.result.RowView;
+import org.kiwiproject.champagne.model.Host;
+import org.kiwiproject.champagne.model.Tag;
+
+/**
+ * Assembles hosts and their tags from rows of hosts left joined to their tags, one row per host and tag. The tag
+ * columns are expected to be selected with a {@code tag_} prefix so they don't collide with the host columns.
+ */
+public class HostTagsReducer implements LinkedHashMapRowReducer<Long, Host> {
+
+    @Override
+    public void accumulate(Map<Long, Host> container, RowView rowView) {
+        var hostId = rowView.getColumn("id", Long.class);
+        var host = container.computeIfAbsent(hostId, id -> rowView.getRow(Host.class));
+
+        var tagId = rowView.getColumn("tag_id", Long.class);
+        if (nonNull(tagId)) {
+            var tags = new ArrayList<>(host.getTags());
+            tags.add(Tag.builder()
+                    .id(tagId)
+                    .createdAt(rowView.getColumn("tag_created_at", Instant.class))
+                    .updatedAt(rowView.getColumn("tag_updated_at", Instant.class))
+                    .name(rowView.getColumn("tag_name", String.class))
+                    .deployableSystemId(rowView.getColumn("tag_deployable_system_id", Long.class))
+                    .build());
+
+            container.put(hostId, host.withTags(tags));
+        }
+    }
+}
@@ -21,6 +21,9 @@ public class ReleaseStatusMapper implements RowMapper<ReleaseStatus> {
                 .releaseId(rs.getLong("manual_deployment_task_release_id"))
                 .environmentId(rs.getLong("deployment_environment_id"))
                 .status(DeploymentTaskStatus.valueOf(rs.getString("status")))
+                .pendingTasks(rs.getInt("pending_tasks"))
+                .completeTasks(rs.getInt("complete_tasks"))
+                .notRequiredTasks(rs.getInt("not_required_tasks"))
                 .build();
     }
 }
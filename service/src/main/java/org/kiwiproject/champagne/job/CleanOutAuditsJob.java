@@ -1,36 +1,188 @@
 package org.kiwiproject.champagne.job;
 
-import lombok.extern.slf4j.Slf4j;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.kiwiproject.champagne.config.AuditDeletionConfig;
+import org.kiwiproject.champagne.config.AuditDeletionConfig.Mode;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
 
 /**
+ * Removes audit records older than the retention period. In {@link Mode#PARTITIONS} mode the monthly partitions that
+ * only hold expired records are dropped, so retention is applied a month at a time, and expired records that landed
+ * in the default partition are deleted. In {@link Mode#ROWS} mode every expired record is deleted.
+ * <p>
+ * Rows are deleted in chunks with a pause between chunks so the cleanup can run alongside regular traffic. A run stops
+ * once it has taken longer than the max run time and the next run picks up where it left off. The results of the last
+ * run are published as gauges, including how far the oldest audit record is behind the retention target. In
+ * {@link Mode#PARTITIONS} mode that target is the start of the oldest retained month, since older records in that
+ * month's partition are kept until the whole partition expires.
+ * <p>
  * TODO: There are plans for an AutoCleaner utility to be added to KiwiProject, when this happens, this Job can
  *       be replaced by it.
  */
 @Slf4j
 public class CleanOutAuditsJob implements Runnable {
 
+    private static final String PARTITION_PREFIX = "audit_records_";
+    private static final DateTimeFormatter PARTITION_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
     private final AuditRecordDao auditRecordDao;
     private final long maxRetainInMillis;
+    private final AuditDeletionConfig deletionConfig;
+
+    private final AtomicLong lastRunDroppedPartitions = new AtomicLong();
+    private final AtomicLong lastRunDeletedRecords = new AtomicLong();
+    private final AtomicLong lastRunChunks = new AtomicLong();
+    private final AtomicLong lastRunDurationMillis = new AtomicLong();
+    private final AtomicLong retentionLagMillis = new AtomicLong();
 
-    public CleanOutAuditsJob(AuditRecordDao auditRecordDao, long maxRetainInMillis) {
+    public CleanOutAuditsJob(AuditRecordDao auditRecordDao,
+                             long maxRetainInMillis,
+                             AuditDeletionConfig deletionConfig,
+                             MetricRegistry metrics) {
         this.auditRecordDao = auditRecordDao;
         this.maxRetainInMillis = maxRetainInMillis;
+        this.deletionConfig = deletionConfig;
+
+        metrics.register(name(CleanOutAuditsJob.class, "lastRun", "droppedPartitions"), (Gauge<Long>) lastRunDroppedPartitions::get);
+        metrics.register(name(CleanOutAuditsJob.class, "lastRun", "deletedRecords"), (Gauge<Long>) lastRunDeletedRecords::get);
+        metrics.register(name(CleanOutAuditsJob.class, "lastRun", "chunks"), (Gauge<Long>) lastRunChunks::get);
+        metrics.register(name(CleanOutAuditsJob.class, "lastRun", "durationMillis"), (Gauge<Long>) lastRunDurationMillis::get);
+        metrics.register(name(CleanOutAuditsJob.class, "retentionLagMillis"), (Gauge<Long>) retentionLagMillis::get);
     }
 
     @Override
     public void run() {
         LOG.debug("Running Audit Record Cleanup");
 
-        var now = Instant.now();
-        var maxRetainInstant = now.minusMillis(maxRetainInMillis);
+        var startNanos = System.nanoTime();
+        var maxRetainInstant = Instant.now().minusMillis(maxRetainInMillis);
+
+        var droppedCount = 0;
+        if (deletionConfig.getMode() == Mode.PARTITIONS) {
+            droppedCount = dropExpiredPartitions(maxRetainInstant);
+        }
+
+        var chunkCount = 0;
+        var deletedCount = 0L;
+        while (true) {
+            var deletedInChunk = deleteChunk(maxRetainInstant);
+            chunkCount++;
+            deletedCount += deletedInChunk;
+
+            if (deletedInChunk < deletionConfig.getChunkSize()) {
+                break;
+            }
+
+            if (elapsedMillisSince(startNanos) >= deletionConfig.getMaxRunTime().toMilliseconds()) {
+                LOG.info("Audit Record Cleanup reached its max run time of {} after {} chunks, the next run will continue",
+                        deletionConfig.getMaxRunTime(), chunkCount);
+                break;
+            }
+
+            if (!pauseBetweenChunks()) {
+                LOG.warn("Audit Record Cleanup was interrupted after {} chunks", chunkCount);
+                break;
+            }
+        }
+
+        var lagMillis = retentionLagMillis(maxRetainInstant);
+        var durationMillis = elapsedMillisSince(startNanos);
+
+        lastRunDroppedPartitions.set(droppedCount);
+        lastRunDeletedRecords.set(deletedCount);
+        lastRunChunks.set(chunkCount);
+        lastRunDurationMillis.set(durationMillis);
+        retentionLagMillis.set(lagMillis);
+
+        LOG.debug("Dropped {} Audit Record partitions and deleted {} Audit Records older than {} in {} chunks in {} ms, lagging {} ms behind retention",
+                droppedCount, deletedCount, maxRetainInstant, chunkCount, durationMillis, lagMillis);
+    }
+
+    private int dropExpiredPartitions(Instant maxRetainInstant) {
+        var oldestRetainedMonth = oldestRetainedMonth(maxRetainInstant);
 
-        LOG.debug("Deleting Audit Records older than {}", maxRetainInstant);
+        LOG.debug("Dropping Audit Record partitions older than {}", oldestRetainedMonth);
+
+        var droppedCount = 0;
+        for (var partitionName : auditRecordDao.findMonthlyPartitionNames()) {
+            var partitionMonth = partitionMonthOrNull(partitionName);
+
+            if (nonNull(partitionMonth) && partitionMonth.isBefore(oldestRetainedMonth)) {
+                LOG.debug("Dropping Audit Record partition {}", partitionName);
+                auditRecordDao.dropPartition(partitionName);
+                droppedCount++;
+            }
+        }
+
+        return droppedCount;
+    }
+
+    private int deleteChunk(Instant maxRetainInstant) {
+        var chunkSize = deletionConfig.getChunkSize();
+
+        return switch (deletionConfig.getMode()) {
+            case PARTITIONS -> auditRecordDao.deleteDefaultPartitionAuditRecordChunkOlderThan(maxRetainInstant, chunkSize);
+            case ROWS -> auditRecordDao.deleteAuditRecordChunkOlderThan(maxRetainInstant, chunkSize);
+        };
+    }
+
+    private boolean pauseBetweenChunks() {
+        try {
+            Thread.sleep(deletionConfig.getPauseBetweenChunks().toMilliseconds());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private long retentionLagMillis(Instant maxRetainInstant) {
+        var retentionTarget = switch (deletionConfig.getMode()) {
+            case PARTITIONS -> oldestRetainedMonth(maxRetainInstant).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            case ROWS -> maxRetainInstant;
+        };
+
+        var oldestTimestamp = auditRecordDao.findOldestAuditTimestamp();
+        if (isNull(oldestTimestamp) || !oldestTimestamp.isBefore(retentionTarget)) {
+            return 0;
+        }
+
+        return retentionTarget.toEpochMilli() - oldestTimestamp.toEpochMilli();
+    }
+
+    private static YearMonth oldestRetainedMonth(Instant maxRetainInstant) {
+        return YearMonth.from(maxRetainInstant.atZone(ZoneOffset.UTC));
+    }
+
+    private static long elapsedMillisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
 
-        var deletedCount = auditRecordDao.deleteAuditRecordsOlderThan(maxRetainInstant);
+    private static YearMonth partitionMonthOrNull(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            LOG.warn("Skipping unexpected Audit Record partition {}", partitionName);
+            return null;
+        }
 
-        LOG.debug("Deleted {} Audit Records", deletedCount);
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_MONTH_FORMAT);
+        } catch (DateTimeParseException e) {
+            LOG.warn("Skipping unexpected Audit Record partition {}", partitionName);
+            return null;
+        }
     }
 }
@@ -0,0 +1,36 @@
+package org.kiwiproject.champagne.job;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
+
+/**
+ * Creates the monthly audit record partitions ahead of time, so audit records are never written to the default
+ * partition, where they can only be removed by deleting rows.
+ */
+@Slf4j
+public class CreateAuditPartitionsJob implements Runnable {
+
+    private final AuditRecordDao auditRecordDao;
+    private final int monthsAhead;
+
+    public CreateAuditPartitionsJob(AuditRecordDao auditRecordDao, int monthsAhead) {
+        this.auditRecordDao = auditRecordDao;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Override
+    public void run() {
+        var currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+        LOG.debug("Creating Audit Record partitions from {} through {} months ahead", currentMonth, monthsAhead);
+
+        for (var monthOffset = 0; monthOffset <= monthsAhead; monthOffset++) {
+            var partitionName = auditRecordDao.createMonthlyPartition(currentMonth.plusMonths(monthOffset).atDay(1));
+
+            LOG.debug("Audit Record partition {} is in place", partitionName);
+        }
+    }
+}
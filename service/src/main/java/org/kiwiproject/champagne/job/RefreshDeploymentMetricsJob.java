@@ -0,0 +1,28 @@
+package org.kiwiproject.champagne.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.kiwiproject.champagne.dao.DeploymentMetricsDao;
+
+/**
+ * Refreshes the materialized views behind the deployment metrics. The views are refreshed concurrently so the metrics
+ * endpoint can keep reading them while this runs.
+ */
+@Slf4j
+public class RefreshDeploymentMetricsJob implements Runnable {
+
+    private final DeploymentMetricsDao deploymentMetricsDao;
+
+    public RefreshDeploymentMetricsJob(DeploymentMetricsDao deploymentMetricsDao) {
+        this.deploymentMetricsDao = deploymentMetricsDao;
+    }
+
+    @Override
+    public void run() {
+        LOG.debug("Refreshing deployment metrics");
+
+        deploymentMetricsDao.refreshDeploymentDailyStats();
+        deploymentMetricsDao.refreshDeploymentExecutionDailyStats();
+
+        LOG.debug("Refreshed deployment metrics");
+    }
+}
@@ -0,0 +1,37 @@
+package org.kiwiproject.champagne.job;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.kiwiproject.champagne.dao.BuildMetricsDao;
+
+/**
+ * Keeps the daily build count rollup used by the build metrics up to date. Counting starts the day before the last
+ * rolled up date, so days missed while the job was not running are caught up along with builds recorded around
+ * midnight. At least yesterday and today are always recounted.
+ */
+@Slf4j
+public class RollUpBuildCountsJob implements Runnable {
+
+    private final BuildMetricsDao buildMetricsDao;
+
+    public RollUpBuildCountsJob(BuildMetricsDao buildMetricsDao) {
+        this.buildMetricsDao = buildMetricsDao;
+    }
+
+    @Override
+    public void run() {
+        var yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        var since = buildMetricsDao.findLastBuildDate()
+                .map(lastBuildDate -> lastBuildDate.minusDays(1))
+                .filter(dayBeforeLastBuildDate -> dayBeforeLastBuildDate.isBefore(yesterday))
+                .orElse(yesterday);
+
+        LOG.debug("Rolling up build counts since {}", since);
+
+        var rolledUpCount = buildMetricsDao.rollUpBuildCountsSince(since);
+
+        LOG.debug("Rolled up {} daily build counts", rolledUpCount);
+    }
+}
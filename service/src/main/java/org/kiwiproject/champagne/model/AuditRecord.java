@@ -9,7 +9,7 @@ import java.time.Instant;
  * Model representation of an audit record used to track user based actions in the
  * system, for instance, creating, updating or deleting objects.
  */
-@Builder
+@Builder(toBuilder = true)
 @Getter
 public class AuditRecord {
 
@@ -52,4 +52,14 @@ public class AuditRecord {
      * The Deployable System that this audit record is tied to
      */
     Long deployableSystemId;
+
+    /**
+     * Returns a copy of this record (used as a template holding the user, action and system) for the given record.
+     */
+    public AuditRecord forRecord(Class<?> recordClass, long recordId) {
+        return toBuilder()
+                .recordType(recordClass.getSimpleName())
+                .recordId(recordId)
+                .build();
+    }
 }
@@ -0,0 +1,34 @@
+package org.kiwiproject.champagne.model;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The criteria for searching audit records. Every criterion is optional; only the ones that are set are applied.
+ */
+@Value
+@Builder
+public class AuditRecordFilter {
+
+    /**
+     * Limits the search to the given Deployable System, or all systems when null
+     */
+    Long deployableSystemId;
+
+    String recordType;
+    Long recordId;
+    String userSystemIdentifier;
+    AuditRecord.Action action;
+
+    /**
+     * Inclusive start of the time range
+     */
+    Instant from;
+
+    /**
+     * Exclusive end of the time range
+     */
+    Instant to;
+}
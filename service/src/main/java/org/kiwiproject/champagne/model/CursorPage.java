@@ -0,0 +1,41 @@
+package org.kiwiproject.champagne.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A page of results from a keyset (seek) paged query. Use {@code nextCursor} to fetch the following page; it is null
+ * on the last page. The total is only populated when the caller asks for it since counting is the expensive part.
+ */
+@Value
+@Builder
+public class CursorPage<T> {
+
+    List<T> content;
+    int size;
+    String nextCursor;
+    Long totalElements;
+
+    /**
+     * Builds a page from rows fetched with a limit of one more than {@code size}. The extra row, if present, only
+     * signals that there is a next page and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf, Long totalElements) {
+        checkArgument(size > 0, "size must be greater than 0");
+
+        var hasNext = rows.size() > size;
+        var content = hasNext ? rows.subList(0, size) : rows;
+
+        return CursorPage.<T>builder()
+                .content(List.copyOf(content))
+                .size(size)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(size - 1)) : null)
+                .totalElements(totalElements)
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package org.kiwiproject.champagne.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Whether a user is a member, and an admin, of a specific deployable system.
+ */
+@Value
+@Builder
+public class DeployableSystemAccess {
+
+    long userId;
+    long systemId;
+    boolean member;
+    boolean admin;
+}
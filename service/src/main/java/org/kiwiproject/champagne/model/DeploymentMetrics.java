@@ -0,0 +1,36 @@
+package org.kiwiproject.champagne.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * DORA style deployment metrics for one environment of a deployable system over a window of days. The averages and
+ * the failure rate are null when there is nothing in the window to compute them from.
+ */
+@Builder
+@Value
+public class DeploymentMetrics {
+
+    long environmentId;
+
+    /**
+     * Number of successful deployments, and those per day of the window (deployment frequency)
+     */
+    long deploymentCount;
+    double deploymentsPerDay;
+
+    /**
+     * Number of failed deployments, and their share of all finished deployments (change failure rate)
+     */
+    long failedDeploymentCount;
+    Double changeFailureRate;
+
+    /**
+     * Average time from a build being recorded to it being deployed (lead time for changes)
+     */
+    Double averageLeadTimeSeconds;
+
+    long executionCount;
+    long failedExecutionCount;
+    Double averageExecutionSeconds;
+}
@@ -0,0 +1,63 @@
+package org.kiwiproject.champagne.model;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * A read-only map backed by a JSON object string which is only parsed the first time the map is actually read. Until
+ * then, serializing it to JSON writes the original string as is, so a value loaded from the database and returned from
+ * an endpoint never goes through a parse and re-serialize round trip.
+ */
+@JsonSerialize(using = RawJsonMap.RawJsonMapSerializer.class)
+public class RawJsonMap extends AbstractMap<String, Object> {
+
+    private final String json;
+    private final Function<String, Map<String, Object>> parser;
+    private Map<String, Object> parsed;
+
+    public RawJsonMap(String json, Function<String, Map<String, Object>> parser) {
+        this.json = requireNonNull(json);
+        this.parser = requireNonNull(parser);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return parsed().entrySet();
+    }
+
+    private synchronized Map<String, Object> parsed() {
+        if (isNull(parsed)) {
+            parsed = Collections.unmodifiableMap(parser.apply(json));
+        }
+
+        return parsed;
+    }
+
+    private synchronized boolean isParsed() {
+        return !isNull(parsed);
+    }
+
+    public static class RawJsonMapSerializer extends JsonSerializer<RawJsonMap> {
+
+        @Override
+        public void serialize(RawJsonMap value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            if (value.isParsed()) {
+                serializers.defaultSerializeValue(value.parsed(), gen);
+            } else {
+                gen.writeRawValue(value.json);
+            }
+        }
+    }
+}
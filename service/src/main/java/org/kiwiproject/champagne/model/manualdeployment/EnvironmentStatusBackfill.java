@@ -0,0 +1,16 @@
+package org.kiwiproject.champagne.model.manualdeployment;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Counts of the NOT_REQUIRED release and task statuses created for the existing releases when a new deployment
+ * environment is added.
+ */
+@Value
+@Builder
+public class EnvironmentStatusBackfill {
+
+    int releaseStatusesCreated;
+    int taskStatusesCreated;
+}
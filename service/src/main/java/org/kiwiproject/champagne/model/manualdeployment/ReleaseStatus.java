@@ -27,4 +27,8 @@ public class ReleaseStatus {
 
     @NotNull
     DeploymentTaskStatus status;
+
+    int pendingTasks;
+    int completeTasks;
+    int notRequiredTasks;
 }
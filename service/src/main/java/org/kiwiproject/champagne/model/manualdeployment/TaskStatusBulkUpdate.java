@@ -0,0 +1,18 @@
+package org.kiwiproject.champagne.model.manualdeployment;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The ids of the task statuses updated by a bulk task status update, and of the release statuses whose rolled up
+ * status changed as a result.
+ */
+@Value
+@Builder
+public class TaskStatusBulkUpdate {
+
+    List<Long> taskStatusIds;
+    List<Long> releaseStatusIds;
+}
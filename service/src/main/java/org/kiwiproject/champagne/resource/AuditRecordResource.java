@@ -1,9 +1,25 @@
 package org.kiwiproject.champagne.resource;
 
+import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.joining;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.trimToNull;
+import static org.kiwiproject.base.KiwiStrings.f;
 import static org.kiwiproject.champagne.util.DeployableSystems.checkUserAdminOfSystem;
 import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrThrowBadRequest;
 import static org.kiwiproject.search.KiwiSearching.zeroBasedOffset;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Stream;
+
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import jakarta.annotation.security.PermitAll;
@@ -14,10 +30,20 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.kiwiproject.champagne.dao.AuditRecordDao;
+import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecord.Action;
+import org.kiwiproject.champagne.model.AuditRecordFilter;
+import org.kiwiproject.champagne.model.CursorPage;
+import org.kiwiproject.champagne.util.Cursors;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
+import org.kiwiproject.json.JsonHelper;
 import org.kiwiproject.spring.data.KiwiPage;
 
 @Path("/audit")
@@ -27,7 +53,23 @@ import org.kiwiproject.spring.data.KiwiPage;
 @AllArgsConstructor
 public class AuditRecordResource {
 
+    /**
+     * The formats audit records can be exported as
+     */
+    enum ExportFormat {
+        NDJSON("application/x-ndjson"), CSV("text/csv");
+
+        private final String mediaType;
+
+        ExportFormat(String mediaType) {
+            this.mediaType = mediaType;
+        }
+    }
+
+    private static final String CSV_HEADER = "id,timestamp,deployableSystemId,userSystemIdentifier,action,recordType,recordId";
+
     private final AuditRecordDao auditRecordDao;
+    private final JsonHelper jsonHelper;
 
     @GET
     @Timed
@@ -45,6 +87,34 @@ public class AuditRecordResource {
         return Response.ok(KiwiPage.of(pageNumber, pageSize, totalCount, audits).usingOneAsFirstPage()).build();
     }
 
+    /**
+     * Keyset (seek) paged search of the audit records of the system, newest first. Every filter is optional; the time
+     * range includes {@code from} and excludes {@code to}, both as ISO-8601 instants. Pass the {@code nextCursor} of a
+     * page with the same filters to get the one after it; leave the cursor out for the first page. The total is only
+     * counted when {@code includeTotal} is set.
+     */
+    @GET
+    @Path("/cursor")
+    @Timed
+    @ExceptionMetered
+    public Response getAuditsForSystemByCursor(@QueryParam("cursor") String cursor,
+                                               @QueryParam("pageSize") @DefaultValue("50") int pageSize,
+                                               @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal,
+                                               @QueryParam("recordType") String recordType,
+                                               @QueryParam("recordId") Long recordId,
+                                               @QueryParam("userSystemIdentifier") String userSystemIdentifier,
+                                               @QueryParam("action") String action,
+                                               @QueryParam("from") String from,
+                                               @QueryParam("to") String to) {
+
+        checkUserAdminOfSystem();
+
+        var systemId = getSystemIdOrThrowBadRequest();
+
+        var filter = filterOf(systemId, recordType, recordId, userSystemIdentifier, action, from, to);
+        return Response.ok(searchAudits(filter, cursor, pageSize, includeTotal)).build();
+    }
+
     @GET
     @Path("/all")
     @RolesAllowed("admin")
@@ -58,4 +128,188 @@ public class AuditRecordResource {
 
         return Response.ok(KiwiPage.of(pageNumber, pageSize, totalCount, audits).usingOneAsFirstPage()).build();
     }
+
+    /**
+     * Keyset (seek) paged search of the audit records of all systems, newest first. See
+     * {@link #getAuditsForSystemByCursor(String, int, boolean, String, Long, String, String, String, String)}.
+     */
+    @GET
+    @Path("/all/cursor")
+    @RolesAllowed("admin")
+    @Timed
+    @ExceptionMetered
+    public Response getAuditsByCursor(@QueryParam("cursor") String cursor,
+                                      @QueryParam("pageSize") @DefaultValue("50") int pageSize,
+                                      @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal,
+                                      @QueryParam("recordType") String recordType,
+                                      @QueryParam("recordId") Long recordId,
+                                      @QueryParam("userSystemIdentifier") String userSystemIdentifier,
+                                      @QueryParam("action") String action,
+                                      @QueryParam("from") String from,
+                                      @QueryParam("to") String to) {
+
+        var filter = filterOf(null, recordType, recordId, userSystemIdentifier, action, from, to);
+        return Response.ok(searchAudits(filter, cursor, pageSize, includeTotal)).build();
+    }
+
+    /**
+     * Streams every audit record of the system matching the filters, oldest first, as NDJSON (one JSON object per line)
+     * or CSV. The records are written as they are read from the database, so this is the way to pull large exports
+     * rather than paging through them. Takes the same filters as
+     * {@link #getAuditsForSystemByCursor(String, int, boolean, String, Long, String, String, String, String)}.
+     */
+    @GET
+    @Path("/export")
+    @Produces({"application/x-ndjson", "text/csv"})
+    @Timed
+    @ExceptionMetered
+    public Response exportAuditsForSystem(@QueryParam("format") @DefaultValue("ndjson") String format,
+                                          @QueryParam("recordType") String recordType,
+                                          @QueryParam("recordId") Long recordId,
+                                          @QueryParam("userSystemIdentifier") String userSystemIdentifier,
+                                          @QueryParam("action") String action,
+                                          @QueryParam("from") String from,
+                                          @QueryParam("to") String to) {
+
+        checkUserAdminOfSystem();
+
+        var systemId = getSystemIdOrThrowBadRequest();
+
+        var filter = filterOf(systemId, recordType, recordId, userSystemIdentifier, action, from, to);
+        return exportAudits(filter, exportFormatOf(format));
+    }
+
+    /**
+     * Streams every audit record of all systems matching the filters. See
+     * {@link #exportAuditsForSystem(String, String, Long, String, String, String, String)}.
+     */
+    @GET
+    @Path("/all/export")
+    @Produces({"application/x-ndjson", "text/csv"})
+    @RolesAllowed("admin")
+    @Timed
+    @ExceptionMetered
+    public Response exportAudits(@QueryParam("format") @DefaultValue("ndjson") String format,
+                                 @QueryParam("recordType") String recordType,
+                                 @QueryParam("recordId") Long recordId,
+                                 @QueryParam("userSystemIdentifier") String userSystemIdentifier,
+                                 @QueryParam("action") String action,
+                                 @QueryParam("from") String from,
+                                 @QueryParam("to") String to) {
+
+        var filter = filterOf(null, recordType, recordId, userSystemIdentifier, action, from, to);
+        return exportAudits(filter, exportFormatOf(format));
+    }
+
+    private Response exportAudits(AuditRecordFilter filter, ExportFormat format) {
+        StreamingOutput output = outputStream -> {
+            var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+            }
+
+            try {
+                auditRecordDao.forEachAuditRecord(filter, audit -> writeAudit(writer, format, audit));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            writer.flush();
+        };
+
+        var fileName = "audit-records." + format.name().toLowerCase(Locale.ENGLISH);
+        return Response.ok(output, format.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, f("attachment; filename=\"{}\"", fileName))
+                .build();
+    }
+
+    private void writeAudit(BufferedWriter writer, ExportFormat format, AuditRecord audit) {
+        try {
+            writer.write(format == ExportFormat.CSV ? csvLineOf(audit) : jsonHelper.toJson(audit));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvLineOf(AuditRecord audit) {
+        return Stream.of(audit.getId(), audit.getTimestamp(), audit.getDeployableSystemId(), audit.getUserSystemIdentifier(),
+                        audit.getAction(), audit.getRecordType(), audit.getRecordId())
+                .map(AuditRecordResource::csvValueOf)
+                .collect(joining(","));
+    }
+
+    private static String csvValueOf(Object value) {
+        if (isNull(value)) {
+            return "";
+        }
+
+        var text = value.toString();
+        if (StringUtils.containsAny(text, ',', '"', '\n', '\r')) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+
+        return text;
+    }
+
+    private static ExportFormat exportFormatOf(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new JaxrsBadRequestException(f("format must be one of {}", Arrays.toString(ExportFormat.values())));
+        }
+    }
+
+    private CursorPage<AuditRecord> searchAudits(AuditRecordFilter filter, String cursor, int pageSize, boolean includeTotal) {
+        Cursors.checkPageSize(pageSize);
+
+        var audits = auditRecordDao.findAuditRecordsAfterCursor(filter, Cursors.decodeOrNull(cursor), pageSize + 1);
+        var total = includeTotal ? auditRecordDao.countAuditRecords(filter) : null;
+
+        return CursorPage.of(audits, pageSize, audit -> Cursors.encode(audit.getTimestamp(), audit.getId()), total);
+    }
+
+    private static AuditRecordFilter filterOf(Long systemId,
+                                              String recordType,
+                                              Long recordId,
+                                              String userSystemIdentifier,
+                                              String action,
+                                              String from,
+                                              String to) {
+        return AuditRecordFilter.builder()
+                .deployableSystemId(systemId)
+                .recordType(trimToNull(recordType))
+                .recordId(recordId)
+                .userSystemIdentifier(trimToNull(userSystemIdentifier))
+                .action(actionOrNull(action))
+                .from(instantOrNull("from", from))
+                .to(instantOrNull("to", to))
+                .build();
+    }
+
+    private static Action actionOrNull(String action) {
+        if (isBlank(action)) {
+            return null;
+        }
+
+        try {
+            return Action.valueOf(action.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new JaxrsBadRequestException(f("action must be one of {}", Arrays.toString(Action.values())));
+        }
+    }
+
+    private static Instant instantOrNull(String name, String value) {
+        if (isBlank(value)) {
+            return null;
+        }
+
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new JaxrsBadRequestException(f("{} must be an ISO-8601 instant, e.g. 2023-05-01T00:00:00Z", name));
+        }
+    }
 }
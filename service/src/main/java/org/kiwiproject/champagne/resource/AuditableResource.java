@@ -1,32 +1,60 @@
 package org.kiwiproject.champagne.resource;
 
 import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrNull;
+import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrThrowBadRequest;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
 import org.dhatim.dropwizard.jwt.cookie.authentication.CurrentPrincipal;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.ApplicationErrorThrower;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 
 @Slf4j
 public abstract class AuditableResource {
 
-    private final AuditRecordDao auditRecordDao;
+    private final AuditRecordWriter auditRecordWriter;
+    private final SystemResponseCache responseCache;
     protected final ApplicationErrorThrower applicationErrorThrower;
 
-    protected AuditableResource(AuditRecordDao auditRecordDao, ApplicationErrorDao applicationErrorDao) {
-        this.auditRecordDao = auditRecordDao;
+    protected AuditableResource(AuditRecordWriter auditRecordWriter,
+                                SystemResponseCache responseCache,
+                                ApplicationErrorDao applicationErrorDao) {
+        this.auditRecordWriter = auditRecordWriter;
+        this.responseCache = responseCache;
         this.applicationErrorThrower = ApplicationErrorThrower.builder()
                 .errorDao(applicationErrorDao)
                 .logger(LOG)
                 .build();
     }
 
+    /**
+     * Returns the response with the given name for the current system from the response cache, loading it with the
+     * given supplier when needed. Every audited action invalidates the cached responses of the current system.
+     */
+    protected Response cachedResponse(String name, Request request, Supplier<?> loader) {
+        return responseCache.respond(getSystemIdOrThrowBadRequest(), name, request, loader);
+    }
+
+    /**
+     * Same as {@link #cachedResponse(String, Request, Supplier)} for responses that do not depend on the system.
+     */
+    protected Response cachedGlobalResponse(String name, Request request, Supplier<?> loader) {
+        return responseCache.respond(SystemResponseCache.ALL_SYSTEMS, name, request, loader);
+    }
+
     protected void auditAction(long recordId, Class<?> recordClass, Action action) {
+        responseCache.invalidateSystem(getSystemIdOrNull());
+
         var principal = CurrentPrincipal.get();
 
         if (Objects.isNull(principal)) {
@@ -34,15 +62,66 @@ public abstract class AuditableResource {
             return;
         }
 
-        var auditRecord = AuditRecord.builder()
+        auditRecordWriter.write(newAuditRecord(recordId, recordClass, action, principal.getName()));
+    }
+
+    protected void auditActions(List<Long> recordIds, Class<?> recordClass, Action action) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+
+        responseCache.invalidateSystem(getSystemIdOrNull());
+
+        var principal = CurrentPrincipal.get();
+
+        if (Objects.isNull(principal)) {
+            applicationErrorThrower.logAndSaveApplicationError("No user found in request, unable to track audit of action {} on {} with ids {}", action, recordClass.getSimpleName(), recordIds);
+            return;
+        }
+
+        var auditRecords = recordIds.stream()
+                .map(recordId -> newAuditRecord(recordId, recordClass, action, principal.getName()))
+                .toList();
+
+        auditRecordWriter.writeAll(auditRecords);
+    }
+
+    /**
+     * Invalidates the cached responses of the current system, for changes whose audit records are written by a DAO in
+     * the same transaction rather than through {@link #auditAction(long, Class, Action)}.
+     */
+    protected void invalidateCachedResponses() {
+        responseCache.invalidateSystem(getSystemIdOrNull());
+    }
+
+    /**
+     * Returns an audit record for the given action by the current user without the record type and id, for DAOs that
+     * write the audit records in the same transaction as the records being audited. Empty when there is no user in
+     * the request, in which case an application error is saved just like {@link #auditAction(long, Class, Action)}.
+     */
+    protected Optional<AuditRecord> newAuditRecordTemplate(Class<?> recordClass, Action action) {
+        var principal = CurrentPrincipal.get();
+
+        if (Objects.isNull(principal)) {
+            applicationErrorThrower.logAndSaveApplicationError("No user found in request, unable to track audit of action {} on new {}", action, recordClass.getSimpleName());
+            return Optional.empty();
+        }
+
+        return Optional.of(AuditRecord.builder()
+                .action(action)
+                .userSystemIdentifier(principal.getName())
+                .deployableSystemId(getSystemIdOrNull())
+                .build());
+    }
+
+    private static AuditRecord newAuditRecord(long recordId, Class<?> recordClass, Action action, String userSystemIdentifier) {
+        return AuditRecord.builder()
                 .recordId(recordId)
                 .recordType(recordClass.getSimpleName())
                 .action(action)
-                .userSystemIdentifier(principal.getName())
+                .userSystemIdentifier(userSystemIdentifier)
                 .deployableSystemId(getSystemIdOrNull())
                 .build();
-
-        auditRecordDao.insertAuditRecord(auditRecord);
     }
 
 }
@@ -1,9 +1,12 @@
 package org.kiwiproject.champagne.resource;
 
 import static java.util.Objects.isNull;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrThrowBadRequest;
 import static org.kiwiproject.search.KiwiSearching.zeroBasedOffset;
 
+import java.util.List;
+
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import jakarta.annotation.security.PermitAll;
@@ -16,8 +19,13 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.kiwiproject.champagne.dao.BuildDao;
+import org.kiwiproject.champagne.dao.Counted;
 import org.kiwiproject.champagne.model.Build;
+import org.kiwiproject.champagne.model.CursorPage;
+import org.kiwiproject.champagne.util.Cursors;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
 import org.kiwiproject.json.JsonHelper;
+import org.kiwiproject.json.RuntimeJsonException;
 import org.kiwiproject.spring.data.KiwiPage;
 
 @Path("/build")
@@ -38,15 +46,68 @@ public class BuildResource {
     @PermitAll
     public Response listBuilds(@QueryParam("pageNumber") @DefaultValue("1") int pageNumber, 
                               @QueryParam("pageSize") @DefaultValue("50") int pageSize,
-                              @QueryParam("componentFilter") String componentFilter) {
+                              @QueryParam("componentFilter") String componentFilter,
+                              @QueryParam("extraInfo") String extraInfo) {
 
         var systemId = getSystemIdOrThrowBadRequest();
         var offset = zeroBasedOffset(pageNumber, pageSize);
 
-        var builds = buildDao.findPagedBuilds(offset, pageSize, systemId, componentFilter);
-        var total = buildDao.countBuilds(systemId, componentFilter);
+        if (isNotBlank(extraInfo)) {
+            return listBuildsWithExtraInfo(pageNumber, pageSize, systemId, offset, componentFilter, extraInfo);
+        }
+
+        var pagedBuilds = buildDao.findPagedBuildsWithTotalCount(offset, pageSize, systemId, componentFilter);
+        var total = Counted.totalCountOf(pagedBuilds, offset, () -> buildDao.countBuilds(systemId, componentFilter));
+
+        return Response.ok(KiwiPage.of(pageNumber, pageSize, total, Counted.valuesOf(pagedBuilds))).build();
+    }
+
+    /**
+     * Lists the builds whose extra deployment info contains the given JSON object, e.g. {@code {"region": "east"}}.
+     */
+    private Response listBuildsWithExtraInfo(int pageNumber, int pageSize, long systemId, int offset, String componentFilter, String extraInfo) {
+        if (isNotBlank(componentFilter)) {
+            throw new JaxrsBadRequestException("componentFilter and extraInfo can not be used together");
+        }
+
+        var extraInfoJson = normalizedJsonObject(extraInfo);
+
+        var pagedBuilds = buildDao.findPagedBuildsWithTotalCountWithExtraInfoFilter(offset, pageSize, systemId, extraInfoJson);
+        var total = Counted.totalCountOf(pagedBuilds, offset, () -> buildDao.countBuildsWithExtraInfoFilter(systemId, extraInfoJson));
+
+        return Response.ok(KiwiPage.of(pageNumber, pageSize, total, Counted.valuesOf(pagedBuilds))).build();
+    }
+
+    private String normalizedJsonObject(String json) {
+        try {
+            return jsonHelper.toJson(jsonHelper.toMap(json));
+        } catch (RuntimeJsonException e) {
+            throw new JaxrsBadRequestException("extraInfo must be a JSON object");
+        }
+    }
+
+    /**
+     * Keyset (seek) paged listing of builds, newest first. Pass the {@code nextCursor} of a page to get the one after
+     * it; leave the cursor out for the first page. The total is only counted when {@code includeTotal} is set.
+     */
+    @GET
+    @Path("/cursor")
+    @Timed
+    @ExceptionMetered
+    @PermitAll
+    public Response listBuildsByCursor(@QueryParam("cursor") String cursor,
+                                       @QueryParam("pageSize") @DefaultValue("50") int pageSize,
+                                       @QueryParam("componentFilter") String componentFilter,
+                                       @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal) {
+
+        var systemId = getSystemIdOrThrowBadRequest();
+        Cursors.checkPageSize(pageSize);
+
+        var builds = buildDao.findBuildsAfterCursor(Cursors.decodeOrNull(cursor), pageSize + 1, systemId, componentFilter);
+        var total = includeTotal ? buildDao.countBuilds(systemId, componentFilter) : null;
 
-        return Response.ok(KiwiPage.of(pageNumber, pageSize, total, builds)).build();
+        var page = CursorPage.of(builds, pageSize, build -> Cursors.encode(build.getCreatedAt(), build.getId()), total);
+        return Response.ok(page).build();
     }
 
     @POST
@@ -62,4 +123,32 @@ public class BuildResource {
         buildDao.insertBuild(build, jsonHelper.toJson(build.getExtraDeploymentInfo()));
         return Response.accepted().build();
     }
+
+    /**
+     * Records many builds at once, e.g. every component built from one commit, with a single batched insert. Returns
+     * the ids of the new builds in the order they were given.
+     */
+    @POST
+    @Path("/bulk")
+    @Timed
+    @ExceptionMetered
+    public Response recordNewBuilds(List<Build> builds) {
+        if (isNull(builds) || builds.isEmpty()) {
+            return Response.ok(List.of()).build();
+        }
+
+        var systemId = builds.stream().anyMatch(build -> isNull(build.getDeployableSystemId()))
+                ? getSystemIdOrThrowBadRequest() : null;
+
+        var buildsToInsert = builds.stream()
+                .map(build -> isNull(build.getDeployableSystemId()) ? build.withDeployableSystemId(systemId) : build)
+                .toList();
+
+        var extraData = buildsToInsert.stream()
+                .map(build -> jsonHelper.toJson(build.getExtraDeploymentInfo()))
+                .toList();
+
+        var ids = buildDao.insertBuilds(buildsToInsert, extraData);
+        return Response.ok(ids).build();
+    }
 }
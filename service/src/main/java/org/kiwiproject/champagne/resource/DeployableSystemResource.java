@@ -30,12 +30,14 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
 import org.apache.commons.lang3.StringUtils;
 import org.dhatim.dropwizard.jwt.cookie.authentication.DefaultJwtCookiePrincipal;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.dao.DeployableSystemDao;
 import org.kiwiproject.champagne.dao.DeploymentEnvironmentDao;
 import org.kiwiproject.champagne.dao.UserDao;
 import org.kiwiproject.champagne.model.DeployableSystem;
 import org.kiwiproject.champagne.model.DeployableSystem.SystemUser;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.jaxrs.exception.JaxrsNotAuthorizedException;
 import org.kiwiproject.spring.data.KiwiPage;
@@ -49,17 +51,21 @@ public class DeployableSystemResource extends AuditableResource {
     private final DeployableSystemDao deployableSystemDao;
     private final UserDao userDao;
     private final DeploymentEnvironmentDao deploymentEnvironmentDao;
+    private final DeployableSystemAccessCache systemAccessCache;
 
     public DeployableSystemResource(DeployableSystemDao deployableSystemDao,
                                     UserDao userDao, DeploymentEnvironmentDao deploymentEnvironmentDao,
-                                    AuditRecordDao auditRecordDao,
+                                    DeployableSystemAccessCache systemAccessCache,
+                                    AuditRecordWriter auditRecordWriter,
+                                    SystemResponseCache responseCache,
                                     ApplicationErrorDao errorDao) {
 
-        super(auditRecordDao, errorDao);
+        super(auditRecordWriter, responseCache, errorDao);
 
         this.deployableSystemDao = deployableSystemDao;
         this.userDao = userDao;
         this.deploymentEnvironmentDao = deploymentEnvironmentDao;
+        this.systemAccessCache = systemAccessCache;
     }
 
     @GET
@@ -130,14 +136,7 @@ public class DeployableSystemResource extends AuditableResource {
     @Timed
     @ExceptionMetered
     public Response setDevEnvironmentOnSystem(@PathParam("id") Long id, @PathParam("envId") Long envId, @Auth DefaultJwtCookiePrincipal user) {
-        var loggedInUser = userDao.findBySystemIdentifier(user.getName())
-                .orElseThrow(() -> new JaxrsNotAuthorizedException("Must be logged in to update systems"));
-
-        var isAdmin = deployableSystemDao.isUserAdminOfSystem(loggedInUser.getId(), id);
-
-        if (!isAdmin) {
-            throw new JaxrsNotAuthorizedException("User is not an admin of this system");
-        }
+        requireSystemAdmin(user, id);
 
         var count = deployableSystemDao.updateDevEnvironment(id, envId);
 
@@ -153,14 +152,7 @@ public class DeployableSystemResource extends AuditableResource {
     @Timed
     @ExceptionMetered
     public Response setEnvPromotionOrderOnSystem(@PathParam("id") Long id, List<Long> envOrder, @Auth DefaultJwtCookiePrincipal user) {
-        var loggedInUser = userDao.findBySystemIdentifier(user.getName())
-                .orElseThrow(() -> new JaxrsNotAuthorizedException("Must be logged in to update systems"));
-
-        var isAdmin = deployableSystemDao.isUserAdminOfSystem(loggedInUser.getId(), id);
-
-        if (!isAdmin) {
-            throw new JaxrsNotAuthorizedException("User is not an admin of this system");
-        }
+        requireSystemAdmin(user, id);
 
         var count = deployableSystemDao.updateEnvironmentPromotionOrder(id, StringUtils.join(envOrder, ','));
 
@@ -171,6 +163,15 @@ public class DeployableSystemResource extends AuditableResource {
         return Response.accepted().build();
     }
 
+    private void requireSystemAdmin(DefaultJwtCookiePrincipal user, long systemId) {
+        var access = deployableSystemDao.findAccessBySystemIdentifier(user.getName(), systemId)
+                .orElseThrow(() -> new JaxrsNotAuthorizedException("Must be logged in to update systems"));
+
+        if (!access.isAdmin()) {
+            throw new JaxrsNotAuthorizedException("User is not an admin of this system");
+        }
+    }
+
     @DELETE
     @Path("/{id}")
     @Timed
@@ -180,6 +181,7 @@ public class DeployableSystemResource extends AuditableResource {
         var count = deployableSystemDao.deleteById(id);
 
         if (count > 0) {
+            systemAccessCache.invalidateSystem(id);
             auditAction(id, DeployableSystem.class, DELETED);
         }
 
@@ -193,6 +195,7 @@ public class DeployableSystemResource extends AuditableResource {
     @RolesAllowed({ "admin" })
     public Response addUserToSystem(@PathParam("id") long systemId, SystemUser user) {
         deployableSystemDao.insertOrUpdateSystemUser(systemId, user.getUserId(), user.isAdmin());
+        systemAccessCache.invalidateUser(user.getUserId());
         return Response.accepted().build();
     }
 
@@ -203,6 +206,7 @@ public class DeployableSystemResource extends AuditableResource {
     @RolesAllowed({ "admin" })
     public Response removeUserFromSystem(@PathParam("systemId") long systemId, @PathParam("userId") long userId) {
         deployableSystemDao.deleteUserFromSystem(systemId, userId);
+        systemAccessCache.invalidateUser(userId);
         return Response.noContent().build();
     }
 }
@@ -18,12 +18,15 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.dao.DeploymentEnvironmentDao;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.DeploymentEnvironment;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
 import org.kiwiproject.champagne.service.ManualTaskService;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 
 @Path("/environments")
@@ -35,8 +38,8 @@ public class DeploymentEnvironmentResource extends AuditableResource {
     private final DeploymentEnvironmentDao deploymentEnvironmentDao;
     private final ManualTaskService manualTaskService;
 
-    public DeploymentEnvironmentResource(DeploymentEnvironmentDao deploymentEnvironmentDao, AuditRecordDao auditRecordDao, ApplicationErrorDao errorDao, ManualTaskService manualTaskService) {
-        super(auditRecordDao, errorDao);
+    public DeploymentEnvironmentResource(DeploymentEnvironmentDao deploymentEnvironmentDao, AuditRecordWriter auditRecordWriter, SystemResponseCache responseCache, ApplicationErrorDao errorDao, ManualTaskService manualTaskService) {
+        super(auditRecordWriter, responseCache, errorDao);
 
         this.deploymentEnvironmentDao = deploymentEnvironmentDao;
         this.manualTaskService = manualTaskService;
@@ -45,11 +48,10 @@ public class DeploymentEnvironmentResource extends AuditableResource {
     @GET
     @Timed
     @ExceptionMetered
-    public Response listEnvironments() {
+    public Response listEnvironments(@Context Request request) {
         var systemId = getSystemIdOrThrowBadRequest();
-        var envs = deploymentEnvironmentDao.findAllEnvironments(systemId);
 
-        return Response.ok(envs).build();
+        return cachedResponse("environments", request, () -> deploymentEnvironmentDao.findAllEnvironments(systemId));
     }
 
     @POST
@@ -67,9 +69,9 @@ public class DeploymentEnvironmentResource extends AuditableResource {
 
         auditAction(id, DeploymentEnvironment.class, Action.CREATED);
 
-        manualTaskService.addManualReleaseAndTaskStatusForNewEnv(id);
+        var backfill = manualTaskService.addManualReleaseAndTaskStatusForNewEnv(id);
 
-        return Response.noContent().build();
+        return Response.ok(backfill).build();
     }
 
     @PUT
@@ -1,17 +1,21 @@
 package org.kiwiproject.champagne.resource;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.kiwiproject.base.KiwiStrings.f;
 import static org.kiwiproject.champagne.util.DeployableSystems.checkUserAdminOfSystem;
 import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrThrowBadRequest;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import jakarta.annotation.security.PermitAll;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
@@ -21,16 +25,18 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.dao.ComponentDao;
 import org.kiwiproject.champagne.dao.HostDao;
-import org.kiwiproject.champagne.dao.TagDao;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.Component;
 import org.kiwiproject.champagne.model.Host;
 import org.kiwiproject.champagne.model.Tag;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.jaxrs.exception.JaxrsNotFoundException;
 
@@ -42,14 +48,12 @@ public class HostConfigurationResource extends AuditableResource {
 
     private final HostDao hostDao;
     private final ComponentDao componentDao;
-    private final TagDao tagDao;
 
-    public HostConfigurationResource(HostDao hostDao, ComponentDao componentDao, TagDao tagDao, AuditRecordDao auditRecordDao, ApplicationErrorDao errorDao) {
-        super(auditRecordDao, errorDao);
+    public HostConfigurationResource(HostDao hostDao, ComponentDao componentDao, AuditRecordWriter auditRecordWriter, SystemResponseCache responseCache, ApplicationErrorDao errorDao) {
+        super(auditRecordWriter, responseCache, errorDao);
 
         this.hostDao = hostDao;
         this.componentDao = componentDao;
-        this.tagDao = tagDao;
     }
     
     @GET
@@ -59,28 +63,9 @@ public class HostConfigurationResource extends AuditableResource {
     public Response listHostsForEnvironment(@PathParam("environment") Long envId, @QueryParam("componentFilter") String componentFilter) {
         var systemId = getSystemIdOrThrowBadRequest();
 
-        List<Host> hosts;
-
-        if (isBlank(componentFilter)) {
-            hosts = hostDao.findHostsByEnvId(envId, systemId);
-            hosts = hosts.stream().map(host -> {
-                var tags = tagDao.findTagsForHost(host.getId());
-                return host.withTags(tags);
-            }).toList();
-        } else {
-            var components = componentDao.findComponentsForSystemMatchingName(systemId, f("%{}%", componentFilter));
-            var componentTags = components.stream().map(Component::getTagId).toList();
-
-            if (componentTags.isEmpty()) {
-                hosts = List.of();
-            } else {
-                hosts = hostDao.findHostsForTagsInEnv(systemId, envId, componentTags);
-                hosts = hosts.stream().map(host -> {
-                    var tags = tagDao.findTagsForHost(host.getId());
-                    return host.withTags(tags);
-                }).toList();
-            }
-        }
+        var hosts = isBlank(componentFilter)
+                ? hostDao.findHostsByEnvId(envId, systemId)
+                : hostDao.findHostsByEnvIdMatchingComponent(envId, systemId, f("%{}%", componentFilter));
 
         return Response.ok(hosts).build();
     }
@@ -116,10 +101,8 @@ public class HostConfigurationResource extends AuditableResource {
     public Response updateHost(Host host, @PathParam("id") Long hostId) {
         checkUserAdminOfSystem();
 
-        var updateCount = hostDao.updateHost(host.getHostname(), hostId);
-
         var tagIds = host.getTags().stream().map(Tag::getId).toList();
-        hostDao.updateTagList(hostId, tagIds);
+        var updateCount = hostDao.updateHostAndTags(hostId, host.getHostname(), tagIds);
 
         if (updateCount > 0) {
             auditAction(hostId, Host.class, Action.UPDATED);
@@ -128,6 +111,29 @@ public class HostConfigurationResource extends AuditableResource {
         return Response.accepted().build();
     }
 
+    @PUT
+    @Path("/tags")
+    @Timed
+    @ExceptionMetered
+    public Response updateHostTags(@Valid @NotNull List<@NotNull HostTagsUpdate> updates) {
+        checkUserAdminOfSystem();
+
+        var systemId = getSystemIdOrThrowBadRequest();
+        var tagIdsByHostId = updates.stream()
+                .collect(toMap(HostTagsUpdate::hostId, HostTagsUpdate::tagIds, (first, second) -> second, LinkedHashMap::new));
+
+        var updatedIds = hostDao.updateTagListsInSystem(tagIdsByHostId, systemId);
+
+        auditActions(updatedIds, Host.class, Action.UPDATED);
+
+        return Response.accepted(Map.of("updatedCount", updatedIds.size())).build();
+    }
+
+    /**
+     * The complete list of tags a host should have after a bulk tag update.
+     */
+    public record HostTagsUpdate(@NotNull Long hostId, @NotNull List<@NotNull Long> tagIds) {}
+
     @DELETE
     @Path("/{id}")
     @Timed
@@ -148,17 +154,10 @@ public class HostConfigurationResource extends AuditableResource {
     @Path("/components")
     @Timed
     @ExceptionMetered
-    public Response listComponents() {
+    public Response listComponents(@Context Request request) {
         var systemId = getSystemIdOrThrowBadRequest();
-        var components = componentDao.findComponentsForSystem(systemId);
-        components = components.stream().map(component -> {
-            if (nonNull(component.getTagId())) {
-                return component.withTag(tagDao.findTagById(component.getTagId()));
-            }
-            return component;
-        }).toList();
 
-        return Response.ok(components).build();
+        return cachedResponse("components", request, () -> componentDao.findComponentsForSystem(systemId));
     }
 
     @GET
@@ -166,16 +165,11 @@ public class HostConfigurationResource extends AuditableResource {
     @Timed
     @ExceptionMetered
     public Response listComponentsForHost(@PathParam("hostId") Long hostId) {
-        var host = hostDao.findById(hostId).orElseThrow(() -> new JaxrsNotFoundException("No host found"));
-        var tagIds = hostDao.findTagIdsForHost(host.getId());
-        var components = componentDao.findComponentsByHostTags(tagIds);
-
-        components = components.stream().map(component -> {
-            if (nonNull(component.getTagId())) {
-                return component.withTag(tagDao.findTagById(component.getTagId()));
-            }
-            return component;
-        }).toList();
+        var components = componentDao.findComponentsForHost(hostId);
+
+        if (components.isEmpty() && hostDao.findById(hostId).isEmpty()) {
+            throw new JaxrsNotFoundException("No host found");
+        }
 
         return Response.ok(components).build();
     }
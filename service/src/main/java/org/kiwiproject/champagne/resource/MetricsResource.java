@@ -3,48 +3,107 @@ package org.kiwiproject.champagne.resource;
 import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrThrowBadRequest;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.ZoneOffset;
-import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import jakarta.annotation.security.PermitAll;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import org.kiwiproject.champagne.dao.BuildDao;
+import org.kiwiproject.champagne.dao.BuildMetricsDao;
+import org.kiwiproject.champagne.dao.DeploymentMetricsDao;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
 
+/**
+ * Build and deployment metrics. These are read from pre-aggregated rollups and views, never from the raw tables, so
+ * the most recent activity may only show up after the next run of the job that maintains them.
+ */
 @Path("/metrics")
 @Produces(MediaType.APPLICATION_JSON)
 public class MetricsResource {
 
-    private final BuildDao buildDao;
+    private static final int MAX_WINDOW_DAYS = 366;
 
-    public MetricsResource(BuildDao buildDao) {
-        this.buildDao = buildDao;
+    private final BuildMetricsDao buildMetricsDao;
+    private final DeploymentMetricsDao deploymentMetricsDao;
+
+    public MetricsResource(BuildMetricsDao buildMetricsDao, DeploymentMetricsDao deploymentMetricsDao) {
+        this.buildMetricsDao = buildMetricsDao;
+        this.deploymentMetricsDao = deploymentMetricsDao;
     }
 
+    /**
+     * Returns the number of builds in the last {@code days} days, including today, and in the same number of days
+     * before that.
+     */
     @GET
     @Timed
     @ExceptionMetered
     @PermitAll
-    public Response getMetrics() {
+    public Response getMetrics(@QueryParam("days") @DefaultValue("30") int days) {
         var systemId = getSystemIdOrThrowBadRequest();
+        checkWindowDays(days);
+
+        var today = LocalDate.now(ZoneOffset.UTC);
+        var currentStart = today.minusDays(days - 1L);
+
+        long currentCount = buildMetricsDao.countBuildsInSystemInRange(systemId, currentStart, today);
 
-        var endOfToday = LocalDate.now().atTime(LocalTime.MAX);
-        var oneMonthAgo = endOfToday.minusDays(30).truncatedTo(ChronoUnit.DAYS);
+        var previousEnd = currentStart.minusDays(1);
+        var previousStart = previousEnd.minusDays(days - 1L);
+
+        long previousCount = buildMetricsDao.countBuildsInSystemInRange(systemId, previousStart, previousEnd);
+
+        return Response.ok(Map.of("builds", Map.of("current", currentCount, "previous", previousCount))).build();
+    }
 
-        long thisMonthCount = buildDao.countBuildsInSystemInRange(systemId, oneMonthAgo.toInstant(ZoneOffset.UTC), endOfToday.toInstant(ZoneOffset.UTC));
+    /**
+     * Returns the number of builds of each component in the last {@code days} days, including today.
+     */
+    @GET
+    @Path("/builds/components")
+    @Timed
+    @ExceptionMetered
+    @PermitAll
+    public Response getComponentBuildCounts(@QueryParam("days") @DefaultValue("30") int days) {
+        var systemId = getSystemIdOrThrowBadRequest();
+        checkWindowDays(days);
 
-        var endOfLastMonth = oneMonthAgo.minusSeconds(1);
-        var startOfPreviousMonth = endOfLastMonth.minusDays(30).truncatedTo(ChronoUnit.DAYS);
+        var today = LocalDate.now(ZoneOffset.UTC);
+        var counts = buildMetricsDao.countBuildsByComponentInRange(systemId, today.minusDays(days - 1L), today);
 
-        long lastMonthCount = buildDao.countBuildsInSystemInRange(systemId, startOfPreviousMonth.toInstant(ZoneOffset.UTC), endOfLastMonth.toInstant(ZoneOffset.UTC));
+        return Response.ok(Map.of("builds", counts)).build();
+    }
+
+    /**
+     * Returns the deployment frequency, lead time, change failure rate and execution duration of each environment in
+     * the last {@code days} days, including today. These are read from views refreshed by a job, so the most recent
+     * deployments may not be included yet.
+     */
+    @GET
+    @Path("/deployments")
+    @Timed
+    @ExceptionMetered
+    @PermitAll
+    public Response getDeploymentMetrics(@QueryParam("days") @DefaultValue("30") int days) {
+        var systemId = getSystemIdOrThrowBadRequest();
+        checkWindowDays(days);
+
+        var today = LocalDate.now(ZoneOffset.UTC);
+        var metrics = deploymentMetricsDao.findDeploymentMetrics(systemId, today.minusDays(days - 1L), today, days);
+
+        return Response.ok(metrics).build();
+    }
 
-        return Response.ok(Map.of("builds", Map.of("current", thisMonthCount, "previous", lastMonthCount))).build();
+    private static void checkWindowDays(int days) {
+        if (days < 1 || days > MAX_WINDOW_DAYS) {
+            throw new JaxrsBadRequestException("days must be between 1 and " + MAX_WINDOW_DAYS);
+        }
     }
 }
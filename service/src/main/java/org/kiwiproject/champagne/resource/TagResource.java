@@ -18,12 +18,15 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import lombok.extern.slf4j.Slf4j;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.dao.TagDao;
 import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.Tag;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 
 @Path("/tag")
@@ -35,8 +38,8 @@ public class TagResource extends AuditableResource {
 
     private final TagDao tagDao;
 
-    public TagResource(TagDao tagDao, AuditRecordDao auditRecordDao, ApplicationErrorDao errorDao) {
-        super(auditRecordDao, errorDao);
+    public TagResource(TagDao tagDao, AuditRecordWriter auditRecordWriter, SystemResponseCache responseCache, ApplicationErrorDao errorDao) {
+        super(auditRecordWriter, responseCache, errorDao);
 
         this.tagDao = tagDao;
     }
@@ -44,12 +47,10 @@ public class TagResource extends AuditableResource {
     @GET
     @Timed
     @ExceptionMetered
-    public Response listTagsForCurrentSystem() {
+    public Response listTagsForCurrentSystem(@Context Request request) {
         var systemId = getSystemIdOrThrowBadRequest();
 
-        var tags = tagDao.findTagsForSystem(systemId);
-
-        return Response.ok(tags).build();
+        return cachedResponse("tags", request, () -> tagDao.findTagsForSystem(systemId));
     }
 
     @POST
@@ -1,20 +1,19 @@
 package org.kiwiproject.champagne.resource;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toMap;
-import static java.util.stream.Collectors.toSet;
 import static org.kiwiproject.champagne.util.DeployableSystems.getSystemIdOrThrowBadRequest;
 import static org.kiwiproject.jaxrs.KiwiStandardResponses.standardNotFoundResponse;
 import static org.kiwiproject.search.KiwiSearching.zeroBasedOffset;
 
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
-import com.google.common.annotations.VisibleForTesting;
 import jakarta.annotation.security.PermitAll;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -28,10 +27,11 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
-import org.kiwiproject.champagne.dao.DeploymentEnvironmentDao;
+import org.kiwiproject.champagne.dao.Counted;
 import org.kiwiproject.champagne.dao.ReleaseDao;
 import org.kiwiproject.champagne.dao.ReleaseStatusDao;
 import org.kiwiproject.champagne.dao.TaskDao;
@@ -43,7 +43,10 @@ import org.kiwiproject.champagne.model.manualdeployment.ReleaseStage;
 import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
 import org.kiwiproject.champagne.model.manualdeployment.Task;
 import org.kiwiproject.champagne.model.manualdeployment.TaskStatus;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
 import org.kiwiproject.jaxrs.exception.JaxrsNotFoundException;
 import org.kiwiproject.spring.data.KiwiPage;
 
@@ -57,23 +60,21 @@ public class TaskResource extends AuditableResource {
     private final ReleaseStatusDao releaseStatusDao;
     private final TaskDao taskDao;
     private final TaskStatusDao taskStatusDao;
-    private final DeploymentEnvironmentDao deploymentEnvironmentDao;
 
     public TaskResource (ReleaseDao releaseDao,
                          ReleaseStatusDao releaseStatusDao,
                          TaskDao taskDao,
                          TaskStatusDao taskStatusDao,
-                         DeploymentEnvironmentDao deploymentEnvironmentDao,
-                         AuditRecordDao auditRecordDao,
+                         AuditRecordWriter auditRecordWriter,
+                         SystemResponseCache responseCache,
                          ApplicationErrorDao errorDao) {
 
-        super(auditRecordDao, errorDao);
+        super(auditRecordWriter, responseCache, errorDao);
 
         this.releaseDao = releaseDao;
         this.releaseStatusDao = releaseStatusDao;
         this.taskDao = taskDao;
         this.taskStatusDao = taskStatusDao;
-        this.deploymentEnvironmentDao = deploymentEnvironmentDao;
     }
 
     @GET
@@ -84,19 +85,32 @@ public class TaskResource extends AuditableResource {
                                      @QueryParam("pageSize") @DefaultValue("50") int pageSize) {
 
         var systemId = getSystemIdOrThrowBadRequest();
-        var releases = releaseDao.findPagedReleases(zeroBasedOffset(pageNumber, pageSize), pageSize, systemId);
+        var offset = zeroBasedOffset(pageNumber, pageSize);
+        var pagedReleases = releaseDao.findPagedReleasesWithTotalCount(offset, pageSize, systemId);
+        var totalCount = Counted.totalCountOf(pagedReleases, offset, () -> releaseDao.countReleases(systemId));
+
+        var releases = Counted.valuesOf(pagedReleases);
+        var statusesByReleaseId = findStatusesByReleaseId(releases);
+
         var releasesWithStatus = releases.stream()
-                .map(this::buildReleaseWithStatusFrom)
+                .map(release -> buildReleaseWithStatusFrom(release, statusesByReleaseId.getOrDefault(release.getId(), Map.of())))
                 .toList();
-        
-        var totalCount = releaseDao.countReleases(systemId);
+
         return Response.ok(KiwiPage.of(pageNumber, pageSize, totalCount, releasesWithStatus).usingOneAsFirstPage()).build();
     }
 
-    private ReleaseWithStatus buildReleaseWithStatusFrom(Release release) {
-        var statuses = releaseStatusDao.findByReleaseId(release.getId());
-        var environmentStatus = statuses.stream().collect(toMap(ReleaseStatus::getEnvironmentId, identity()));
+    private Map<Long, Map<Long, ReleaseStatus>> findStatusesByReleaseId(List<Release> releases) {
+        if (releases.isEmpty()) {
+            return Map.of();
+        }
+
+        var releaseIds = releases.stream().map(Release::getId).toList();
+
+        return releaseStatusDao.findByReleaseIds(releaseIds).stream()
+                .collect(groupingBy(ReleaseStatus::getReleaseId, toMap(ReleaseStatus::getEnvironmentId, identity())));
+    }
 
+    private static ReleaseWithStatus buildReleaseWithStatusFrom(Release release, Map<Long, ReleaseStatus> environmentStatus) {
         return ReleaseWithStatus.builder()
             .release(release)
             .environmentStatus(environmentStatus)
@@ -110,17 +124,17 @@ public class TaskResource extends AuditableResource {
     public Response getTasksForRelease(@PathParam("releaseId") long releaseId) {
         var tasks = taskDao.findByReleaseId(releaseId);
 
+        var statusesByTaskId = taskStatusDao.findByReleaseId(releaseId).stream()
+                .collect(groupingBy(TaskStatus::getTaskId, toMap(TaskStatus::getEnvironmentId, identity())));
+
         var tasksWithStatus = tasks.stream()
-                .map(this::buildTaskWithStatusFrom)
+                .map(task -> buildTaskWithStatusFrom(task, statusesByTaskId.getOrDefault(task.getId(), Map.of())))
                 .toList();
 
         return Response.ok(tasksWithStatus).build();
     }
 
-    private TaskWithStatus buildTaskWithStatusFrom(Task task) {
-        var statuses = taskStatusDao.findByTaskId(task.getId());
-        var environmentStatus = statuses.stream().collect(toMap(TaskStatus::getEnvironmentId, identity()));
-
+    private static TaskWithStatus buildTaskWithStatusFrom(Task task, Map<Long, TaskStatus> environmentStatus) {
         return TaskWithStatus.builder()
             .task(task)
             .environmentStatus(environmentStatus)
@@ -132,26 +146,12 @@ public class TaskResource extends AuditableResource {
     @Timed
     @ExceptionMetered
     public Response addNewRelease(@Valid @NotNull Release release) {
-        var systemId = release.getDeployableSystemId();
-
         if (isNull(release.getDeployableSystemId())) {
-            systemId = getSystemIdOrThrowBadRequest();
-            release = release.withDeployableSystemId(systemId);
+            release = release.withDeployableSystemId(getSystemIdOrThrowBadRequest());
         }
 
-        var releaseId = releaseDao.insertRelease(release);
-        auditAction(releaseId, Release.class, Action.CREATED);
-
-        deploymentEnvironmentDao.findAllEnvironments(systemId).forEach(env -> {
-            var status = ReleaseStatus.builder()
-                .releaseId(releaseId)
-                .environmentId(env.getId())
-                .status(DeploymentTaskStatus.PENDING)
-                .build(); 
-
-            var releaseStatusId = releaseStatusDao.insertReleaseStatus(status);
-            auditAction(releaseStatusId, ReleaseStatus.class, Action.CREATED);
-        });
+        var auditRecordTemplate = newAuditRecordTemplate(Release.class, Action.CREATED).orElse(null);
+        releaseDao.insertReleaseWithStatuses(release, auditRecordTemplate);
 
         return Response.accepted().build();
     }
@@ -161,84 +161,13 @@ public class TaskResource extends AuditableResource {
     @ExceptionMetered
     public Response addNewTask(@Valid @NotNull Task task) {
         var systemId = getSystemIdOrThrowBadRequest();
-        var taskId = taskDao.insertTask(task);
-        auditAction(taskId, Task.class, Action.CREATED);
-
-        deploymentEnvironmentDao.findAllEnvironments(systemId).forEach(env -> {
-            var status = TaskStatus.builder()
-                .taskId(taskId)
-                .environmentId(env.getId())
-                .status(DeploymentTaskStatus.PENDING)
-                .build(); 
-
-            var taskStatusId = taskStatusDao.insertTaskStatus(status);
-            auditAction(taskStatusId, TaskStatus.class, Action.CREATED);
-        });
-
-        calculateReleaseStatus(task.getReleaseId());
+        var auditRecordTemplate = newAuditRecordTemplate(Task.class, Action.CREATED).orElse(null);
+        taskDao.insertTaskWithStatuses(task, systemId, auditRecordTemplate);
+        invalidateCachedResponses();
 
         return Response.accepted().build();
     }
 
-    @VisibleForTesting
-    void calculateReleaseStatus(long releaseId) {
-        var tasksForRelease = taskDao.findByReleaseId(releaseId);
-
-        var taskToStatusMap = tasksForRelease.stream()
-                .map(task -> taskStatusDao.findByTaskId(task.getId()))
-                .flatMap(List::stream)
-                .collect(groupingBy(TaskStatus::getEnvironmentId));
-
-        var releaseStatuses = releaseStatusDao.findByReleaseId(releaseId);
-
-        releaseStatuses.forEach(status -> {
-            var env = status.getEnvironmentId();
-            var newStatus = rollupTaskStatus(status.getStatus(), taskToStatusMap.getOrDefault(env, List.of()));
-
-            if (status.getStatus() != newStatus) {
-                releaseStatusDao.updateStatus(status.getId(), newStatus);
-                auditAction(status.getId(), ReleaseStatus.class, Action.UPDATED);
-            }
-        });
-    }
-
-    private static DeploymentTaskStatus rollupTaskStatus(DeploymentTaskStatus originalStatus, List<TaskStatus> taskStatuses) {
-        var statuses = taskStatuses.stream()
-                .map(TaskStatus::getStatus)
-                .collect(toSet());
-
-        // No tasks, keep original status
-        if (statuses.isEmpty()) {
-            return originalStatus;
-        }
-
-        // All tasks complete, set to complete
-        if (allTasksWithStatus(statuses, DeploymentTaskStatus.COMPLETE)) {
-            return DeploymentTaskStatus.COMPLETE;
-        }
-
-        // All tasks are not required
-        if (allTasksWithStatus(statuses, DeploymentTaskStatus.NOT_REQUIRED)) {
-            return DeploymentTaskStatus.NOT_REQUIRED;
-        }
-
-        // Any pending tasks
-        if (anyTasksWithPendingStatus(statuses)) {
-            return DeploymentTaskStatus.PENDING;
-        }
-
-        // There are at least one complete and one not required
-        return DeploymentTaskStatus.COMPLETE;
-    }
-
-    private static boolean allTasksWithStatus(Set<DeploymentTaskStatus> statuses, DeploymentTaskStatus statusToCheck) {
-        return statuses.stream().allMatch(status -> status == statusToCheck);
-    }
-
-    private static boolean anyTasksWithPendingStatus(Set<DeploymentTaskStatus> statuses) {
-        return statuses.stream().anyMatch(status -> status == DeploymentTaskStatus.PENDING);
-    }
-
     @PUT
     @Path("/releases/{statusId}/{status}")
     @Timed
@@ -262,18 +191,48 @@ public class TaskResource extends AuditableResource {
     @ExceptionMetered
     public Response updateTaskStatus(@PathParam("statusId") long statusId, 
                                         @PathParam("status") DeploymentTaskStatus status) {
-        var updatedCount = taskStatusDao.updateStatus(statusId, status);
+        var auditRecordTemplate = newAuditRecordTemplate(TaskStatus.class, Action.UPDATED).orElse(null);
+        var updatedIds = taskStatusDao.updateStatusAndReleaseTaskCounts(statusId, status, auditRecordTemplate).getTaskStatusIds();
 
-        if (updatedCount == 0) {
+        if (updatedIds.isEmpty()) {
             return standardNotFoundResponse("Unable to update task status with id" + statusId);
-        } else {
-            auditAction(statusId, TaskStatus.class, Action.UPDATED);
         }
 
-        taskDao.findByTaskStatusId(statusId).ifPresent(task -> calculateReleaseStatus(task.getReleaseId()));
+        invalidateCachedResponses();
         return Response.accepted().build();
     }
 
+    @PUT
+    @Path("/statuses")
+    @Timed
+    @ExceptionMetered
+    public Response updateTaskStatuses(@Valid @NotNull BulkTaskStatusUpdateRequest request) {
+        var statusIds = findStatusIdsToUpdate(request);
+        var auditRecordTemplate = newAuditRecordTemplate(TaskStatus.class, Action.UPDATED).orElse(null);
+        var updatedIds = taskStatusDao.updateStatusesAndReleaseTaskCounts(statusIds, request.status(), auditRecordTemplate)
+                .getTaskStatusIds();
+
+        if (updatedIds.isEmpty()) {
+            return standardNotFoundResponse("Unable to find task statuses to update");
+        }
+
+        invalidateCachedResponses();
+
+        return Response.accepted(Map.of("updatedCount", updatedIds.size())).build();
+    }
+
+    private List<Long> findStatusIdsToUpdate(BulkTaskStatusUpdateRequest request) {
+        if (nonNull(request.statusIds()) && !request.statusIds().isEmpty()) {
+            return request.statusIds();
+        }
+
+        if (isNull(request.releaseId()) || isNull(request.stage()) || isNull(request.environmentId())) {
+            throw new JaxrsBadRequestException("Either statusIds or releaseId, stage and environmentId are required");
+        }
+
+        return taskStatusDao.findIdsByReleaseStageAndEnvironment(request.releaseId(), request.stage(), request.environmentId());
+    }
+
     @DELETE
     @Path("/releases/{releaseId}")
     @Timed
@@ -291,13 +250,13 @@ public class TaskResource extends AuditableResource {
     @Timed
     @ExceptionMetered
     public Response deleteTask(@PathParam("taskId") long taskId) {
-        var releaseId = taskDao.findById(taskId).map(Task::getReleaseId)
-            .orElseThrow(() -> new JaxrsNotFoundException("Unable to find task with id" + taskId));
-
-        taskDao.deleteById(taskId);
-        auditAction(taskId, Task.class, Action.DELETED);
+        if (taskDao.findById(taskId).isEmpty()) {
+            throw new JaxrsNotFoundException("Unable to find task with id" + taskId);
+        }
 
-        calculateReleaseStatus(releaseId);
+        var auditRecordTemplate = newAuditRecordTemplate(Task.class, Action.DELETED).orElse(null);
+        taskDao.deleteByIdAndReleaseTaskCounts(taskId, auditRecordTemplate);
+        invalidateCachedResponses();
 
         return Response.accepted().build();
     }
@@ -306,7 +265,17 @@ public class TaskResource extends AuditableResource {
     @Path("/stages")
     @Timed
     @ExceptionMetered
-    public Response getReleaseStages() {
-        return Response.ok(ReleaseStage.values()).build();
+    public Response getReleaseStages(@Context Request request) {
+        return cachedGlobalResponse("releaseStages", request, ReleaseStage::values);
     }
+
+    /**
+     * Selects the task statuses to move to the given status, either by id or by the release, stage and environment
+     * the tasks belong to.
+     */
+    public record BulkTaskStatusUpdateRequest(List<Long> statusIds,
+                                              Long releaseId,
+                                              ReleaseStage stage,
+                                              Long environmentId,
+                                              @NotNull DeploymentTaskStatus status) {}
 }
@@ -26,12 +26,14 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
 import org.dhatim.dropwizard.jwt.cookie.authentication.DefaultJwtCookiePrincipal;
-import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.dao.DeployableSystemDao;
 import org.kiwiproject.champagne.dao.UserDao;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.User;
 import org.kiwiproject.champagne.model.UserInSystem;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.spring.data.KiwiPage;
 
@@ -43,12 +45,20 @@ public class UserResource extends AuditableResource {
 
     private final UserDao userDao;
     private final DeployableSystemDao deployableSystemDao;
+    private final DeployableSystemAccessCache systemAccessCache;
 
-    public UserResource(UserDao userDao, DeployableSystemDao deployableSystemDao, AuditRecordDao auditRecordDao, ApplicationErrorDao errorDao) {
-        super(auditRecordDao, errorDao);
+    public UserResource(UserDao userDao,
+                        DeployableSystemDao deployableSystemDao,
+                        DeployableSystemAccessCache systemAccessCache,
+                        AuditRecordWriter auditRecordWriter,
+                        SystemResponseCache responseCache,
+                        ApplicationErrorDao errorDao) {
+
+        super(auditRecordWriter, responseCache, errorDao);
 
         this.userDao = userDao;
         this.deployableSystemDao = deployableSystemDao;
+        this.systemAccessCache = systemAccessCache;
     }
 
     @GET
@@ -106,6 +116,7 @@ public class UserResource extends AuditableResource {
         var deletedCount = userDao.deleteUser(id);
 
         if (deletedCount > 0) {
+            systemAccessCache.invalidateUser(id);
             auditAction(id, User.class, Action.DELETED);
         }
 
@@ -132,6 +143,7 @@ public class UserResource extends AuditableResource {
         var updatedCount = userDao.updateUser(userToUpdate);
 
         if (updatedCount > 0) {
+            systemAccessCache.invalidateUser(userToUpdate.getId());
             auditAction(userToUpdate.getId(), User.class, Action.UPDATED);
         }
 
@@ -148,6 +160,7 @@ public class UserResource extends AuditableResource {
         var systemId = getSystemIdOrThrowBadRequest();
         var removeCount = userDao.removeUserFromSystem(id, systemId);
         if (removeCount > 0) {
+            systemAccessCache.invalidateUser(id);
             auditAction(id, UserInSystem.class, Action.DELETED);
         }
 
@@ -171,6 +184,7 @@ public class UserResource extends AuditableResource {
         }
 
         if (updateCount > 0) {
+            systemAccessCache.invalidateUser(id);
             auditAction(id, UserInSystem.class, Action.UPDATED);
         }
 
@@ -188,6 +202,7 @@ public class UserResource extends AuditableResource {
         var insertCount = userDao.addUserToSystem(id, systemId);
 
         if (insertCount > 0) {
+            systemAccessCache.invalidateUser(id);
             auditAction(id, User.class, Action.UPDATED);
         }
 
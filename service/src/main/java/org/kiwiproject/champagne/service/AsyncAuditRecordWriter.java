@@ -0,0 +1,163 @@
+package org.kiwiproject.champagne.service;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.util.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
+import org.kiwiproject.champagne.model.AuditRecord;
+
+/**
+ * Queues audit records in a bounded queue and writes them in batches from a single background thread, either when a
+ * full batch is waiting or every flush interval, whichever comes first. When the queue is full, records are dropped
+ * (and counted) rather than blocking the request. Stopping drains whatever is still queued, and records written after
+ * that are written synchronously.
+ */
+@Slf4j
+public class AsyncAuditRecordWriter implements AuditRecordWriter, Managed {
+
+    private final AuditRecordDao auditRecordDao;
+    private final BlockingQueue<AuditRecord> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private boolean stopped;
+    private final Timer flushTimer;
+    private final Meter droppedRecords;
+
+    public AsyncAuditRecordWriter(AuditRecordDao auditRecordDao,
+                                  int queueCapacity,
+                                  int batchSize,
+                                  Duration flushInterval,
+                                  Duration shutdownTimeout,
+                                  ScheduledExecutorService executor,
+                                  MetricRegistry metrics) {
+
+        this.auditRecordDao = auditRecordDao;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.executor = executor;
+
+        metrics.register(name(AsyncAuditRecordWriter.class, "queueDepth"), (Gauge<Integer>) queue::size);
+        this.flushTimer = metrics.timer(name(AsyncAuditRecordWriter.class, "flush"));
+        this.droppedRecords = metrics.meter(name(AsyncAuditRecordWriter.class, "dropped"));
+    }
+
+    @Override
+    public void write(AuditRecord auditRecord) {
+        enqueue(auditRecord);
+        requestFlushIfBatchIsFull();
+    }
+
+    @Override
+    public void writeAll(List<AuditRecord> auditRecords) {
+        auditRecords.forEach(this::enqueue);
+        requestFlushIfBatchIsFull();
+    }
+
+    private void enqueue(AuditRecord auditRecord) {
+        if (!offerUnlessStopped(auditRecord)) {
+            auditRecordDao.insertAuditRecord(auditRecord);
+        }
+    }
+
+    /**
+     * Queues the record unless the writer is stopped, holding the read side of the stop lock so {@link #stop()} can't
+     * start its final drain between the check and the offer. Returns false when stopped.
+     */
+    private boolean offerUnlessStopped(AuditRecord auditRecord) {
+        stopLock.readLock().lock();
+        try {
+            if (stopped) {
+                return false;
+            }
+
+            if (!queue.offer(auditRecord)) {
+                droppedRecords.mark();
+                LOG.warn("Audit record queue is full, dropping audit of action {} on {} with id {}",
+                        auditRecord.getAction(), auditRecord.getRecordType(), auditRecord.getRecordId());
+            }
+
+            return true;
+        } finally {
+            stopLock.readLock().unlock();
+        }
+    }
+
+    private void requestFlushIfBatchIsFull() {
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Stopping; the final flush in stop() writes whatever is queued
+                LOG.debug("Audit writer is stopping, not scheduling flush");
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        var intervalMillis = flushInterval.toMilliseconds();
+        executor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        stopLock.writeLock().lock();
+        try {
+            stopped = true;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+
+        executor.shutdown();
+
+        if (!executor.awaitTermination(shutdownTimeout.toMilliseconds(), TimeUnit.MILLISECONDS)) {
+            LOG.warn("Audit writer did not finish its last flush within {}", shutdownTimeout);
+        }
+
+        flush();
+    }
+
+    /**
+     * Writes everything currently queued, one batch at a time.
+     */
+    @VisibleForTesting
+    void flush() {
+        flushRequested.set(false);
+
+        var batch = new ArrayList<AuditRecord>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try (var ignored = flushTimer.time()) {
+                auditRecordDao.insertAuditRecords(batch);
+            } catch (Exception e) {
+                droppedRecords.mark(batch.size());
+                LOG.error("Unable to write batch of {} audit records, they are lost", batch.size(), e);
+            }
+
+            batch.clear();
+        }
+    }
+}
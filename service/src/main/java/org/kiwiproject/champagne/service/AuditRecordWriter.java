@@ -0,0 +1,16 @@
+package org.kiwiproject.champagne.service;
+
+import java.util.List;
+
+import org.kiwiproject.champagne.model.AuditRecord;
+
+/**
+ * Writes audit records on behalf of the auditable resources. Implementations may write them immediately or hand them
+ * off to be written in batches in the background.
+ */
+public interface AuditRecordWriter {
+
+    void write(AuditRecord auditRecord);
+
+    void writeAll(List<AuditRecord> auditRecords);
+}
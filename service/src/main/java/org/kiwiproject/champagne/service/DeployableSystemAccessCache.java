@@ -0,0 +1,86 @@
+package org.kiwiproject.champagne.service;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Optional;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.kiwiproject.champagne.dao.DeployableSystemDao;
+import org.kiwiproject.champagne.model.DeployableSystemAccess;
+
+/**
+ * Bounded, expiring cache of the deployable system access of the logged-in users, keyed by user system identifier and
+ * system id. Entries are invalidated by the resources that change users, system membership or admin flags; the
+ * expiry bounds how stale an entry can get otherwise.
+ * <p>
+ * Every invalidation bumps a generation. A loaded access is only stored when no invalidation happened while it was
+ * loading, checked under the same lock the invalidations take, so access loaded before a change can never be cached
+ * after the change invalidated it.
+ */
+public class DeployableSystemAccessCache {
+
+    private record Key(String userSystemIdentifier, long systemId) {}
+
+    private final Cache<Key, DeployableSystemAccess> cache;
+    private final DeployableSystemDao deployableSystemDao;
+    private final Object lock = new Object();
+    private long generation;
+
+    public DeployableSystemAccessCache(String cacheSpec, DeployableSystemDao deployableSystemDao, MetricRegistry metrics) {
+        this.cache = CacheBuilder.from(cacheSpec).recordStats().build();
+        this.deployableSystemDao = deployableSystemDao;
+
+        metrics.register(name(DeployableSystemAccessCache.class, "hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+        metrics.register(name(DeployableSystemAccessCache.class, "misses"), (Gauge<Long>) () -> cache.stats().missCount());
+        metrics.register(name(DeployableSystemAccessCache.class, "size"), (Gauge<Long>) cache::size);
+    }
+
+    /**
+     * Returns the access of the given user to the given system, or empty when there is no such user. Unknown users
+     * are not cached.
+     */
+    public Optional<DeployableSystemAccess> getAccess(String userSystemIdentifier, long systemId) {
+        var key = new Key(userSystemIdentifier, systemId);
+        var access = cache.getIfPresent(key);
+
+        if (access != null) {
+            return Optional.of(access);
+        }
+
+        var loadGeneration = currentGeneration();
+        var loadedAccess = deployableSystemDao.findAccessBySystemIdentifier(userSystemIdentifier, systemId);
+
+        loadedAccess.ifPresent(value -> {
+            synchronized (lock) {
+                if (generation == loadGeneration) {
+                    cache.put(key, value);
+                }
+            }
+        });
+
+        return loadedAccess;
+    }
+
+    private long currentGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    public void invalidateUser(long userId) {
+        synchronized (lock) {
+            generation++;
+            cache.asMap().values().removeIf(access -> access.getUserId() == userId);
+        }
+    }
+
+    public void invalidateSystem(long systemId) {
+        synchronized (lock) {
+            generation++;
+            cache.asMap().keySet().removeIf(key -> key.systemId() == systemId);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.kiwiproject.champagne.service;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
+import org.kiwiproject.champagne.model.AuditRecord;
+
+/**
+ * Writes audit records on the calling (request) thread.
+ */
+@AllArgsConstructor
+public class SyncAuditRecordWriter implements AuditRecordWriter {
+
+    private final AuditRecordDao auditRecordDao;
+
+    @Override
+    public void write(AuditRecord auditRecord) {
+        auditRecordDao.insertAuditRecord(auditRecord);
+    }
+
+    @Override
+    public void writeAll(List<AuditRecord> auditRecords) {
+        auditRecordDao.insertAuditRecords(auditRecords);
+    }
+}
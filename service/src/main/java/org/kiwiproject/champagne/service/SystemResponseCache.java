@@ -0,0 +1,117 @@
+package org.kiwiproject.champagne.service;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.kiwiproject.json.JsonHelper;
+
+/**
+ * Short lived cache of serialized JSON responses per deployable system, for read-heavy endpoints whose data rarely
+ * changes. Each response carries a strong ETag computed from its body, so a request with a matching
+ * {@code If-None-Match} gets a 304 without loading or serializing anything.
+ * <p>
+ * Changes to a system invalidate its entries by bumping the system's version, which is part of the cache key, and
+ * invalidating every system bumps a global generation that is also part of the key. A response loaded concurrently
+ * with a change is therefore stored under the old version or generation and never served. The expiry bounds how long
+ * changes made through another instance of the service can go unseen.
+ */
+public class SystemResponseCache {
+
+    /**
+     * System id for responses that are the same for every deployable system.
+     */
+    public static final long ALL_SYSTEMS = 0L;
+
+    private record Key(long generation, long systemId, long version, String name) {}
+
+    private record CachedResponse(byte[] body, EntityTag etag) {}
+
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("no-cache");
+
+    private final Cache<Key, CachedResponse> cache;
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final JsonHelper jsonHelper;
+    private final Meter notModified;
+
+    public SystemResponseCache(String cacheSpec, JsonHelper jsonHelper, MetricRegistry metrics) {
+        this.cache = CacheBuilder.from(cacheSpec).recordStats().build();
+        this.jsonHelper = jsonHelper;
+
+        metrics.register(name(SystemResponseCache.class, "hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+        metrics.register(name(SystemResponseCache.class, "misses"), (Gauge<Long>) () -> cache.stats().missCount());
+        metrics.register(name(SystemResponseCache.class, "size"), (Gauge<Long>) cache::size);
+        this.notModified = metrics.meter(name(SystemResponseCache.class, "notModified"));
+    }
+
+    /**
+     * Returns the cached response with the given name for the system, loading it with the given supplier when it is
+     * not cached. Returns a 304 when the request's {@code If-None-Match} matches the response's ETag.
+     */
+    public Response respond(long systemId, String name, Request request, Supplier<?> loader) {
+        var key = new Key(generation.get(), systemId, versionOf(systemId), name);
+        var cachedResponse = cache.getIfPresent(key);
+
+        if (isNull(cachedResponse)) {
+            cachedResponse = toCachedResponse(loader.get());
+            cache.put(key, cachedResponse);
+        }
+
+        var notModifiedResponse = request.evaluatePreconditions(cachedResponse.etag());
+        if (notModifiedResponse != null) {
+            notModified.mark();
+            return notModifiedResponse.cacheControl(REVALIDATE).build();
+        }
+
+        return Response.ok(cachedResponse.body(), MediaType.APPLICATION_JSON_TYPE)
+                .tag(cachedResponse.etag())
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+
+    private CachedResponse toCachedResponse(Object entity) {
+        var body = jsonHelper.toJson(entity).getBytes(UTF_8);
+        var etag = new EntityTag(Hashing.murmur3_128().hashBytes(body).toString());
+
+        return new CachedResponse(body, etag);
+    }
+
+    private long versionOf(long systemId) {
+        return versions.getOrDefault(systemId, 0L);
+    }
+
+    /**
+     * Invalidates the cached responses of the given system, or of every system when the id is null.
+     */
+    public void invalidateSystem(Long systemId) {
+        if (isNull(systemId)) {
+            invalidateAll();
+            return;
+        }
+
+        versions.merge(systemId, 1L, Long::sum);
+        cache.asMap().keySet().removeIf(key -> key.systemId() == systemId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
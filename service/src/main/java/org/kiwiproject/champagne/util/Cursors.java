@@ -0,0 +1,65 @@
+package org.kiwiproject.champagne.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import lombok.experimental.UtilityClass;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset (seek) paging. A cursor is the position of the last row of a
+ * page, as its timestamp and id, so the next page can continue strictly after it regardless of how deep it is.
+ */
+@UtilityClass
+public class Cursors {
+
+    /**
+     * The largest page size the cursor endpoints accept
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SEPARATOR = "|";
+
+    public record Cursor(Instant timestamp, long id) {
+    }
+
+    public static String encode(Instant timestamp, long id) {
+        var value = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+    }
+
+    /**
+     * Decodes the given cursor, returning null for a blank cursor which means start at the first page.
+     *
+     * @throws JaxrsBadRequestException if the cursor is not one produced by {@link #encode(Instant, long)}
+     */
+    public static Cursor decodeOrNull(String cursor) {
+        if (isBlank(cursor)) {
+            return null;
+        }
+
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+            var separatorIndex = value.lastIndexOf(SEPARATOR);
+
+            return new Cursor(Instant.parse(value.substring(0, separatorIndex)), Long.parseLong(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new JaxrsBadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Checks that the requested page size is between 1 and {@link #MAX_PAGE_SIZE}.
+     *
+     * @throws JaxrsBadRequestException if it is not
+     */
+    public static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new JaxrsBadRequestException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -45,6 +45,9 @@ class AppTest {
                 "database",
                 "deadlocks",
                 "Job: Clean Out Audits",
+                "Job: Create Audit Partitions",
+                "Job: Refresh Deployment Metrics",
+                "Job: Roll Up Build Counts",
                 "Unknown JSON Properties"
         );
     }
@@ -1,10 +1,16 @@
 package org.kiwiproject.champagne.dao;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertAuditRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.stream.LongStream;
 
 import org.jdbi.v3.core.Handle;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +20,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.kiwiproject.champagne.dao.mappers.AuditRecordMapper;
 import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecordFilter;
+import org.kiwiproject.champagne.util.Cursors.Cursor;
 import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
 import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
 
@@ -70,6 +78,39 @@ class AuditRecordDaoTest {
         }
     }
 
+    @Nested
+    class InsertAuditRecords {
+
+        @Test
+        void shouldInsertAllAuditRecordsInBatch() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+
+            var auditRecords = LongStream.rangeClosed(1, 3)
+                    .mapToObj(recordId -> AuditRecord.builder()
+                            .action(AuditRecord.Action.UPDATED)
+                            .userSystemIdentifier("jdoe")
+                            .recordType("TaskStatus")
+                            .recordId(recordId)
+                            .deployableSystemId(systemId)
+                            .build())
+                    .toList();
+
+            dao.insertAuditRecords(auditRecords);
+
+            var audits = handle.select("select * from audit_records order by record_id")
+                    .map(new AuditRecordMapper())
+                    .list();
+
+            assertThat(audits)
+                    .extracting("recordId", "recordType", "action")
+                    .containsExactly(
+                            tuple(1L, "TaskStatus", AuditRecord.Action.UPDATED),
+                            tuple(2L, "TaskStatus", AuditRecord.Action.UPDATED),
+                            tuple(3L, "TaskStatus", AuditRecord.Action.UPDATED)
+                    );
+        }
+    }
+
     @Nested
     class FindPagedAuditRecordsForSystem {
 
@@ -150,17 +191,266 @@ class AuditRecordDaoTest {
     }
 
     @Nested
-    class DeleteAuditRecordsOlderThan {
+    class FindAuditRecordsAfterCursor {
+
+        @Test
+        void shouldPageThroughAuditRecordsOfTheSystemNewestFirst() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var otherSystemId = insertDeployableSystem(handle, "other");
+            var timestamp = LocalDateTime.of(2023, 5, 1, 12, 0);
+            var firstId = insertAuditRecordAt(systemId, timestamp.minusDays(1));
+            var secondId = insertAuditRecordAt(systemId, timestamp);
+            var thirdId = insertAuditRecordAt(systemId, timestamp);
+            insertAuditRecordAt(otherSystemId, timestamp);
+
+            var filter = AuditRecordFilter.builder().deployableSystemId(systemId).build();
+
+            var firstPage = dao.findAuditRecordsAfterCursor(filter, null, 2);
+            assertThat(firstPage).extracting("id").containsExactly(thirdId, secondId);
+
+            var last = firstPage.get(1);
+            var secondPage = dao.findAuditRecordsAfterCursor(filter, new Cursor(last.getTimestamp(), last.getId()), 2);
+            assertThat(secondPage).extracting("id").containsExactly(firstId);
+        }
+
+        @Test
+        void shouldPageThroughAuditRecordsOfAllSystems_WhenNoFiltersAreSet() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var otherSystemId = insertDeployableSystem(handle, "other");
+            var timestamp = LocalDateTime.of(2023, 5, 1, 12, 0);
+            var firstId = insertAuditRecordAt(systemId, timestamp.minusDays(1));
+            var secondId = insertAuditRecordAt(otherSystemId, timestamp);
+
+            var filter = AuditRecordFilter.builder().build();
+
+            var firstPage = dao.findAuditRecordsAfterCursor(filter, null, 1);
+            assertThat(firstPage).extracting("id").containsExactly(secondId);
+
+            var last = firstPage.get(0);
+            var secondPage = dao.findAuditRecordsAfterCursor(filter, new Cursor(last.getTimestamp(), last.getId()), 1);
+            assertThat(secondPage).extracting("id").containsExactly(firstId);
+        }
+
+        @Test
+        void shouldOnlyReturnAuditRecordsMatchingEveryFilter() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var timestamp = LocalDateTime.of(2023, 5, 1, 12, 0);
+            var matchingId = insertAuditRecordAt(systemId, timestamp, "jdoe", "UPDATED", "Host", 1234L);
+            insertAuditRecordAt(systemId, timestamp, "jdoe", "UPDATED", "Host", 42L);
+            insertAuditRecordAt(systemId, timestamp, "jdoe", "UPDATED", "Tag", 1234L);
+            insertAuditRecordAt(systemId, timestamp, "bob", "UPDATED", "Host", 1234L);
+            insertAuditRecordAt(systemId, timestamp, "jdoe", "DELETED", "Host", 1234L);
+            insertAuditRecordAt(systemId, timestamp.minusDays(2), "jdoe", "UPDATED", "Host", 1234L);
+
+            var filter = AuditRecordFilter.builder()
+                    .deployableSystemId(systemId)
+                    .recordType("Host")
+                    .recordId(1234L)
+                    .userSystemIdentifier("jdoe")
+                    .action(AuditRecord.Action.UPDATED)
+                    .from(timestamp.minusDays(1).atZone(ZoneId.systemDefault()).toInstant())
+                    .to(timestamp.plusDays(1).atZone(ZoneId.systemDefault()).toInstant())
+                    .build();
+
+            assertThat(dao.findAuditRecordsAfterCursor(filter, null, 10)).extracting("id").containsExactly(matchingId);
+            assertThat(dao.countAuditRecords(filter)).isOne();
+        }
+
+        @Test
+        void shouldExcludeTheEndOfTheTimeRange() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var timestamp = LocalDateTime.of(2023, 5, 1, 12, 0);
+            var startId = insertAuditRecordAt(systemId, timestamp);
+            insertAuditRecordAt(systemId, timestamp.plusHours(1));
+
+            var filter = AuditRecordFilter.builder()
+                    .from(timestamp.atZone(ZoneId.systemDefault()).toInstant())
+                    .to(timestamp.plusHours(1).atZone(ZoneId.systemDefault()).toInstant())
+                    .build();
+
+            assertThat(dao.findAuditRecordsAfterCursor(filter, null, 10)).extracting("id").containsExactly(startId);
+        }
+    }
+
+    @Nested
+    class CountAuditRecordsWithFilter {
+
+        @Test
+        void shouldCountAllAuditRecords_WhenNoFiltersAreSet() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertAuditRecord(handle, systemId);
+            insertAuditRecord(handle, systemId);
+
+            assertThat(dao.countAuditRecords(AuditRecordFilter.builder().build())).isEqualTo(2);
+        }
+
+        @Test
+        void shouldCountAuditRecordsOfTheUser() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var timestamp = LocalDateTime.of(2023, 5, 1, 12, 0);
+            insertAuditRecordAt(systemId, timestamp, "jdoe", "CREATED", "Host", 1L);
+            insertAuditRecordAt(systemId, timestamp, "bob", "CREATED", "Host", 1L);
+
+            var filter = AuditRecordFilter.builder().userSystemIdentifier("bob").build();
+
+            assertThat(dao.countAuditRecords(filter)).isOne();
+        }
+    }
+
+    @Nested
+    class ForEachAuditRecord {
+
+        @Test
+        void shouldPassEveryMatchingAuditRecordOldestFirst() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var otherSystemId = insertDeployableSystem(handle, "other");
+            var timestamp = LocalDateTime.of(2023, 5, 1, 12, 0);
+            var secondId = insertAuditRecordAt(systemId, timestamp);
+            var firstId = insertAuditRecordAt(systemId, timestamp.minusDays(1));
+            insertAuditRecordAt(otherSystemId, timestamp);
+
+            var audits = new ArrayList<AuditRecord>();
+            dao.forEachAuditRecord(AuditRecordFilter.builder().deployableSystemId(systemId).build(), audits::add);
+
+            assertThat(audits).extracting("id").containsExactly(firstId, secondId);
+        }
+    }
+
+    @Nested
+    class CreateMonthlyPartition {
+
+        @Test
+        void shouldCreatePartitionForTheMonthOfTheGivenDate() {
+            var partitionName = dao.createMonthlyPartition(LocalDate.of(2099, 7, 15));
+
+            assertThat(partitionName).isEqualTo("audit_records_2099_07");
+            assertThat(dao.findMonthlyPartitionNames()).contains("audit_records_2099_07");
+
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertAuditRecordAt(systemId, LocalDateTime.of(2099, 7, 31, 23, 59));
+
+            assertThat(countAuditRecordsIn("audit_records_2099_07")).isOne();
+        }
+
+        @Test
+        void shouldIgnoreExistingPartition() {
+            dao.createMonthlyPartition(LocalDate.of(2099, 7, 1));
+
+            assertThat(dao.createMonthlyPartition(LocalDate.of(2099, 7, 1))).isEqualTo("audit_records_2099_07");
+        }
+    }
+
+    @Nested
+    class FindMonthlyPartitionNames {
+
+        @Test
+        void shouldReturnMonthlyPartitionsOldestFirstWithoutTheDefaultPartition() {
+            dao.createMonthlyPartition(LocalDate.of(2099, 8, 1));
+            dao.createMonthlyPartition(LocalDate.of(2099, 7, 1));
+
+            var partitionNames = dao.findMonthlyPartitionNames();
+
+            assertThat(partitionNames)
+                    .doesNotContain("audit_records_default")
+                    .containsSubsequence("audit_records_2099_07", "audit_records_2099_08")
+                    .isSorted();
+        }
+    }
+
+    @Nested
+    class DropPartition {
+
+        @Test
+        void shouldDropPartitionWithItsRecords() {
+            dao.createMonthlyPartition(LocalDate.of(2099, 7, 1));
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertAuditRecordAt(systemId, LocalDateTime.of(2099, 7, 1, 0, 0));
+
+            dao.dropPartition("audit_records_2099_07");
+
+            assertThat(dao.findMonthlyPartitionNames()).doesNotContain("audit_records_2099_07");
+            assertThat(dao.countAuditRecords()).isZero();
+        }
+    }
+
+    @Nested
+    class DeleteAuditRecordChunkOlderThan {
+
+        @Test
+        void shouldDeleteTheOldestExpiredRecordsUpToTheChunkSize() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertAuditRecordAt(systemId, LocalDateTime.of(1990, 1, 1, 0, 0));
+            insertAuditRecordAt(systemId, LocalDateTime.of(1990, 1, 2, 0, 0));
+            insertAuditRecordAt(systemId, LocalDateTime.of(1990, 1, 3, 0, 0));
+            insertAuditRecord(handle, systemId);
+
+            var maxRetainDate = Instant.now().minusSeconds(60);
+
+            assertThat(dao.deleteAuditRecordChunkOlderThan(maxRetainDate, 2)).isEqualTo(2);
+            assertThat(dao.findOldestAuditTimestamp()).isEqualTo(LocalDateTime.of(1990, 1, 3, 0, 0).atZone(ZoneId.systemDefault()).toInstant());
+
+            assertThat(dao.deleteAuditRecordChunkOlderThan(maxRetainDate, 2)).isOne();
+            assertThat(dao.countAuditRecords()).isOne();
+        }
+    }
+
+    @Nested
+    class DeleteDefaultPartitionAuditRecordChunkOlderThan {
 
         @Test
-        void shouldDeleteFoundRecords() {
+        void shouldDeleteOldRecordsOutsideTheMonthlyPartitions() {
             var systemId = insertDeployableSystem(handle, "kiwi");
+            insertAuditRecordAt(systemId, LocalDateTime.of(1990, 1, 1, 0, 0));
+            insertAuditRecordAt(systemId, LocalDateTime.of(1990, 1, 2, 0, 0));
             insertAuditRecord(handle, systemId);
 
-            var deleteDate = Instant.now().plusSeconds(60);
+            assertThat(countAuditRecordsIn("audit_records_default")).isEqualTo(2);
+
+            var deletedCount = dao.deleteDefaultPartitionAuditRecordChunkOlderThan(Instant.now().minusSeconds(60), 1);
 
-            var deletedCount = dao.deleteAuditRecordsOlderThan(deleteDate);
             assertThat(deletedCount).isOne();
+            assertThat(countAuditRecordsIn("audit_records_default")).isOne();
+            assertThat(dao.countAuditRecords()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class FindOldestAuditTimestamp {
+
+        @Test
+        void shouldReturnNullWhenThereAreNoAuditRecords() {
+            assertThat(dao.findOldestAuditTimestamp()).isNull();
+        }
+
+        @Test
+        void shouldReturnTheTimestampOfTheOldestAuditRecord() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertAuditRecord(handle, systemId);
+            insertAuditRecordAt(systemId, LocalDateTime.of(1990, 1, 1, 0, 0));
+
+            assertThat(dao.findOldestAuditTimestamp()).isEqualTo(LocalDateTime.of(1990, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant());
         }
     }
+
+    private long insertAuditRecordAt(long systemId, LocalDateTime auditTimestamp) {
+        return insertAuditRecordAt(systemId, auditTimestamp, "jdoe", "UPDATED", "Task", 1L);
+    }
+
+    private long insertAuditRecordAt(long systemId, LocalDateTime auditTimestamp, String user, String action, String recordType, long recordId) {
+        return handle.createUpdate("insert into audit_records (audit_timestamp, user_system_identifier, action, record_type, record_id, deployable_system_id)"
+                        + " values (:auditTimestamp, :user, :action, :recordType, :recordId, :systemId)")
+                .bind("auditTimestamp", auditTimestamp)
+                .bind("user", user)
+                .bind("action", action)
+                .bind("recordType", recordType)
+                .bind("recordId", recordId)
+                .bind("systemId", systemId)
+                .executeAndReturnGeneratedKeys("id")
+                .mapTo(Long.class)
+                .first();
+    }
+
+    private long countAuditRecordsIn(String partitionName) {
+        return handle.select("select count(*) from " + partitionName).mapTo(Long.class).one();
+    }
 }
@@ -8,9 +8,9 @@ import static org.kiwiproject.collect.KiwiLists.first;
 import static org.kiwiproject.test.constants.KiwiTestConstants.JSON_HELPER;
 import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
 
-import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Map;
 
 import org.jdbi.v3.core.Handle;
@@ -27,6 +27,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.kiwiproject.champagne.dao.mappers.BuildMapper;
 import org.kiwiproject.champagne.model.Build;
 import org.kiwiproject.champagne.model.GitProvider;
+import org.kiwiproject.champagne.util.Cursors.Cursor;
 import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
 import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
 import org.kiwiproject.test.junit.jupiter.params.provider.BlankStringSource;
@@ -96,6 +97,48 @@ class BuildDaoTest {
         }
     }
 
+    @Nested
+    class InsertBuilds {
+
+        @Test
+        void shouldInsertAllBuildsAndReturnIdsInOrder() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+
+            var builds = List.of(
+                newBuild("champagne-service", systemId),
+                newBuild("champagne-ui", systemId));
+
+            var ids = dao.insertBuilds(builds, List.of("{\"region\": \"east\"}", "{}"));
+
+            assertThat(ids).hasSize(2);
+
+            var insertedBuilds = handle.select("select * from builds where deployable_system_id = ? order by id", systemId)
+                .map(new BuildMapper(JSON_HELPER))
+                .list();
+
+            assertThat(insertedBuilds)
+                .extracting("id", "componentIdentifier", "extraDeploymentInfo")
+                .containsExactly(
+                    tuple(ids.get(0), "champagne-service", Map.of("region", "east")),
+                    tuple(ids.get(1), "champagne-ui", Map.of()));
+        }
+
+        private Build newBuild(String componentIdentifier, long systemId) {
+            return Build.builder()
+                .repoNamespace("kiwiproject")
+                .repoName(componentIdentifier)
+                .commitRef("abc1234")
+                .commitUser("jdoe")
+                .sourceBranch("main")
+                .componentIdentifier(componentIdentifier)
+                .componentVersion("42.0.0")
+                .distributionLocation("https://some-nexus-server.net/foo")
+                .gitProvider(GitProvider.GITHUB)
+                .deployableSystemId(systemId)
+                .build();
+        }
+    }
+
     @Nested
     class FindPagedBuilds {
 
@@ -121,45 +164,145 @@ class BuildDaoTest {
             var builds = dao.findPagedBuilds(10, 10, systemId, null);
             assertThat(builds).isEmpty();
         }
+
+        @Test
+        void shouldMatchFilterIgnoringCase() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+
+            var builds = dao.findPagedBuilds(0, 10, systemId, "Champagne");
+            assertThat(builds)
+                .extracting("componentIdentifier")
+                .containsExactly("champagne-service");
+        }
+
+        @Test
+        void shouldListExactIdentifierMatchesFirst() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+            insertBuildRecord(handle, "champagne-service-ui", "42.0", systemId);
+            insertBuildRecord(handle, "other-service", "42.0", systemId);
+
+            var builds = dao.findPagedBuilds(0, 10, systemId, "champagne-service");
+            assertThat(builds)
+                .extracting("componentIdentifier")
+                .containsExactly("champagne-service", "champagne-service-ui");
+        }
     }
 
     @Nested
-    class CountBuilds {
+    class FindBuildsAfterCursor {
 
         @ParameterizedTest
         @NullSource
         @BlankStringSource
         @ValueSource(strings = { "42.0", "champagne-service" })
-        void shouldReturnCountOfBuilds(String componentFilter) {
+        void shouldReturnFirstBuildsWhenNoCursor(String componentFilter) {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var firstId = insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+            var secondId = insertBuildRecord(handle, "champagne-service", "42.0.1", systemId);
+
+            var builds = dao.findBuildsAfterCursor(null, 10, systemId, componentFilter);
+            assertThat(builds).extracting("id").containsExactly(secondId, firstId);
+        }
+
+        @ParameterizedTest
+        @NullSource
+        @ValueSource(strings = { "42.0", "champagne-service" })
+        void shouldReturnBuildsAfterCursor(String componentFilter) {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var firstId = insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+            var secondId = insertBuildRecord(handle, "champagne-service", "42.0.1", systemId);
+            var thirdId = insertBuildRecord(handle, "champagne-service", "42.0.2", systemId);
+
+            var firstPage = dao.findBuildsAfterCursor(null, 2, systemId, componentFilter);
+            assertThat(firstPage).extracting("id").containsExactly(thirdId, secondId);
+
+            var last = firstPage.get(1);
+            var cursor = new Cursor(last.getCreatedAt(), last.getId());
+
+            var secondPage = dao.findBuildsAfterCursor(cursor, 2, systemId, componentFilter);
+            assertThat(secondPage).extracting("id").containsExactly(firstId);
+        }
+    }
+
+    @Nested
+    class FindPagedBuildsWithTotalCount {
+
+        @ParameterizedTest
+        @NullSource
+        @BlankStringSource
+        @ValueSource(strings = { "42", "champagne" })
+        void shouldReturnBuildsWithTotalCount(String componentFilter) {
             var systemId = insertDeployableSystem(handle, "kiwi");
             insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+            insertBuildRecord(handle, "champagne-service", "42.1", systemId);
+            insertBuildRecord(handle, "champagne-service", "42.2", systemId);
 
-            var builds = dao.countBuilds(systemId, componentFilter);
-            assertThat(builds).isOne();
+            var builds = dao.findPagedBuildsWithTotalCount(0, 2, systemId, componentFilter);
+            assertThat(builds)
+                .extracting(counted -> counted.getValue().getComponentVersion(), Counted::getTotalCount)
+                .containsExactly(tuple("42.2", 3L), tuple("42.1", 3L));
         }
 
         @Test
-        void shouldReturnEmptyListWhenNoBuildsFound() {
-            var builds = dao.countBuilds(1L, null);
-            assertThat(builds).isZero();
+        void shouldReturnEmptyListWhenPastTheEnd() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+
+            var builds = dao.findPagedBuildsWithTotalCount(10, 10, systemId, null);
+            assertThat(builds).isEmpty();
         }
     }
 
     @Nested
-    class CountBuildsInSystemInRange {
+    class FindPagedBuildsWithTotalCountWithExtraInfoFilter {
 
         @Test
-        void shouldReturnCountOfBuildsInRange() {
+        void shouldReturnBuildsContainingExtraInfo() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var eastId = insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+            insertBuildRecord(handle, "champagne-service", "42.1", systemId);
+            handle.execute("update builds set extra_deployment_info = cast(? as jsonb) where id = ?", "{\"region\": \"east\", \"zone\": \"a\"}", eastId);
+
+            var builds = dao.findPagedBuildsWithTotalCountWithExtraInfoFilter(0, 10, systemId, "{\"region\": \"east\"}");
+            assertThat(builds)
+                .extracting(counted -> counted.getValue().getId(), Counted::getTotalCount)
+                .containsExactly(tuple(eastId, 1L));
+
+            assertThat(first(builds).getValue().getExtraDeploymentInfo()).isEqualTo(Map.of("region", "east", "zone", "a"));
+            assertThat(dao.countBuildsWithExtraInfoFilter(systemId, "{\"region\": \"east\"}")).isOne();
+        }
+
+        @Test
+        void shouldReturnEmptyListWhenNoBuildsMatch() {
             var systemId = insertDeployableSystem(handle, "kiwi");
             insertBuildRecord(handle, "champagne-service", "42.0", systemId);
 
-            var builds = dao.countBuildsInSystemInRange(systemId, Instant.now().minusSeconds(60), Instant.now());
+            var builds = dao.findPagedBuildsWithTotalCountWithExtraInfoFilter(0, 10, systemId, "{\"region\": \"west\"}");
+            assertThat(builds).isEmpty();
+            assertThat(dao.countBuildsWithExtraInfoFilter(systemId, "{\"region\": \"west\"}")).isZero();
+        }
+    }
+
+    @Nested
+    class CountBuilds {
+
+        @ParameterizedTest
+        @NullSource
+        @BlankStringSource
+        @ValueSource(strings = { "42.0", "42", "champagne-service", "champagne" })
+        void shouldReturnCountOfBuilds(String componentFilter) {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+
+            var builds = dao.countBuilds(systemId, componentFilter);
             assertThat(builds).isOne();
         }
 
         @Test
         void shouldReturnEmptyListWhenNoBuildsFound() {
-            var builds = dao.countBuildsInSystemInRange(1L, Instant.now(), Instant.now());
+            var builds = dao.countBuilds(1L, null);
             assertThat(builds).isZero();
         }
     }
@@ -0,0 +1,147 @@
+package org.kiwiproject.champagne.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kiwiproject.champagne.util.TestObjects.insertBuildRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import org.jdbi.v3.core.Handle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
+import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
+
+@DisplayName("BuildMetricsDao")
+class BuildMetricsDaoTest {
+
+    @RegisterExtension
+    static final PostgresLiquibaseTestExtension POSTGRES = new PostgresLiquibaseTestExtension("migrations.xml");
+
+    @RegisterExtension
+    final Jdbi3DaoExtension<BuildMetricsDao> daoExtension = Jdbi3DaoExtension.<BuildMetricsDao>builder()
+            .daoType(BuildMetricsDao.class)
+            .dataSource(POSTGRES.getTestDataSource())
+            .build();
+
+    private BuildMetricsDao dao;
+    private Handle handle;
+
+    @BeforeEach
+    void setUp() {
+        dao = daoExtension.getDao();
+        handle = daoExtension.getHandle();
+    }
+
+    @Nested
+    class RollUpBuildCountsSince {
+
+        @Test
+        void shouldCountBuildsPerDayAndComponent() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+            insertBuildRecord(handle, "champagne-service", "42.1", systemId);
+            var uiBuildId = insertBuildRecord(handle, "champagne-ui", "1.0", systemId);
+            handle.execute("update builds set created_at = created_at - interval '3 days' where id = ?", uiBuildId);
+
+            var today = today();
+            dao.rollUpBuildCountsSince(today.minusDays(7));
+
+            assertThat(dao.countBuildsInSystemInRange(systemId, today, today)).isEqualTo(2L);
+            assertThat(dao.countBuildsInSystemInRange(systemId, today.minusDays(7), today)).isEqualTo(3L);
+            assertThat(dao.countBuildsByComponentInRange(systemId, today.minusDays(7), today))
+                    .isEqualTo(Map.of("champagne-service", 2L, "champagne-ui", 1L));
+        }
+
+        @Test
+        void shouldReplaceCountsOfRecountedDaysAndKeepOlderDays() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var today = today();
+            handle.execute("insert into build_daily_counts (deployable_system_id, build_date, component_identifier, build_count) values (?, ?, ?, ?)",
+                    systemId, today, "champagne-service", 10L);
+            handle.execute("insert into build_daily_counts (deployable_system_id, build_date, component_identifier, build_count) values (?, ?, ?, ?)",
+                    systemId, today.minusDays(30), "champagne-service", 5L);
+
+            insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+
+            dao.rollUpBuildCountsSince(today.minusDays(1));
+
+            assertThat(dao.countBuildsInSystemInRange(systemId, today, today)).isOne();
+            assertThat(dao.countBuildsInSystemInRange(systemId, today.minusDays(30), today.minusDays(30))).isEqualTo(5L);
+        }
+    }
+
+    @Nested
+    class RollUpBuildCountsSinceInOtherSessionTimeZone {
+
+        @Test
+        void shouldCountBuildsOnTheirUtcDate() {
+            handle.execute("set time zone 'Pacific/Kiritimati'");
+
+            try {
+                var systemId = insertDeployableSystem(handle, "kiwi");
+                var buildId = insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+                handle.execute("update builds set created_at = timestamp '2023-05-01 12:00:00' where id = ?", buildId);
+
+                dao.rollUpBuildCountsSince(LocalDate.of(2023, 4, 30));
+
+                // 12:00 at UTC+14 is 22:00 UTC on the previous day
+                assertThat(dao.countBuildsInSystemInRange(systemId, LocalDate.of(2023, 4, 30), LocalDate.of(2023, 4, 30))).isOne();
+                assertThat(dao.countBuildsInSystemInRange(systemId, LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 1))).isZero();
+            } finally {
+                handle.execute("reset time zone");
+            }
+        }
+    }
+
+    @Nested
+    class FindLastBuildDate {
+
+        @Test
+        void shouldReturnLatestRolledUpDate() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var today = today();
+            handle.execute("insert into build_daily_counts (deployable_system_id, build_date, component_identifier, build_count) values (?, ?, ?, ?)",
+                    systemId, today.minusDays(3), "champagne-service", 1L);
+            handle.execute("insert into build_daily_counts (deployable_system_id, build_date, component_identifier, build_count) values (?, ?, ?, ?)",
+                    systemId, today.minusDays(10), "champagne-ui", 1L);
+
+            assertThat(dao.findLastBuildDate()).contains(today.minusDays(3));
+        }
+
+        @Test
+        void shouldReturnEmptyWhenNothingRolledUp() {
+            assertThat(dao.findLastBuildDate()).isEmpty();
+        }
+    }
+
+    @Nested
+    class CountBuildsInSystemInRange {
+
+        @Test
+        void shouldReturnZeroWhenNoCounts() {
+            assertThat(dao.countBuildsInSystemInRange(1L, today().minusDays(30), today())).isZero();
+        }
+    }
+
+    @Nested
+    class CountBuildsByComponentInRange {
+
+        @Test
+        void shouldReturnEmptyMapWhenNoCounts() {
+            assertThat(dao.countBuildsByComponentInRange(1L, today().minusDays(30), today())).isEmpty();
+        }
+    }
+
+    /**
+     * The UTC date, which is what the rollup uses for the build dates.
+     */
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -4,13 +4,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertComponentRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertHostRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertTagRecord;
 import static org.kiwiproject.collect.KiwiLists.first;
 import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.util.List;
 
 import org.jdbi.v3.core.Handle;
 import org.junit.jupiter.api.BeforeEach;
@@ -81,28 +82,37 @@ class ComponentDaoTest {
     }
 
     @Nested
-    class FindComponentsByHostTags {
+    class FindComponentsForHost {
 
         @Test
-        void shouldReturnListOfComponents() {
+        void shouldReturnComponentsLinkedByTheTagsOfTheHost() {
             var systemId = insertDeployableSystem(handle, "my-system");
-            var tagId = insertTagRecord(handle, "core", systemId);
-            var id = insertComponentRecord(handle, "foo-service", tagId, systemId);
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var hostId = insertHostRecord(handle, "localhost", envId, systemId);
+            var coreTagId = insertTagRecord(handle, "core", systemId);
+            var otherTagId = insertTagRecord(handle, "other", systemId);
+            var id = insertComponentRecord(handle, "foo-service", coreTagId, systemId);
+            insertComponentRecord(handle, "bar-service", otherTagId, systemId);
+
+            handle.execute("insert into host_tags (host_id, tag_id) values (?, ?)", hostId, coreTagId);
+
+            var components = dao.findComponentsForHost(hostId);
 
-            var components = dao.findComponentsByHostTags(List.of(tagId));
             assertThat(components)
                     .extracting("id", "componentName", "tagId")
-                    .contains(tuple(id, "foo-service", tagId));
+                    .containsExactly(tuple(id, "foo-service", coreTagId));
+            assertThat(components.get(0).getTag().getName()).isEqualTo("core");
         }
 
         @Test
-        void shouldReturnEmptyListWhenNoComponentsFound() {
+        void shouldReturnEmptyListWhenHostHasNoTags() {
             var systemId = insertDeployableSystem(handle, "my-system");
-            var tagId = insertTagRecord(handle, "audit", systemId);
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var hostId = insertHostRecord(handle, "localhost", envId, systemId);
+            var tagId = insertTagRecord(handle, "core", systemId);
             insertComponentRecord(handle, "foo-service", tagId, systemId);
 
-            var hosts = dao.findComponentsByHostTags(List.of(10_000L));
-            assertThat(hosts).isEmpty();
+            assertThat(dao.findComponentsForHost(hostId)).isEmpty();
         }
     }
 
@@ -121,6 +131,23 @@ class ComponentDaoTest {
                     .contains(tuple(id, "foo-service", tagId));
         }
 
+        @Test
+        void shouldJoinTheTagOfEachComponent() {
+            var systemId = insertDeployableSystem(handle, "my-system");
+            var tagId = insertTagRecord(handle, "core", systemId);
+            insertComponentRecord(handle, "foo-service", tagId, systemId);
+            insertComponentRecord(handle, "untagged-service", null, systemId);
+
+            var components = dao.findComponentsForSystem(systemId);
+
+            assertThat(components).extracting("componentName").containsExactly("foo-service", "untagged-service");
+            assertThat(components.get(0).getTag())
+                    .extracting("id", "name", "deployableSystemId")
+                    .containsExactly(tagId, "core", systemId);
+            assertThat(components.get(1).getTagId()).isNull();
+            assertThat(components.get(1).getTag()).isNull();
+        }
+
         @Test
         void shouldReturnEmptyListWhenNoComponentsFound() {
             var systemId = insertDeployableSystem(handle, "my-system");
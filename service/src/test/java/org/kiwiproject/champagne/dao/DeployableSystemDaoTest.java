@@ -195,69 +195,82 @@ class DeployableSystemDaoTest {
     }
 
     @Nested
-    class IsUserAdminOfSystem {
+    class FindUsersForSystem {
 
         @Test
-        void shouldReturnTrueWhenUserIsAnAdminForSystem() {
+        void shouldReturnListOfUsersForASystem() {
             var userId = insertUserRecord(handle, "jdoe");
             var deployableSystemId = insertDeployableSystem(handle, "system1");
             insertUserToDeployableSystemLink(handle, userId, deployableSystemId, true);
 
-            var result = dao.isUserAdminOfSystem(userId, deployableSystemId);
+            var users = dao.findUsersForSystem(deployableSystemId);
 
-            assertThat(result).isTrue();
+            assertThat(users).extracting("userId", "admin").contains(tuple(userId, true));
         }
+    }
+
+    @Nested
+    class IsUserInSystem {
 
         @Test
-        void shouldReturnFalseWhenUserIsNotAnAdminForSystem() {
+        void shouldReturnTrueWhenUserIsAssignedToSystem() {
             var userId = insertUserRecord(handle, "jdoe");
             var deployableSystemId = insertDeployableSystem(handle, "system1");
-            insertUserToDeployableSystemLink(handle, userId, deployableSystemId, false);
+            insertUserToDeployableSystemLink(handle, userId, deployableSystemId, true);
 
-            var result = dao.isUserAdminOfSystem(userId, deployableSystemId);
+            var result = dao.isUserInSystem(userId, deployableSystemId);
 
-            assertThat(result).isFalse();
+            assertThat(result).isTrue();
         }
-    }
-
-    @Nested
-    class FindUsersForSystem {
 
         @Test
-        void shouldReturnListOfUsersForASystem() {
+        void shouldReturnNullWhenUserIsNotAssignedToSystem() {
             var userId = insertUserRecord(handle, "jdoe");
             var deployableSystemId = insertDeployableSystem(handle, "system1");
             insertUserToDeployableSystemLink(handle, userId, deployableSystemId, true);
 
-            var users = dao.findUsersForSystem(deployableSystemId);
+            var result = dao.isUserInSystem(userId+1, deployableSystemId);
 
-            assertThat(users).extracting("userId", "admin").contains(tuple(userId, true));
+            assertThat(result).isNull();
         }
     }
 
     @Nested
-    class IsUserInSystem {
+    class FindAccessBySystemIdentifier {
 
         @Test
-        void shouldReturnTrueWhenUserIsAssignedToSystem() {
+        void shouldReturnMembershipAndAdminFlagForUserInSystem() {
             var userId = insertUserRecord(handle, "jdoe");
             var deployableSystemId = insertDeployableSystem(handle, "system1");
             insertUserToDeployableSystemLink(handle, userId, deployableSystemId, true);
 
-            var result = dao.isUserInSystem(userId, deployableSystemId);
+            var access = dao.findAccessBySystemIdentifier("jdoe", deployableSystemId).orElseThrow();
 
-            assertThat(result).isTrue();
+            assertThat(access.getUserId()).isEqualTo(userId);
+            assertThat(access.getSystemId()).isEqualTo(deployableSystemId);
+            assertThat(access.isMember()).isTrue();
+            assertThat(access.isAdmin()).isTrue();
         }
 
         @Test
-        void shouldReturnNullWhenUserIsNotAssignedToSystem() {
+        void shouldReturnNonMemberWhenUserIsNotAssignedToSystem() {
             var userId = insertUserRecord(handle, "jdoe");
             var deployableSystemId = insertDeployableSystem(handle, "system1");
-            insertUserToDeployableSystemLink(handle, userId, deployableSystemId, true);
+            var otherSystemId = insertDeployableSystem(handle, "system2");
+            insertUserToDeployableSystemLink(handle, userId, otherSystemId, true);
 
-            var result = dao.isUserInSystem(userId+1, deployableSystemId);
+            var access = dao.findAccessBySystemIdentifier("jdoe", deployableSystemId).orElseThrow();
 
-            assertThat(result).isNull();
+            assertThat(access.getUserId()).isEqualTo(userId);
+            assertThat(access.isMember()).isFalse();
+            assertThat(access.isAdmin()).isFalse();
+        }
+
+        @Test
+        void shouldReturnEmptyWhenUserDoesNotExist() {
+            var deployableSystemId = insertDeployableSystem(handle, "system1");
+
+            assertThat(dao.findAccessBySystemIdentifier("jdoe", deployableSystemId)).isEmpty();
         }
     }
 
@@ -0,0 +1,145 @@
+package org.kiwiproject.champagne.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kiwiproject.champagne.util.TestObjects.insertBuildRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeployment;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentExecution;
+import static org.kiwiproject.collect.KiwiLists.first;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import org.jdbi.v3.core.Handle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.kiwiproject.champagne.model.Deployment;
+import org.kiwiproject.champagne.model.DeploymentExecution;
+import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
+import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
+
+@DisplayName("DeploymentMetricsDao")
+class DeploymentMetricsDaoTest {
+
+    @RegisterExtension
+    static final PostgresLiquibaseTestExtension POSTGRES = new PostgresLiquibaseTestExtension("migrations.xml");
+
+    @RegisterExtension
+    final Jdbi3DaoExtension<DeploymentMetricsDao> daoExtension = Jdbi3DaoExtension.<DeploymentMetricsDao>builder()
+            .daoType(DeploymentMetricsDao.class)
+            .dataSource(POSTGRES.getTestDataSource())
+            .build();
+
+    private DeploymentMetricsDao dao;
+    private Handle handle;
+
+    @BeforeEach
+    void setUp() {
+        dao = daoExtension.getDao();
+        handle = daoExtension.getHandle();
+    }
+
+    @Nested
+    class FindDeploymentMetrics {
+
+        @Test
+        void shouldReturnMetricsPerEnvironmentAfterRefresh() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "TEST", systemId);
+            var buildId = insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+
+            var executionId = insertDeploymentExecution(handle, systemId, envId, DeploymentExecution.Status.COMPLETE);
+            handle.execute("update deployment_executions set updated_at = created_at + interval '2 minutes' where id = ?", executionId);
+
+            var deployedId = insertDeployment(handle, systemId, envId, executionId, buildId, Deployment.Status.COMPLETE);
+            handle.execute("update deployments set deployed_at = (select created_at from builds where id = ?) + interval '1 hour' where id = ?", buildId, deployedId);
+            insertDeployment(handle, systemId, envId, executionId, buildId, Deployment.Status.FAILED);
+            insertDeployment(handle, systemId, envId, executionId, buildId, Deployment.Status.STAGED);
+
+            var today = today();
+            assertThat(dao.findDeploymentMetrics(systemId, today.minusDays(9), today, 10)).isEmpty();
+
+            dao.refreshDeploymentDailyStats();
+            dao.refreshDeploymentExecutionDailyStats();
+
+            var metrics = dao.findDeploymentMetrics(systemId, today.minusDays(9), today, 10);
+            assertThat(metrics).hasSize(1);
+
+            var envMetrics = first(metrics);
+            assertThat(envMetrics.getEnvironmentId()).isEqualTo(envId);
+            assertThat(envMetrics.getDeploymentCount()).isOne();
+            assertThat(envMetrics.getDeploymentsPerDay()).isEqualTo(0.1);
+            assertThat(envMetrics.getFailedDeploymentCount()).isOne();
+            assertThat(envMetrics.getChangeFailureRate()).isEqualTo(0.5);
+            assertThat(envMetrics.getAverageLeadTimeSeconds()).isEqualTo(3600.0);
+            assertThat(envMetrics.getExecutionCount()).isOne();
+            assertThat(envMetrics.getFailedExecutionCount()).isZero();
+            assertThat(envMetrics.getAverageExecutionSeconds()).isEqualTo(120.0);
+        }
+
+        @Test
+        void shouldReturnEnvironmentsWithOnlyRunningExecutions() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "TEST", systemId);
+            insertDeploymentExecution(handle, systemId, envId, DeploymentExecution.Status.RUNNING);
+
+            dao.refreshDeploymentDailyStats();
+            dao.refreshDeploymentExecutionDailyStats();
+
+            var today = today();
+            var envMetrics = first(dao.findDeploymentMetrics(systemId, today, today, 1));
+
+            assertThat(envMetrics.getEnvironmentId()).isEqualTo(envId);
+            assertThat(envMetrics.getDeploymentCount()).isZero();
+            assertThat(envMetrics.getChangeFailureRate()).isNull();
+            assertThat(envMetrics.getAverageLeadTimeSeconds()).isNull();
+            assertThat(envMetrics.getExecutionCount()).isOne();
+            assertThat(envMetrics.getAverageExecutionSeconds()).isNull();
+        }
+    }
+
+    @Nested
+    class FindDeploymentMetricsInOtherSessionTimeZone {
+
+        @Test
+        void shouldCountDeploymentsOnTheirUtcDate() {
+            handle.execute("set time zone 'Pacific/Kiritimati'");
+
+            try {
+                var systemId = insertDeployableSystem(handle, "kiwi");
+                var envId = insertDeploymentEnvironmentRecord(handle, "TEST", systemId);
+                var buildId = insertBuildRecord(handle, "champagne-service", "42.0", systemId);
+                var executionId = insertDeploymentExecution(handle, systemId, envId, DeploymentExecution.Status.COMPLETE);
+                var deployedId = insertDeployment(handle, systemId, envId, executionId, buildId, Deployment.Status.COMPLETE);
+
+                handle.execute("update builds set created_at = timestamp '2023-05-01 12:00:00' where id = ?", buildId);
+                handle.execute("update deployment_executions set created_at = timestamp '2023-05-01 13:59:00',"
+                        + " updated_at = timestamp '2023-05-01 13:59:30' where id = ?", executionId);
+                handle.execute("update deployments set deployed_at = timestamp '2023-05-01 13:59:30' where id = ?", deployedId);
+
+                dao.refreshDeploymentDailyStats();
+                dao.refreshDeploymentExecutionDailyStats();
+
+                // 13:59 at UTC+14 is 23:59 UTC on the previous day
+                var envMetrics = first(dao.findDeploymentMetrics(systemId, LocalDate.of(2023, 4, 30), LocalDate.of(2023, 4, 30), 1));
+                assertThat(envMetrics.getDeploymentCount()).isOne();
+                assertThat(envMetrics.getExecutionCount()).isOne();
+
+                assertThat(dao.findDeploymentMetrics(systemId, LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 1), 1)).isEmpty();
+            } finally {
+                handle.execute("reset time zone");
+            }
+        }
+    }
+
+    /**
+     * The UTC date, which is what the views use for the stat dates.
+     */
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -2,6 +2,7 @@ package org.kiwiproject.champagne.dao;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.kiwiproject.champagne.util.TestObjects.insertComponentRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertHostRecord;
@@ -11,6 +12,7 @@ import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceW
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.postgres.PostgresPlugin;
@@ -105,6 +107,65 @@ class HostDaoTest {
             var hosts = dao.findHostsByEnvId(envId2, systemId);
             assertThat(hosts).isEmpty();
         }
+
+        @Test
+        void shouldReturnEachHostOnceWithAllOfItsTags() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var hostId = insertHostRecord(handle, "host-a", envId, systemId);
+            var untaggedHostId = insertHostRecord(handle, "host-b", envId, systemId);
+            var webTagId = insertTagRecord(handle, "web", systemId);
+            var coreTagId = insertTagRecord(handle, "core", systemId);
+            insertHostTag(hostId, webTagId);
+            insertHostTag(hostId, coreTagId);
+
+            var hosts = dao.findHostsByEnvId(envId, systemId);
+
+            assertThat(hosts).extracting("id").containsExactly(hostId, untaggedHostId);
+            assertThat(hosts.get(0).getTags())
+                    .extracting("id", "name", "deployableSystemId")
+                    .containsExactly(tuple(coreTagId, "core", systemId), tuple(webTagId, "web", systemId));
+            assertThat(hosts.get(1).getTags()).isEmpty();
+        }
+    }
+
+    @Nested
+    class FindHostsByEnvIdMatchingComponent {
+
+        @Test
+        void shouldReturnHostsWithATagOfAMatchingComponentWithAllOfTheirTags() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var webHostId = insertHostRecord(handle, "host-a", envId, systemId);
+            var dbHostId = insertHostRecord(handle, "host-b", envId, systemId);
+            var webTagId = insertTagRecord(handle, "web", systemId);
+            var coreTagId = insertTagRecord(handle, "core", systemId);
+            var dbTagId = insertTagRecord(handle, "db", systemId);
+            insertHostTag(webHostId, webTagId);
+            insertHostTag(webHostId, coreTagId);
+            insertHostTag(dbHostId, dbTagId);
+            insertComponentRecord(handle, "web-service", webTagId, systemId);
+            insertComponentRecord(handle, "web-admin-service", coreTagId, systemId);
+            insertComponentRecord(handle, "postgres", dbTagId, systemId);
+
+            var hosts = dao.findHostsByEnvIdMatchingComponent(envId, systemId, "%web%");
+
+            assertThat(hosts).hasSize(1);
+            assertThat(hosts.get(0).getId()).isEqualTo(webHostId);
+            assertThat(hosts.get(0).getTags()).extracting("name").containsExactly("core", "web");
+        }
+
+        @Test
+        void shouldReturnEmptyListWhenNoComponentsMatch() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var hostId = insertHostRecord(handle, "host-a", envId, systemId);
+            var tagId = insertTagRecord(handle, "web", systemId);
+            insertHostTag(hostId, tagId);
+            insertComponentRecord(handle, "web-service", tagId, systemId);
+
+            assertThat(dao.findHostsByEnvIdMatchingComponent(envId, systemId, "%api%")).isEmpty();
+        }
     }
 
     @Nested
@@ -252,53 +313,114 @@ class HostDaoTest {
 
             assertThat(tag_ids).contains(tagId);
         }
+
+        @Test
+        void shouldKeepUnchangedAssociations() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var hostId = insertHostRecord(handle, "localhost", envId, systemId);
+            var keptTagId = insertTagRecord(handle, "core", systemId);
+            var removedTagId = insertTagRecord(handle, "audit", systemId);
+            var addedTagId = insertTagRecord(handle, "web", systemId);
+            insertHostTag(hostId, keptTagId);
+            insertHostTag(hostId, removedTagId);
+
+            var keptAssociationId = findHostTagId(hostId, keptTagId);
+
+            dao.updateTagList(hostId, List.of(keptTagId, addedTagId));
+
+            assertThat(findTagIdsForHost(hostId)).containsExactlyInAnyOrder(keptTagId, addedTagId);
+            assertThat(findHostTagId(hostId, keptTagId)).isEqualTo(keptAssociationId);
+        }
     }
 
     @Nested
-    class FindTagIdsForHost {
+    class UpdateHostAndTags {
+
         @Test
-        void shouldFindMatchingTagIdsLinkedToAGivenHost() {
+        void shouldUpdateHostnameAndTags() {
             var systemId = insertDeployableSystem(handle, "kiwi");
             var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
             var hostId = insertHostRecord(handle, "localhost", envId, systemId);
+            var oldTagId = insertTagRecord(handle, "core", systemId);
+            var newTagId = insertTagRecord(handle, "web", systemId);
+            insertHostTag(hostId, oldTagId);
+
+            var updateCount = dao.updateHostAndTags(hostId, "new-host", List.of(newTagId));
+
+            assertThat(updateCount).isOne();
+            assertThat(dao.findById(hostId).orElseThrow().getHostname()).isEqualTo("new-host");
+            assertThat(findTagIdsForHost(hostId)).containsExactly(newTagId);
+        }
+
+        @Test
+        void shouldNotTouchTagsWhenHostDoesNotExist() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
             var tagId = insertTagRecord(handle, "core", systemId);
 
-            handle.createUpdate("insert into host_tags "
-                            + "(host_id, tag_id) "
-                            + "values "
-                            + "(:hostId, :tagId)")
-                    .bind("hostId", hostId)
-                    .bind("tagId", tagId)
-                    .execute();
+            var updateCount = dao.updateHostAndTags(0L, "new-host", List.of(tagId));
+
+            assertThat(updateCount).isZero();
+            assertThat(handle.select("select count(*) from host_tags").mapTo(Long.class).one()).isZero();
+        }
+    }
+
+    @Nested
+    class UpdateTagListsInSystem {
+
+        @Test
+        void shouldRetagEachHostOfTheSystem() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
+            var hostId = insertHostRecord(handle, "host-a", envId, systemId);
+            var hostId2 = insertHostRecord(handle, "host-b", envId, systemId);
+            var coreTagId = insertTagRecord(handle, "core", systemId);
+            var webTagId = insertTagRecord(handle, "web", systemId);
+            insertHostTag(hostId, coreTagId);
+            insertHostTag(hostId2, coreTagId);
+
+            var updatedIds = dao.updateTagListsInSystem(Map.of(hostId, List.of(coreTagId, webTagId), hostId2, List.of()), systemId);
+
+            assertThat(updatedIds).containsExactlyInAnyOrder(hostId, hostId2);
+            assertThat(findTagIdsForHost(hostId)).containsExactlyInAnyOrder(coreTagId, webTagId);
+            assertThat(findTagIdsForHost(hostId2)).isEmpty();
+        }
+
+        @Test
+        void shouldSkipHostsOfOtherSystems() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var otherSystemId = insertDeployableSystem(handle, "other");
+            var envId = insertDeploymentEnvironmentRecord(handle, "dev", otherSystemId);
+            var otherHostId = insertHostRecord(handle, "host-a", envId, otherSystemId);
+            var tagId = insertTagRecord(handle, "core", otherSystemId);
 
-            var tagIds = dao.findTagIdsForHost(hostId);
+            var updatedIds = dao.updateTagListsInSystem(Map.of(otherHostId, List.of(tagId)), systemId);
 
-            assertThat(tagIds).contains(tagId);
+            assertThat(updatedIds).isEmpty();
+            assertThat(findTagIdsForHost(otherHostId)).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmptyListWhenNoHostsGiven() {
+            assertThat(dao.updateTagListsInSystem(Map.of(), 1L)).isEmpty();
         }
     }
 
     @Nested
-    class FindHostsForTagsInEnv {
+    class FindHostTags {
         @Test
-        void shouldFindHostsWithGivenTags() {
+        void shouldFindTagsLinkedToTheGivenHosts() {
             var systemId = insertDeployableSystem(handle, "kiwi");
             var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
             var hostId = insertHostRecord(handle, "localhost", envId, systemId);
+            var otherHostId = insertHostRecord(handle, "otherhost", envId, systemId);
             var tagId = insertTagRecord(handle, "core", systemId);
+            insertHostTag(hostId, tagId);
+            insertHostTag(otherHostId, tagId);
 
-            handle.createUpdate("insert into host_tags "
-                            + "(host_id, tag_id) "
-                            + "values "
-                            + "(:hostId, :tagId)")
-                    .bind("hostId", hostId)
-                    .bind("tagId", tagId)
-                    .execute();
-
-            var hosts = dao.findHostsForTagsInEnv(systemId, envId, List.of(tagId));
+            var hostTags = dao.findHostTags(List.of(hostId));
 
-            assertThat(hosts).hasSize(1)
-                    .extracting("id", "hostname")
-                    .contains(tuple(hostId, "localhost"));
+            assertThat(hostTags).containsExactly(new HostDao.HostTag(hostId, tagId));
         }
     }
 
@@ -321,4 +443,23 @@ class HostDaoTest {
             assertThat(host.getHostname()).isEqualTo("server-1");
         }
     }
+
+    private void insertHostTag(long hostId, long tagId) {
+        handle.createUpdate("insert into host_tags (host_id, tag_id) values (:hostId, :tagId)")
+                .bind("hostId", hostId)
+                .bind("tagId", tagId)
+                .execute();
+    }
+
+    private List<Long> findTagIdsForHost(long hostId) {
+        return handle.select("select tag_id from host_tags where host_id = ?", hostId)
+                .mapTo(Long.class)
+                .list();
+    }
+
+    private long findHostTagId(long hostId, long tagId) {
+        return handle.select("select id from host_tags where host_id = ? and tag_id = ?", hostId, tagId)
+                .mapTo(Long.class)
+                .one();
+    }
 }
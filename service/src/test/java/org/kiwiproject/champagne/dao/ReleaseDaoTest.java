@@ -1,7 +1,9 @@
 package org.kiwiproject.champagne.dao;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertReleaseRecord;
 import static org.kiwiproject.collect.KiwiLists.first;
 import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
@@ -12,7 +14,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.kiwiproject.champagne.dao.mappers.AuditRecordMapper;
 import org.kiwiproject.champagne.dao.mappers.ReleaseMapper;
+import org.kiwiproject.champagne.dao.mappers.ReleaseStatusMapper;
+import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecord.Action;
+import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
 import org.kiwiproject.champagne.model.manualdeployment.Release;
 import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
 import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
@@ -71,17 +78,89 @@ class ReleaseDaoTest {
     }
 
     @Nested
-    class FindPagedReleases {
+    class InsertReleaseWithStatuses {
 
         @Test
-        void shouldReturnListOfReleases() {
+        void shouldInsertReleaseWithPendingStatusForEachEnvironmentAndAuditRecords() {
             var systemId = insertDeployableSystem(handle, "kiwi");
+            var devEnvId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var prodEnvId = insertDeploymentEnvironmentRecord(handle, "PROD", systemId);
+            var otherSystemId = insertDeployableSystem(handle, "other");
+            insertDeploymentEnvironmentRecord(handle, "DEV", otherSystemId);
+
+            var release = Release.builder()
+                .releaseNumber("2023.42.0")
+                .deployableSystemId(systemId)
+                .build();
+
+            var auditRecordTemplate = AuditRecord.builder()
+                .action(Action.CREATED)
+                .userSystemIdentifier("bob")
+                .deployableSystemId(systemId)
+                .build();
+
+            var id = dao.insertReleaseWithStatuses(release, auditRecordTemplate);
+
+            var statuses = handle.select("select * from manual_deployment_task_release_statuses where manual_deployment_task_release_id = ?", id)
+                .map(new ReleaseStatusMapper())
+                .list();
+
+            assertThat(statuses)
+                .extracting("environmentId", "status")
+                .containsExactlyInAnyOrder(
+                    tuple(devEnvId, DeploymentTaskStatus.PENDING),
+                    tuple(prodEnvId, DeploymentTaskStatus.PENDING)
+                );
+
+            var audits = handle.select("select * from audit_records")
+                .map(new AuditRecordMapper())
+                .list();
+
+            assertThat(audits)
+                .extracting("recordType", "recordId", "action", "userSystemIdentifier")
+                .containsExactlyInAnyOrder(
+                    tuple("Release", id, Action.CREATED, "bob"),
+                    tuple("ReleaseStatus", first(statuses).getId(), Action.CREATED, "bob"),
+                    tuple("ReleaseStatus", statuses.get(1).getId(), Action.CREATED, "bob")
+                );
+        }
+
+        @Test
+        void shouldSkipAuditRecordsWhenTemplateIsNull() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+
+            var release = Release.builder()
+                .releaseNumber("2023.42.0")
+                .deployableSystemId(systemId)
+                .build();
+
+            var id = dao.insertReleaseWithStatuses(release, null);
+
+            assertThat(handle.select("select count(*) from manual_deployment_task_release_statuses where manual_deployment_task_release_id = ?", id).mapTo(Long.class).one())
+                .isOne();
+            assertThat(handle.select("select count(*) from audit_records").mapTo(Long.class).one())
+                .isZero();
+        }
+    }
+
+    @Nested
+    class FindPagedReleasesWithTotalCount {
+
+        @Test
+        void shouldReturnPageOfReleasesWithTotalCountOfAllReleasesInSystem() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertReleaseRecord(handle, "40", systemId);
+            insertReleaseRecord(handle, "41", systemId);
             insertReleaseRecord(handle, "42", systemId);
 
-            var releases = dao.findPagedReleases(0, 10, systemId);
+            var otherSystemId = insertDeployableSystem(handle, "other");
+            insertReleaseRecord(handle, "1", otherSystemId);
+
+            var releases = dao.findPagedReleasesWithTotalCount(0, 2, systemId);
             assertThat(releases)
-                .extracting("releaseNumber")
-                .contains("42");
+                .extracting("value.releaseNumber", "totalCount")
+                .containsExactly(tuple("42", 3L), tuple("41", 3L));
         }
 
         @Test
@@ -89,7 +168,7 @@ class ReleaseDaoTest {
             var systemId = insertDeployableSystem(handle, "kiwi");
             insertReleaseRecord(handle, "42", systemId);
 
-            var releases = dao.findPagedReleases(10, 10, systemId);
+            var releases = dao.findPagedReleasesWithTotalCount(10, 10, systemId);
             assertThat(releases).isEmpty();
         }
     }
@@ -131,24 +210,4 @@ class ReleaseDaoTest {
         }
 
     }
-
-    @Nested
-    class FindAllReleaseIds {
-
-        @Test
-        void shouldReturnListOfReleaseIds() {
-            var systemId = insertDeployableSystem(handle, "kiwi");
-            var releaseId = insertReleaseRecord(handle, "42", systemId);
-
-            var releaseIds = dao.findAllReleaseIds();
-            assertThat(releaseIds).contains(releaseId);
-        }
-
-        @Test
-        void shouldReturnEmptyListWhenNoReleasesFound() {
-            var releaseIds = dao.findAllReleaseIds();
-            assertThat(releaseIds).isEmpty();
-        }
-    }
-
 }
@@ -1,12 +1,15 @@
 package org.kiwiproject.champagne.dao;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertReleaseRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertReleaseStatusRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertReleaseStatusRecordForEnv;
+import static org.kiwiproject.champagne.util.TestObjects.insertTaskRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertTaskStatusRecordForEnv;
 import static org.kiwiproject.collect.KiwiLists.first;
-import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
 
 import org.jdbi.v3.core.Handle;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,12 +19,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.kiwiproject.champagne.dao.mappers.ReleaseStatusMapper;
 import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
-import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
 import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
 import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
 
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
+import java.util.List;
 
 @DisplayName("ReleaseStatusDao")
 class ReleaseStatusDaoTest {
@@ -45,63 +46,109 @@ class ReleaseStatusDaoTest {
     }
 
     @Nested
-    class InsertReleaseStatus {
+    class FindByReleaseId {
 
         @Test
-        void shouldInsertReleaseStatusSuccessfully() {
-            var beforeInsert = ZonedDateTime.now();
-
+        void shouldReturnListOfReleaseStatuses() {
             var systemId = insertDeployableSystem(handle, "kiwi");
             var releaseId = insertReleaseRecord(handle, "42", systemId);
-            var envId = insertDeploymentEnvironmentRecord(handle, "TEST", systemId);
+            insertReleaseStatusRecord(handle, DeploymentTaskStatus.PENDING, releaseId, systemId);
 
-            var releaseStatusToInsert = ReleaseStatus.builder()
-                .environmentId(envId)
-                .releaseId(releaseId)
-                .status(DeploymentTaskStatus.PENDING)
-                .build();
+            var statuses = dao.findByReleaseId(releaseId);
+            assertThat(statuses)
+                .extracting("status")
+                .contains(DeploymentTaskStatus.PENDING);
+        }
 
-            var id = dao.insertReleaseStatus(releaseStatusToInsert);
+        @Test
+        void shouldReturnEmptyListWhenNoStatusesFound() {
+            var statuses = dao.findByReleaseId(42L);
+            assertThat(statuses).isEmpty();
+        }
 
-            var releaseStatuses = handle.select("select * from manual_deployment_task_release_statuses where id = ?", id)
-                .map(new ReleaseStatusMapper())
-                .list();
+    }
 
-            assertThat(releaseStatuses).hasSize(1);
+    @Nested
+    class FindByReleaseIds {
 
-            var status = first(releaseStatuses);
-            assertThat(status.getId()).isEqualTo(id);
+        @Test
+        void shouldReturnStatusesForAllRequestedReleases() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var releaseId = insertReleaseRecord(handle, "41", systemId);
+            var otherReleaseId = insertReleaseRecord(handle, "42", systemId);
+            var notRequestedReleaseId = insertReleaseRecord(handle, "43", systemId);
+            insertReleaseStatusRecord(handle, DeploymentTaskStatus.PENDING, releaseId, systemId);
+            insertReleaseStatusRecord(handle, DeploymentTaskStatus.COMPLETE, otherReleaseId, systemId);
+            insertReleaseStatusRecord(handle, DeploymentTaskStatus.NOT_REQUIRED, notRequestedReleaseId, systemId);
 
-            assertTimeDifferenceWithinTolerance("createdAt", beforeInsert, status.getCreatedAt().atZone(ZoneOffset.UTC), 1000L);
-            assertTimeDifferenceWithinTolerance("updatedAt", beforeInsert, status.getUpdatedAt().atZone(ZoneOffset.UTC), 1000L);
+            var statuses = dao.findByReleaseIds(List.of(releaseId, otherReleaseId));
+            assertThat(statuses)
+                .extracting("releaseId", "status")
+                .containsExactlyInAnyOrder(
+                    tuple(releaseId, DeploymentTaskStatus.PENDING),
+                    tuple(otherReleaseId, DeploymentTaskStatus.COMPLETE)
+                );
+        }
 
-            assertThat(status.getEnvironmentId()).isEqualTo(envId);
-            assertThat(status.getReleaseId()).isEqualTo(releaseId);
-            assertThat(status.getStatus()).isEqualTo(DeploymentTaskStatus.PENDING);
+        @Test
+        void shouldReturnEmptyListWhenNoStatusesFound() {
+            var statuses = dao.findByReleaseIds(List.of(42L));
+            assertThat(statuses).isEmpty();
         }
     }
 
     @Nested
-    class FindByReleaseId {
+    class InsertNotRequiredReleaseAndTaskStatusesForEnvironment {
 
         @Test
-        void shouldReturnListOfReleaseStatuses() {
+        void shouldCreateStatusesForReleasesAndTasksOfTheEnvironmentsSystemOnly() {
             var systemId = insertDeployableSystem(handle, "kiwi");
+            var existingEnvId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
             var releaseId = insertReleaseRecord(handle, "42", systemId);
-            insertReleaseStatusRecord(handle, DeploymentTaskStatus.PENDING, releaseId, systemId);
+            var releaseWithoutTasksId = insertReleaseRecord(handle, "43", systemId);
+            insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, existingEnvId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, existingEnvId);
 
-            var statuses = dao.findByReleaseId(releaseId);
-            assertThat(statuses)
-                .extracting("status")
-                .contains(DeploymentTaskStatus.PENDING);
+            var otherSystemId = insertDeployableSystem(handle, "apple");
+            var otherReleaseId = insertReleaseRecord(handle, "44", otherSystemId);
+            insertTaskRecord(handle, "other", otherReleaseId);
+
+            var newEnvId = insertDeploymentEnvironmentRecord(handle, "PROD", systemId);
+
+            var backfill = dao.insertNotRequiredReleaseAndTaskStatusesForEnvironment(newEnvId);
+
+            assertThat(backfill.getReleaseStatusesCreated()).isEqualTo(2);
+            assertThat(backfill.getTaskStatusesCreated()).isOne();
+
+            var releaseStatuses = handle.select("select * from manual_deployment_task_release_statuses where deployment_environment_id = ?", newEnvId)
+                .map(new ReleaseStatusMapper())
+                .list();
+
+            assertThat(releaseStatuses)
+                .extracting("releaseId", "status", "pendingTasks", "completeTasks", "notRequiredTasks")
+                .containsExactlyInAnyOrder(
+                    tuple(releaseId, DeploymentTaskStatus.NOT_REQUIRED, 0, 0, 1),
+                    tuple(releaseWithoutTasksId, DeploymentTaskStatus.NOT_REQUIRED, 0, 0, 0)
+                );
+
+            var taskStatuses = handle.select("select manual_deployment_task_id from manual_deployment_task_statuses where deployment_environment_id = ? and status = 'NOT_REQUIRED'", newEnvId)
+                .mapTo(Long.class)
+                .list();
+
+            assertThat(taskStatuses).containsExactly(taskId);
         }
 
         @Test
-        void shouldReturnEmptyListWhenNoStatusesFound() {
-            var statuses = dao.findByReleaseId(42L);
-            assertThat(statuses).isEmpty();
-        }
+        void shouldCreateNothingWhenSystemHasNoReleases() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
 
+            var backfill = dao.insertNotRequiredReleaseAndTaskStatusesForEnvironment(envId);
+
+            assertThat(backfill.getReleaseStatusesCreated()).isZero();
+            assertThat(backfill.getTaskStatusesCreated()).isZero();
+        }
     }
 
     @Nested
@@ -123,5 +170,4 @@ class ReleaseStatusDaoTest {
             assertThat(status.getStatus()).isEqualTo(DeploymentTaskStatus.COMPLETE);
         }
     }
-
 }
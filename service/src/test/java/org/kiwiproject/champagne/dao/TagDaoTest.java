@@ -3,8 +3,6 @@ package org.kiwiproject.champagne.dao;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
-import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
-import static org.kiwiproject.champagne.util.TestObjects.insertHostRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertTagRecord;
 import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
 
@@ -131,53 +129,4 @@ class TagDaoTest {
             assertThat(tag.getName()).isEqualTo("audit");
         }
     }
-
-    @Nested
-    class FindTagsForHost {
-
-        @Test
-        void shouldReturnListOfTags() {
-            var systemId = insertDeployableSystem(handle, "my-system");
-            var envId = insertDeploymentEnvironmentRecord(handle, "dev", systemId);
-            var hostId = insertHostRecord(handle, "localhost", envId, systemId);
-            var id = insertTagRecord(handle, "core", systemId);
-
-            handle.createUpdate("insert into host_tags "
-                            + "(host_id, tag_id) "
-                            + "values "
-                            + "(:hostId, :tagId)")
-                    .bind("hostId", hostId)
-                    .bind("tagId", id)
-                    .execute();
-
-            var tags = dao.findTagsForHost(hostId);
-            assertThat(tags)
-                    .extracting("id", "name")
-                    .contains(tuple(id, "core"));
-        }
-
-        @Test
-        void shouldReturnEmptyListWhenNoTagsFound() {
-            var systemId = insertDeployableSystem(handle, "my-system");
-            insertTagRecord(handle, "audit", systemId);
-
-            var tags = dao.findTagsForHost(1L);
-            assertThat(tags).isEmpty();
-        }
-    }
-
-    @Nested
-    class FindTagById {
-
-        @Test
-        void shouldReturnTagWhenFound() {
-            var systemId = insertDeployableSystem(handle, "kiwi");
-            var id = insertTagRecord(handle, "core", systemId);
-
-            var tag = dao.findTagById(id);
-
-            assertThat(tag.getId()).isEqualTo(id);
-            assertThat(tag.getName()).isEqualTo("core");
-        }
-    }
 }
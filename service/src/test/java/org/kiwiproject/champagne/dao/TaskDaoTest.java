@@ -1,10 +1,14 @@
 package org.kiwiproject.champagne.dao;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
+import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertReleaseRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertReleaseStatusRecordForEnv;
 import static org.kiwiproject.champagne.util.TestObjects.insertTaskRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertTaskStatusRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertTaskStatusRecordForEnv;
 import static org.kiwiproject.collect.KiwiLists.first;
 import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
 
@@ -14,7 +18,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.kiwiproject.champagne.dao.mappers.AuditRecordMapper;
 import org.kiwiproject.champagne.dao.mappers.TaskMapper;
+import org.kiwiproject.champagne.dao.mappers.TaskStatusMapper;
+import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
 import org.kiwiproject.champagne.model.manualdeployment.ReleaseStage;
 import org.kiwiproject.champagne.model.manualdeployment.Task;
@@ -86,6 +94,86 @@ class TaskDaoTest {
         }
     }
 
+    @Nested
+    class InsertTaskWithStatuses {
+
+        @Test
+        void shouldInsertTaskWithPendingStatusForEachEnvironmentAndCountThem() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var devEnvId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var prodEnvId = insertDeploymentEnvironmentRecord(handle, "PROD", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var devReleaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.COMPLETE, releaseId, devEnvId);
+            insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, prodEnvId);
+
+            var task = Task.builder()
+                .releaseId(releaseId)
+                .stage(ReleaseStage.PRE)
+                .summary("summary")
+                .component("component")
+                .build();
+
+            var auditRecordTemplate = AuditRecord.builder()
+                .action(Action.CREATED)
+                .userSystemIdentifier("bob")
+                .deployableSystemId(systemId)
+                .build();
+
+            var id = dao.insertTaskWithStatuses(task, systemId, auditRecordTemplate);
+
+            var statuses = handle.select("select * from manual_deployment_task_statuses where manual_deployment_task_id = ?", id)
+                .map(new TaskStatusMapper())
+                .list();
+
+            assertThat(statuses)
+                .extracting("environmentId", "status")
+                .containsExactlyInAnyOrder(
+                    tuple(devEnvId, DeploymentTaskStatus.PENDING),
+                    tuple(prodEnvId, DeploymentTaskStatus.PENDING)
+                );
+
+            var pendingTasks = handle.select("select pending_tasks from manual_deployment_task_release_statuses where id = ?", devReleaseStatusId)
+                .mapTo(Integer.class)
+                .one();
+            assertThat(pendingTasks).isOne();
+            assertThat(findReleaseStatus(devReleaseStatusId)).isEqualTo(DeploymentTaskStatus.PENDING.name());
+
+            var audits = handle.select("select * from audit_records")
+                .map(new AuditRecordMapper())
+                .list();
+
+            assertThat(audits)
+                .extracting("recordType", "recordId", "action")
+                .containsExactlyInAnyOrder(
+                    tuple("Task", id, Action.CREATED),
+                    tuple("TaskStatus", first(statuses).getId(), Action.CREATED),
+                    tuple("TaskStatus", statuses.get(1).getId(), Action.CREATED),
+                    tuple("ReleaseStatus", devReleaseStatusId, Action.UPDATED)
+                );
+        }
+
+        @Test
+        void shouldSkipAuditRecordsWhenTemplateIsNull() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+
+            var task = Task.builder()
+                .releaseId(releaseId)
+                .stage(ReleaseStage.PRE)
+                .summary("summary")
+                .component("component")
+                .build();
+
+            var id = dao.insertTaskWithStatuses(task, systemId, null);
+
+            assertThat(handle.select("select count(*) from manual_deployment_task_statuses where manual_deployment_task_id = ?", id).mapTo(Long.class).one())
+                .isOne();
+            assertThat(handle.select("select count(*) from audit_records").mapTo(Long.class).one())
+                .isZero();
+        }
+    }
+
     @Nested
     class FindByReleaseId {
 
@@ -154,6 +242,73 @@ class TaskDaoTest {
 
     }
 
+    @Nested
+    class DeleteByIdAndReleaseTaskCounts {
+
+        @Test
+        void shouldDeleteTaskAndRemoveItsStatusesFromReleaseTaskCounts() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            handle.execute("update manual_deployment_task_release_statuses set pending_tasks = 1, complete_tasks = 1 where id = ?", releaseStatusId);
+
+            var taskId = insertTaskRecord(handle, "to be deleted", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+
+            var otherTaskId = insertTaskRecord(handle, "to be kept", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.COMPLETE, otherTaskId, envId);
+
+            dao.deleteByIdAndReleaseTaskCounts(taskId, null);
+
+            assertThat(dao.findById(taskId)).isEmpty();
+
+            var counts = handle.select("select pending_tasks, complete_tasks, not_required_tasks from manual_deployment_task_release_statuses where id = ?", releaseStatusId)
+                .mapToMap()
+                .one();
+
+            assertThat(counts).containsEntry("pending_tasks", 0)
+                .containsEntry("complete_tasks", 1)
+                .containsEntry("not_required_tasks", 0);
+            assertThat(findReleaseStatus(releaseStatusId)).isEqualTo(DeploymentTaskStatus.COMPLETE.name());
+            assertThat(handle.select("select count(*) from audit_records").mapTo(Long.class).one()).isZero();
+        }
+
+        @Test
+        void shouldInsertAuditRecordsForDeletedTaskAndUpdatedReleaseStatuses() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            handle.execute("update manual_deployment_task_release_statuses set pending_tasks = 1, complete_tasks = 1 where id = ?", releaseStatusId);
+
+            var taskId = insertTaskRecord(handle, "to be deleted", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+
+            var otherTaskId = insertTaskRecord(handle, "to be kept", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.COMPLETE, otherTaskId, envId);
+
+            var auditRecordTemplate = AuditRecord.builder()
+                .action(Action.DELETED)
+                .userSystemIdentifier("bob")
+                .deployableSystemId(systemId)
+                .build();
+
+            dao.deleteByIdAndReleaseTaskCounts(taskId, auditRecordTemplate);
+
+            var audits = handle.select("select * from audit_records")
+                .map(new AuditRecordMapper())
+                .list();
+
+            assertThat(audits)
+                .extracting("recordType", "recordId", "action")
+                .containsExactlyInAnyOrder(
+                    tuple("Task", taskId, Action.DELETED),
+                    tuple("ReleaseStatus", releaseStatusId, Action.UPDATED)
+                );
+        }
+    }
+
     @Nested
     class FindById {
 
@@ -193,22 +348,9 @@ class TaskDaoTest {
         }
     }
 
-    @Nested
-    class FindAllTaskIds {
-
-        @Test
-        void shouldReturnListOfTaskIds() {
-            var id = insertTaskRecord(handle, "to be found");
-
-            var taskIds = dao.findAllTaskIds();
-            assertThat(taskIds).contains(id);
-        }
-
-        @Test
-        void shouldReturnEmptyListWhenNoTasksFound() {
-            var taskIds = dao.findAllTaskIds();
-            assertThat(taskIds).isEmpty();
-        }
+    private String findReleaseStatus(long releaseStatusId) {
+        return handle.select("select status from manual_deployment_task_release_statuses where id = ?", releaseStatusId)
+            .mapTo(String.class)
+            .one();
     }
-
 }
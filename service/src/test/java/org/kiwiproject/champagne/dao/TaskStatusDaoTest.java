@@ -1,27 +1,38 @@
 package org.kiwiproject.champagne.dao;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeployableSystem;
 import static org.kiwiproject.champagne.util.TestObjects.insertDeploymentEnvironmentRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertReleaseRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertReleaseStatusRecordForEnv;
 import static org.kiwiproject.champagne.util.TestObjects.insertTaskRecord;
 import static org.kiwiproject.champagne.util.TestObjects.insertTaskStatusRecord;
+import static org.kiwiproject.champagne.util.TestObjects.insertTaskStatusRecordForEnv;
 import static org.kiwiproject.collect.KiwiLists.first;
-import static org.kiwiproject.test.util.DateTimeTestHelper.assertTimeDifferenceWithinTolerance;
 
 import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.core.statement.StatementContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.kiwiproject.champagne.dao.mappers.AuditRecordMapper;
 import org.kiwiproject.champagne.dao.mappers.TaskStatusMapper;
+import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
-import org.kiwiproject.champagne.model.manualdeployment.TaskStatus;
+import org.kiwiproject.champagne.model.manualdeployment.ReleaseStage;
 import org.kiwiproject.test.junit.jupiter.Jdbi3DaoExtension;
 import org.kiwiproject.test.junit.jupiter.PostgresLiquibaseTestExtension;
 
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @DisplayName("TaskStatusDao")
 class TaskStatusDaoTest {
@@ -45,63 +56,77 @@ class TaskStatusDaoTest {
     }
 
     @Nested
-    class InsertTaskStatus {
+    class InsertNotRequiredStatusesForEnvironment {
 
         @Test
-        void shouldInsertTaskStatusSuccessfully() {
-            var beforeInsert = ZonedDateTime.now();
-
+        void shouldInsertStatusForEachTaskOfTheEnvironmentsSystem() {
             var systemId = insertDeployableSystem(handle, "kiwi");
-            var taskId = insertTaskRecord(handle, "Some task");
-            var envId = insertDeploymentEnvironmentRecord(handle, "TEST", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            var otherTaskId = insertTaskRecord(handle, "second", releaseId);
+            insertTaskRecord(handle, "other system");
+
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
 
-            var taskStatusToInsert = TaskStatus.builder()
-                .environmentId(envId)
-                .taskId(taskId)
-                .status(DeploymentTaskStatus.PENDING)
-                .build();
+            var insertedCount = dao.insertNotRequiredStatusesForEnvironment(envId);
 
-            var id = dao.insertTaskStatus(taskStatusToInsert);
+            assertThat(insertedCount).isEqualTo(2);
 
-            var taskStatuses = handle.select("select * from manual_deployment_task_statuses where id = ?", id)
+            var statuses = handle.select("select * from manual_deployment_task_statuses where deployment_environment_id = ?", envId)
                 .map(new TaskStatusMapper())
                 .list();
 
-            assertThat(taskStatuses).hasSize(1);
-
-            var status = first(taskStatuses);
-            assertThat(status.getId()).isEqualTo(id);
-
-            assertTimeDifferenceWithinTolerance("createdAt", beforeInsert, status.getCreatedAt().atZone(ZoneOffset.UTC), 1000L);
-            assertTimeDifferenceWithinTolerance("updatedAt", beforeInsert, status.getUpdatedAt().atZone(ZoneOffset.UTC), 1000L);
-
-            assertThat(status.getEnvironmentId()).isEqualTo(envId);
-            assertThat(status.getTaskId()).isEqualTo(taskId);
-            assertThat(status.getStatus()).isEqualTo(DeploymentTaskStatus.PENDING);
+            assertThat(statuses)
+                .extracting("taskId", "status")
+                .containsExactlyInAnyOrder(
+                    tuple(taskId, DeploymentTaskStatus.NOT_REQUIRED),
+                    tuple(otherTaskId, DeploymentTaskStatus.NOT_REQUIRED)
+                );
         }
     }
 
     @Nested
-    class FindByTaskId {
+    class FindByReleaseId {
 
         @Test
-        void shouldReturnListOfTaskStatuses() {
+        void shouldReturnStatusesForAllTasksInTheReleaseUsingASingleQuery() {
             var systemId = insertDeployableSystem(handle, "kiwi");
-            var taskId = insertTaskRecord(handle, "do it");
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            var otherTaskId = insertTaskRecord(handle, "second", releaseId);
             insertTaskStatusRecord(handle, DeploymentTaskStatus.PENDING, taskId, systemId);
+            insertTaskStatusRecord(handle, DeploymentTaskStatus.COMPLETE, taskId, systemId);
+            insertTaskStatusRecord(handle, DeploymentTaskStatus.NOT_REQUIRED, otherTaskId, systemId);
+
+            var otherReleaseTaskId = insertTaskRecord(handle, "other release");
+            insertTaskStatusRecord(handle, DeploymentTaskStatus.PENDING, otherReleaseTaskId, systemId);
+
+            var statementCount = new AtomicInteger();
+            handle.getConfig(SqlStatements.class).setSqlLogger(new SqlLogger() {
+                @Override
+                public void logAfterExecution(StatementContext context) {
+                    statementCount.incrementAndGet();
+                }
+            });
+
+            var statuses = handle.attach(TaskStatusDao.class).findByReleaseId(releaseId);
 
-            var statuses = dao.findByTaskId(taskId);
             assertThat(statuses)
-                .extracting("status")
-                .contains(DeploymentTaskStatus.PENDING);
+                .extracting("taskId", "status")
+                .containsExactlyInAnyOrder(
+                    tuple(taskId, DeploymentTaskStatus.PENDING),
+                    tuple(taskId, DeploymentTaskStatus.COMPLETE),
+                    tuple(otherTaskId, DeploymentTaskStatus.NOT_REQUIRED)
+                );
+
+            assertThat(statementCount).hasValue(1);
         }
 
         @Test
         void shouldReturnEmptyListWhenNoStatusesFound() {
-            var statuses = dao.findByTaskId(42L);
+            var statuses = dao.findByReleaseId(42L);
             assertThat(statuses).isEmpty();
         }
-
     }
 
     @Nested
@@ -126,4 +151,277 @@ class TaskStatusDaoTest {
         }
     }
 
+    @Nested
+    class UpdateStatusAndReleaseTaskCounts {
+
+        @Test
+        void shouldUpdateStatusAndMoveItBetweenReleaseTaskCounts() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            var taskId = insertTaskRecord(handle, "Some Task", releaseId);
+            var statusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            dao.adjustReleaseTaskCountsForTask(taskId, 1);
+
+            var update = dao.updateStatusAndReleaseTaskCounts(statusId, DeploymentTaskStatus.COMPLETE, null);
+
+            assertThat(update.getTaskStatusIds()).containsExactly(statusId);
+            assertThat(update.getReleaseStatusIds()).containsExactly(releaseStatusId);
+            var taskStatus = handle.select("select * from manual_deployment_task_statuses where id = ?", statusId)
+                .map(new TaskStatusMapper())
+                .one();
+            assertThat(taskStatus.getStatus()).isEqualTo(DeploymentTaskStatus.COMPLETE);
+            assertThat(findReleaseTaskCounts(releaseStatusId)).containsExactly(0, 1, 0);
+            assertThat(findReleaseStatus(releaseStatusId)).isEqualTo(DeploymentTaskStatus.COMPLETE.name());
+        }
+
+        @Test
+        void shouldReturnEmptyUpdateWhenStatusNotFound() {
+            var update = dao.updateStatusAndReleaseTaskCounts(42L, DeploymentTaskStatus.COMPLETE, null);
+
+            assertThat(update.getTaskStatusIds()).isEmpty();
+            assertThat(update.getReleaseStatusIds()).isEmpty();
+        }
+    }
+
+    @Nested
+    class RollUpReleaseStatusesForTask {
+
+        @ParameterizedTest
+        @CsvSource(textBlock = """
+                PENDING, 0, 1, 0, COMPLETE
+                PENDING, 0, 2, 0, COMPLETE
+                PENDING, 0, 0, 1, NOT_REQUIRED
+                PENDING, 0, 0, 2, NOT_REQUIRED
+                COMPLETE, 2, 0, 0, PENDING
+                COMPLETE, 1, 1, 0, PENDING
+                PENDING, 0, 1, 1, COMPLETE
+                """)
+        void shouldSetReleaseStatusRolledUpFromTaskCounts(DeploymentTaskStatus status,
+                                                          int pendingTasks,
+                                                          int completeTasks,
+                                                          int notRequiredTasks,
+                                                          DeploymentTaskStatus expectedStatus) {
+            var taskId = insertTaskWithReleaseStatus(status, pendingTasks, completeTasks, notRequiredTasks);
+
+            var releaseStatusIds = dao.rollUpReleaseStatusesForTask(taskId);
+
+            assertThat(releaseStatusIds).hasSize(1);
+            assertThat(findReleaseStatus(first(releaseStatusIds))).isEqualTo(expectedStatus.name());
+        }
+
+        @ParameterizedTest
+        @CsvSource(textBlock = """
+                PENDING, 0, 0, 0
+                PENDING, 1, 0, 0
+                COMPLETE, 0, 1, 0
+                """)
+        void shouldNotChangeReleaseStatusWhenNoTasksOrAlreadyRolledUp(DeploymentTaskStatus status,
+                                                                       int pendingTasks,
+                                                                       int completeTasks,
+                                                                       int notRequiredTasks) {
+            var taskId = insertTaskWithReleaseStatus(status, pendingTasks, completeTasks, notRequiredTasks);
+
+            assertThat(dao.rollUpReleaseStatusesForTask(taskId)).isEmpty();
+            assertThat(handle.select("select status from manual_deployment_task_release_statuses").mapTo(String.class).one())
+                .isEqualTo(status.name());
+        }
+
+        private long insertTaskWithReleaseStatus(DeploymentTaskStatus status,
+                                                 int pendingTasks,
+                                                 int completeTasks,
+                                                 int notRequiredTasks) {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, status, releaseId, envId);
+            var taskId = insertTaskRecord(handle, "Some Task", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+
+            handle.execute("update manual_deployment_task_release_statuses set pending_tasks = ?, complete_tasks = ?, not_required_tasks = ? where id = ?",
+                    pendingTasks, completeTasks, notRequiredTasks, releaseStatusId);
+
+            return taskId;
+        }
+    }
+
+    @Nested
+    class FindIdsByReleaseStageAndEnvironment {
+
+        @Test
+        void shouldReturnIdsOfStatusesForStageInEnvironment() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var otherEnvId = insertDeploymentEnvironmentRecord(handle, "PROD", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var taskId = insertTaskRecord(handle, "post stage task", releaseId);
+            var statusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, otherEnvId);
+
+            assertThat(dao.findIdsByReleaseStageAndEnvironment(releaseId, ReleaseStage.POST, envId)).containsExactly(statusId);
+            assertThat(dao.findIdsByReleaseStageAndEnvironment(releaseId, ReleaseStage.PRE, envId)).isEmpty();
+        }
+    }
+
+    @Nested
+    class UpdateStatusesAndReleaseTaskCounts {
+
+        @Test
+        void shouldUpdateAllStatusesAndMoveThemBetweenReleaseTaskCounts() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            var otherTaskId = insertTaskRecord(handle, "second", releaseId);
+            var statusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            var otherStatusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.NOT_REQUIRED, otherTaskId, envId);
+            dao.adjustReleaseTaskCountsForEnvironment(envId, 1);
+
+            var update = dao.updateStatusesAndReleaseTaskCounts(List.of(otherStatusId, statusId, 42L), DeploymentTaskStatus.COMPLETE, null);
+
+            assertThat(update.getTaskStatusIds()).containsExactly(statusId, otherStatusId);
+            assertThat(dao.findByReleaseId(releaseId))
+                .extracting("status")
+                .containsOnly(DeploymentTaskStatus.COMPLETE);
+            assertThat(findReleaseTaskCounts(releaseStatusId)).containsExactly(0, 2, 0);
+        }
+
+        @Test
+        void shouldRollUpStatusesOfAffectedReleases() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var otherEnvId = insertDeploymentEnvironmentRecord(handle, "PROD", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            var otherReleaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, otherEnvId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            var statusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, otherEnvId);
+            dao.adjustReleaseTaskCountsForTask(taskId, 1);
+
+            var update = dao.updateStatusesAndReleaseTaskCounts(List.of(statusId), DeploymentTaskStatus.COMPLETE, null);
+
+            assertThat(update.getReleaseStatusIds()).containsExactly(releaseStatusId);
+            assertThat(findReleaseStatus(releaseStatusId)).isEqualTo(DeploymentTaskStatus.COMPLETE.name());
+            assertThat(findReleaseStatus(otherReleaseStatusId)).isEqualTo(DeploymentTaskStatus.PENDING.name());
+            assertThat(handle.select("select count(*) from audit_records").mapTo(Long.class).one()).isZero();
+        }
+
+        @Test
+        void shouldInsertAuditRecordsForUpdatedTaskAndReleaseStatuses() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            var releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            var statusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            dao.adjustReleaseTaskCountsForTask(taskId, 1);
+
+            var auditRecordTemplate = AuditRecord.builder()
+                    .action(Action.UPDATED)
+                    .userSystemIdentifier("bob")
+                    .deployableSystemId(systemId)
+                    .build();
+
+            dao.updateStatusesAndReleaseTaskCounts(List.of(statusId), DeploymentTaskStatus.COMPLETE, auditRecordTemplate);
+
+            var audits = handle.select("select * from audit_records")
+                    .map(new AuditRecordMapper())
+                    .list();
+
+            assertThat(audits)
+                    .extracting("recordType", "recordId", "action")
+                    .containsExactlyInAnyOrder(
+                            tuple("TaskStatus", statusId, Action.UPDATED),
+                            tuple("ReleaseStatus", releaseStatusId, Action.UPDATED)
+                    );
+        }
+
+        @Test
+        void shouldNotReturnReleaseStatusesWhoseStatusDidNotChange() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            var taskId = insertTaskRecord(handle, "first", releaseId);
+            var otherTaskId = insertTaskRecord(handle, "second", releaseId);
+            var statusId = insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, otherTaskId, envId);
+            dao.adjustReleaseTaskCountsForEnvironment(envId, 1);
+
+            var update = dao.updateStatusesAndReleaseTaskCounts(List.of(statusId), DeploymentTaskStatus.COMPLETE, null);
+
+            assertThat(update.getTaskStatusIds()).containsExactly(statusId);
+            assertThat(update.getReleaseStatusIds()).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmptyUpdateWhenNoStatusesFound() {
+            assertThat(dao.updateStatusesAndReleaseTaskCounts(List.of(42L), DeploymentTaskStatus.COMPLETE, null).getTaskStatusIds()).isEmpty();
+            assertThat(dao.updateStatusesAndReleaseTaskCounts(List.of(), DeploymentTaskStatus.COMPLETE, null).getReleaseStatusIds()).isEmpty();
+        }
+    }
+
+    @Nested
+    class AdjustReleaseTaskCounts {
+
+        private long envId;
+        private long releaseStatusId;
+        private long taskId;
+
+        @BeforeEach
+        void setUp() {
+            var systemId = insertDeployableSystem(handle, "kiwi");
+            envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+            var otherEnvId = insertDeploymentEnvironmentRecord(handle, "PROD", systemId);
+            var releaseId = insertReleaseRecord(handle, "42", systemId);
+            releaseStatusId = insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, envId);
+            insertReleaseStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, releaseId, otherEnvId);
+
+            taskId = insertTaskRecord(handle, "first", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.PENDING, taskId, envId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.COMPLETE, taskId, otherEnvId);
+
+            var otherTaskId = insertTaskRecord(handle, "second", releaseId);
+            insertTaskStatusRecordForEnv(handle, DeploymentTaskStatus.NOT_REQUIRED, otherTaskId, envId);
+        }
+
+        @Test
+        void shouldAddStatusesOfTaskToCountsOfEachEnvironment() {
+            var updatedCount = dao.adjustReleaseTaskCountsForTask(taskId, 1);
+
+            assertThat(updatedCount).isEqualTo(2);
+            assertThat(findReleaseTaskCounts(releaseStatusId)).containsExactly(1, 0, 0);
+        }
+
+        @Test
+        void shouldAddAllStatusesInEnvironmentToCounts() {
+            var updatedCount = dao.adjustReleaseTaskCountsForEnvironment(envId, 1);
+
+            assertThat(updatedCount).isOne();
+            assertThat(findReleaseTaskCounts(releaseStatusId)).containsExactly(1, 0, 1);
+        }
+
+        @Test
+        void shouldRemoveStatusesFromCountsWithNegativeDelta() {
+            dao.adjustReleaseTaskCountsForEnvironment(envId, 1);
+            dao.adjustReleaseTaskCountsForTask(taskId, -1);
+
+            assertThat(findReleaseTaskCounts(releaseStatusId)).containsExactly(0, 0, 1);
+        }
+    }
+
+    private List<Integer> findReleaseTaskCounts(long releaseStatusId) {
+        return handle.select("select pending_tasks, complete_tasks, not_required_tasks from manual_deployment_task_release_statuses where id = ?", releaseStatusId)
+            .map((rs, ctx) -> List.of(rs.getInt("pending_tasks"), rs.getInt("complete_tasks"), rs.getInt("not_required_tasks")))
+            .one();
+    }
+
+    private String findReleaseStatus(long releaseStatusId) {
+        return handle.select("select status from manual_deployment_task_release_statuses where id = ?", releaseStatusId)
+            .mapTo(String.class)
+            .one();
+    }
 }
@@ -1,37 +1,173 @@
 package org.kiwiproject.champagne.job;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.kiwiproject.champagne.config.AuditDeletionConfig;
 import org.kiwiproject.champagne.dao.AuditRecordDao;
 
-import java.time.Instant;
-
 @DisplayName("CleanOutAuditsJob")
 class CleanOutAuditsJobTest {
 
+    private static final long MAX_RETAIN_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final DateTimeFormatter PARTITION_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
     private AuditRecordDao auditRecordDao;
+    private AuditDeletionConfig deletionConfig;
+    private MetricRegistry metrics;
     private CleanOutAuditsJob job;
 
     @BeforeEach
     void setUp() {
         auditRecordDao = mock(AuditRecordDao.class);
-        job = new CleanOutAuditsJob(auditRecordDao, 100);
+        when(auditRecordDao.findMonthlyPartitionNames()).thenReturn(List.of());
+
+        deletionConfig = new AuditDeletionConfig();
+        deletionConfig.setChunkSize(10);
+        deletionConfig.setPauseBetweenChunks(Duration.milliseconds(0));
+
+        metrics = new MetricRegistry();
+        job = new CleanOutAuditsJob(auditRecordDao, MAX_RETAIN_MILLIS, deletionConfig, metrics);
+    }
+
+    private static String partitionNameOf(YearMonth month) {
+        return "audit_records_" + month.format(PARTITION_MONTH_FORMAT);
+    }
+
+    @Test
+    void shouldDropPartitionsOfMonthsEntirelyOlderThanTheRetentionPeriod() {
+        var oldestRetainedMonth = YearMonth.from(Instant.now().minusMillis(MAX_RETAIN_MILLIS).atZone(ZoneOffset.UTC));
+        var expiredPartition = partitionNameOf(oldestRetainedMonth.minusMonths(1));
+        var retainedPartition = partitionNameOf(oldestRetainedMonth);
+        var currentPartition = partitionNameOf(YearMonth.now(ZoneOffset.UTC));
+
+        when(auditRecordDao.findMonthlyPartitionNames()).thenReturn(List.of(expiredPartition, retainedPartition, currentPartition));
+
+        job.run();
+
+        verify(auditRecordDao).dropPartition(expiredPartition);
+        verify(auditRecordDao, never()).dropPartition(retainedPartition);
+        verify(auditRecordDao, never()).dropPartition(currentPartition);
+        assertThat(gaugeValue("lastRun.droppedPartitions")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldSkipPartitionsWithUnexpectedNames() {
+        when(auditRecordDao.findMonthlyPartitionNames()).thenReturn(List.of("audit_records_archive", "some_other_table"));
+
+        job.run();
+
+        verify(auditRecordDao, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void shouldAttemptToDeleteOldAuditsFromTheDefaultPartition() {
+        when(auditRecordDao.deleteDefaultPartitionAuditRecordChunkOlderThan(any(Instant.class), anyInt())).thenReturn(1);
+
+        var maxRetainInstant = Instant.now().minusMillis(MAX_RETAIN_MILLIS);
+        job.run();
+
+        verify(auditRecordDao).deleteDefaultPartitionAuditRecordChunkOlderThan(argThat(i -> !i.isBefore(maxRetainInstant.minusMillis(50))), eq(10));
+        verify(auditRecordDao, never()).deleteAuditRecordChunkOlderThan(any(Instant.class), anyInt());
+    }
+
+    @Test
+    void shouldDeleteRowsInChunksUntilAChunkIsNotFull_WhenInRowsMode() {
+        deletionConfig.setMode(AuditDeletionConfig.Mode.ROWS);
+        when(auditRecordDao.deleteAuditRecordChunkOlderThan(any(Instant.class), anyInt())).thenReturn(10, 10, 3);
+
+        job.run();
+
+        verify(auditRecordDao, times(3)).deleteAuditRecordChunkOlderThan(any(Instant.class), eq(10));
+        verify(auditRecordDao, never()).findMonthlyPartitionNames();
+        verify(auditRecordDao, never()).dropPartition(anyString());
+        assertThat(gaugeValue("lastRun.deletedRecords")).isEqualTo(23L);
+        assertThat(gaugeValue("lastRun.chunks")).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldStopDeletingChunks_WhenMaxRunTimeIsReached() {
+        deletionConfig.setMode(AuditDeletionConfig.Mode.ROWS);
+        deletionConfig.setMaxRunTime(Duration.milliseconds(0));
+        when(auditRecordDao.deleteAuditRecordChunkOlderThan(any(Instant.class), anyInt())).thenReturn(10);
+
+        job.run();
+
+        verify(auditRecordDao, times(1)).deleteAuditRecordChunkOlderThan(any(Instant.class), anyInt());
+        assertThat(gaugeValue("lastRun.chunks")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldReportHowFarTheOldestRecordIsBehindTheRetentionTarget_WhenInRowsMode() {
+        deletionConfig.setMode(AuditDeletionConfig.Mode.ROWS);
+        var oneDayPastRetention = Instant.now().minusMillis(MAX_RETAIN_MILLIS).minusMillis(TimeUnit.DAYS.toMillis(1));
+        when(auditRecordDao.findOldestAuditTimestamp()).thenReturn(oneDayPastRetention);
+
+        job.run();
+
+        assertThat((Long) gaugeValue("retentionLagMillis"))
+                .isGreaterThanOrEqualTo(TimeUnit.DAYS.toMillis(1))
+                .isLessThan(TimeUnit.DAYS.toMillis(1) + 1_000);
     }
 
     @Test
-    void shouldAttemptToDeleteOldAudits() {
-        when(auditRecordDao.deleteAuditRecordsOlderThan(any(Instant.class))).thenReturn(1);
+    void shouldReportHowFarTheOldestRecordIsBehindTheOldestRetainedMonth_WhenInPartitionsMode() {
+        var oldestRetainedMonthStart = oldestRetainedMonthStart();
+        when(auditRecordDao.findOldestAuditTimestamp()).thenReturn(oldestRetainedMonthStart.minusMillis(TimeUnit.DAYS.toMillis(1)));
 
-        var now = Instant.now();
         job.run();
 
-        verify(auditRecordDao).deleteAuditRecordsOlderThan(argThat(i -> i.isAfter(now.minusMillis(150))));
+        assertThat(gaugeValue("retentionLagMillis")).isEqualTo(TimeUnit.DAYS.toMillis(1));
+    }
+
+    @Test
+    void shouldReportNoLagForRecordsInTheOldestRetainedMonth_WhenInPartitionsMode() {
+        when(auditRecordDao.findOldestAuditTimestamp()).thenReturn(oldestRetainedMonthStart());
+
+        job.run();
+
+        assertThat(gaugeValue("retentionLagMillis")).isEqualTo(0L);
+    }
+
+    @Test
+    void shouldReportNoLag_WhenThereAreNoExpiredRecords() {
+        when(auditRecordDao.findOldestAuditTimestamp()).thenReturn(Instant.now());
+
+        job.run();
+
+        assertThat(gaugeValue("retentionLagMillis")).isEqualTo(0L);
+    }
+
+    private static Instant oldestRetainedMonthStart() {
+        return YearMonth.from(Instant.now().minusMillis(MAX_RETAIN_MILLIS).atZone(ZoneOffset.UTC))
+                .atDay(1)
+                .atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+    }
+
+    private Object gaugeValue(String name) {
+        return ((Gauge<?>) metrics.getGauges().get(MetricRegistry.name(CleanOutAuditsJob.class, name))).getValue();
     }
 }
@@ -0,0 +1,38 @@
+package org.kiwiproject.champagne.job;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
+
+@DisplayName("CreateAuditPartitionsJob")
+class CreateAuditPartitionsJobTest {
+
+    private AuditRecordDao auditRecordDao;
+    private CreateAuditPartitionsJob job;
+
+    @BeforeEach
+    void setUp() {
+        auditRecordDao = mock(AuditRecordDao.class);
+        job = new CreateAuditPartitionsJob(auditRecordDao, 2);
+    }
+
+    @Test
+    void shouldCreatePartitionsForTheCurrentAndUpcomingMonths() {
+        var currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+        job.run();
+
+        verify(auditRecordDao).createMonthlyPartition(currentMonth.atDay(1));
+        verify(auditRecordDao).createMonthlyPartition(currentMonth.plusMonths(1).atDay(1));
+        verify(auditRecordDao).createMonthlyPartition(currentMonth.plusMonths(2).atDay(1));
+        verifyNoMoreInteractions(auditRecordDao);
+    }
+}
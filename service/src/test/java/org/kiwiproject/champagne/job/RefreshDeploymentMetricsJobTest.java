@@ -0,0 +1,31 @@
+package org.kiwiproject.champagne.job;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.champagne.dao.DeploymentMetricsDao;
+
+@DisplayName("RefreshDeploymentMetricsJob")
+class RefreshDeploymentMetricsJobTest {
+
+    private DeploymentMetricsDao deploymentMetricsDao;
+    private RefreshDeploymentMetricsJob job;
+
+    @BeforeEach
+    void setUp() {
+        deploymentMetricsDao = mock(DeploymentMetricsDao.class);
+        job = new RefreshDeploymentMetricsJob(deploymentMetricsDao);
+    }
+
+    @Test
+    void shouldRefreshBothViews() {
+        job.run();
+
+        var inOrder = inOrder(deploymentMetricsDao);
+        inOrder.verify(deploymentMetricsDao).refreshDeploymentDailyStats();
+        inOrder.verify(deploymentMetricsDao).refreshDeploymentExecutionDailyStats();
+    }
+}
@@ -0,0 +1,58 @@
+package org.kiwiproject.champagne.job;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.champagne.dao.BuildMetricsDao;
+
+@DisplayName("RollUpBuildCountsJob")
+class RollUpBuildCountsJobTest {
+
+    private BuildMetricsDao buildMetricsDao;
+    private RollUpBuildCountsJob job;
+
+    @BeforeEach
+    void setUp() {
+        buildMetricsDao = mock(BuildMetricsDao.class);
+        job = new RollUpBuildCountsJob(buildMetricsDao);
+    }
+
+    @Test
+    void shouldRollUpBuildCountsSinceYesterday_WhenNothingRolledUpYet() {
+        var yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        when(buildMetricsDao.findLastBuildDate()).thenReturn(Optional.empty());
+        when(buildMetricsDao.rollUpBuildCountsSince(yesterday)).thenReturn(1);
+
+        job.run();
+
+        verify(buildMetricsDao).rollUpBuildCountsSince(yesterday);
+    }
+
+    @Test
+    void shouldRollUpBuildCountsSinceYesterday_WhenTodayAlreadyRolledUp() {
+        var today = LocalDate.now(ZoneOffset.UTC);
+        when(buildMetricsDao.findLastBuildDate()).thenReturn(Optional.of(today));
+
+        job.run();
+
+        verify(buildMetricsDao).rollUpBuildCountsSince(today.minusDays(1));
+    }
+
+    @Test
+    void shouldRollUpBuildCountsSinceDayBeforeLastRolledUpDate() {
+        var lastBuildDate = LocalDate.now(ZoneOffset.UTC).minusDays(5);
+        when(buildMetricsDao.findLastBuildDate()).thenReturn(Optional.of(lastBuildDate));
+
+        job.run();
+
+        verify(buildMetricsDao).rollUpBuildCountsSince(lastBuildDate.minusDays(1));
+    }
+}
@@ -0,0 +1,36 @@
+package org.kiwiproject.champagne.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CursorPage")
+class CursorPageTest {
+
+    @Test
+    void shouldDropTheExtraRowAndUseTheLastRowForTheNextCursor() {
+        var page = CursorPage.of(List.of(3L, 2L, 1L), 2, id -> Long.toString(id), null);
+
+        assertThat(page.getContent()).containsExactly(3L, 2L);
+        assertThat(page.getNextCursor()).isEqualTo("2");
+    }
+
+    @Test
+    void shouldHaveNoNextCursorOnTheLastPage() {
+        var page = CursorPage.of(List.of(1L), 2, id -> Long.toString(id), 1L);
+
+        assertThat(page.getContent()).containsExactly(1L);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getTotalElements()).isOne();
+    }
+
+    @Test
+    void shouldRejectSizeLessThanOne() {
+        assertThatThrownBy(() -> CursorPage.of(List.of(1L), 0, id -> Long.toString(id), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
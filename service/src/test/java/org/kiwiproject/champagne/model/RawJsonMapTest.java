@@ -0,0 +1,41 @@
+package org.kiwiproject.champagne.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.kiwiproject.test.constants.KiwiTestConstants.JSON_HELPER;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RawJsonMap")
+class RawJsonMapTest {
+
+    @Test
+    void shouldWriteOriginalJsonWithoutParsingWhenNotRead() {
+        var parseCount = new AtomicInteger();
+        var map = new RawJsonMap("{\"region\":  \"east\"}", json -> {
+            parseCount.incrementAndGet();
+            return JSON_HELPER.toMap(json);
+        });
+
+        assertThat(JSON_HELPER.toJson(Map.of("info", map))).isEqualTo("{\"info\":{\"region\":  \"east\"}}");
+        assertThat(parseCount).hasValue(0);
+    }
+
+    @Test
+    void shouldParseOnceWhenRead() {
+        var parseCount = new AtomicInteger();
+        var map = new RawJsonMap("{\"region\": \"east\", \"zone\": null}", json -> {
+            parseCount.incrementAndGet();
+            return JSON_HELPER.toMap(json);
+        });
+
+        assertThat(map).containsEntry("region", "east").containsEntry("zone", null).hasSize(2);
+        assertThat(map).isEqualTo(JSON_HELPER.toMap("{\"region\": \"east\", \"zone\": null}"));
+        assertThat(parseCount).hasValue(1);
+
+        assertThat(JSON_HELPER.toMap(JSON_HELPER.toJson(map))).isEqualTo(map);
+    }
+}
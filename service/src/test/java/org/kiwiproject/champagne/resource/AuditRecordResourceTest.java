@@ -1,31 +1,45 @@
 package org.kiwiproject.champagne.resource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.collect.KiwiLists.first;
+import static org.kiwiproject.test.constants.KiwiTestConstants.JSON_HELPER;
+import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertBadRequest;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertOkResponse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.HttpHeaders;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.junit.jupiter.DeployableSystemExtension;
 import org.kiwiproject.champagne.junit.jupiter.JwtExtension;
 import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
+import org.kiwiproject.champagne.model.AuditRecordFilter;
+import org.kiwiproject.champagne.model.CursorPage;
 import org.kiwiproject.champagne.model.User;
+import org.kiwiproject.champagne.util.Cursors;
 import org.kiwiproject.dropwizard.util.exception.JerseyViolationExceptionMapper;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
 import org.kiwiproject.spring.data.KiwiPage;
@@ -35,7 +49,10 @@ import org.kiwiproject.spring.data.KiwiPage;
 class AuditRecordResourceTest {
 
     private static final AuditRecordDao AUDIT_RECORD_DAO = mock(AuditRecordDao.class);
-    private static final AuditRecordResource RESOURCE = new AuditRecordResource(AUDIT_RECORD_DAO);
+    private static final AuditRecordResource RESOURCE = new AuditRecordResource(AUDIT_RECORD_DAO, JSON_HELPER);
+
+    private static final AuditRecordFilter SYSTEM_FILTER = AuditRecordFilter.builder().deployableSystemId(1L).build();
+    private static final AuditRecordFilter ALL_SYSTEMS_FILTER = AuditRecordFilter.builder().build();
 
     private static final ResourceExtension RESOURCES = ResourceExtension.builder()
             .bootstrapLogging(false)
@@ -218,4 +235,313 @@ class AuditRecordResourceTest {
             verifyNoMoreInteractions(AUDIT_RECORD_DAO);
         }
     }
+
+    @Nested
+    class GetAuditsForSystemByCursor {
+
+        @Test
+        void shouldReturnFirstPageWithNextCursorAndNoTotal() {
+            var timestamp = Instant.parse("2023-05-01T12:00:00Z");
+            var audits = List.of(
+                    AuditRecord.builder().id(3L).timestamp(timestamp).action(Action.CREATED).deployableSystemId(1L).build(),
+                    AuditRecord.builder().id(2L).timestamp(timestamp).action(Action.CREATED).deployableSystemId(1L).build(),
+                    AuditRecord.builder().id(1L).timestamp(timestamp).action(Action.CREATED).deployableSystemId(1L).build());
+
+            when(AUDIT_RECORD_DAO.findAuditRecordsAfterCursor(SYSTEM_FILTER, null, 3)).thenReturn(audits);
+
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("pageSize", 2)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<CursorPage<AuditRecord>>() {
+            });
+
+            assertThat(result.getContent()).extracting("id").containsExactly(3L, 2L);
+            assertThat(result.getNextCursor()).isEqualTo(Cursors.encode(timestamp, 2L));
+            assertThat(result.getTotalElements()).isNull();
+
+            verify(AUDIT_RECORD_DAO).findAuditRecordsAfterCursor(SYSTEM_FILTER, null, 3);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnLastPageFromCursorWithTotalWhenRequested() {
+            var timestamp = Instant.parse("2023-05-01T12:00:00Z");
+            var auditRecord = AuditRecord.builder().id(1L).timestamp(timestamp).action(Action.CREATED).deployableSystemId(1L).build();
+            var cursor = new Cursors.Cursor(timestamp, 2L);
+
+            when(AUDIT_RECORD_DAO.findAuditRecordsAfterCursor(SYSTEM_FILTER, cursor, 3)).thenReturn(List.of(auditRecord));
+            when(AUDIT_RECORD_DAO.countAuditRecords(SYSTEM_FILTER)).thenReturn(3L);
+
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("cursor", Cursors.encode(timestamp, 2L))
+                    .queryParam("pageSize", 2)
+                    .queryParam("includeTotal", true)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<CursorPage<AuditRecord>>() {
+            });
+
+            assertThat(result.getContent()).extracting("id").containsExactly(1L);
+            assertThat(result.getNextCursor()).isNull();
+            assertThat(result.getTotalElements()).isEqualTo(3L);
+
+            verify(AUDIT_RECORD_DAO).findAuditRecordsAfterCursor(SYSTEM_FILTER, cursor, 3);
+            verify(AUDIT_RECORD_DAO).countAuditRecords(SYSTEM_FILTER);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldSearchWithTheGivenFilters() {
+            var expectedFilter = AuditRecordFilter.builder()
+                    .deployableSystemId(1L)
+                    .recordType("Host")
+                    .recordId(1234L)
+                    .userSystemIdentifier("jdoe")
+                    .action(Action.UPDATED)
+                    .from(Instant.parse("2023-05-01T00:00:00Z"))
+                    .to(Instant.parse("2023-06-01T00:00:00Z"))
+                    .build();
+
+            when(AUDIT_RECORD_DAO.findAuditRecordsAfterCursor(expectedFilter, null, 51)).thenReturn(List.of());
+
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("recordType", "Host")
+                    .queryParam("recordId", 1234)
+                    .queryParam("userSystemIdentifier", "jdoe")
+                    .queryParam("action", "updated")
+                    .queryParam("from", "2023-05-01T00:00:00Z")
+                    .queryParam("to", "2023-06-01T00:00:00Z")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<CursorPage<AuditRecord>>() {
+            });
+
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.getNextCursor()).isNull();
+
+            verify(AUDIT_RECORD_DAO).findAuditRecordsAfterCursor(expectedFilter, null, 51);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestForInvalidAction() {
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("action", "RENAMED")
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestForInvalidTimeRange() {
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("from", "yesterday")
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = { -1, 0, Cursors.MAX_PAGE_SIZE + 1, Integer.MAX_VALUE })
+        void shouldReturnBadRequestForPageSizeOutOfBounds(int pageSize) {
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("pageSize", pageSize)
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestForInvalidCursor() {
+            var response = RESOURCES.client()
+                    .target("/audit/cursor")
+                    .queryParam("cursor", "not-a-cursor")
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+    }
+
+    @Nested
+    class GetAuditsByCursor {
+
+        @Test
+        void shouldReturnPageOfAuditRecordsOfAllSystems() {
+            var timestamp = Instant.parse("2023-05-01T12:00:00Z");
+            var auditRecord = AuditRecord.builder().id(1L).timestamp(timestamp).action(Action.CREATED).deployableSystemId(2L).build();
+
+            when(AUDIT_RECORD_DAO.findAuditRecordsAfterCursor(ALL_SYSTEMS_FILTER, null, 51)).thenReturn(List.of(auditRecord));
+            when(AUDIT_RECORD_DAO.countAuditRecords(ALL_SYSTEMS_FILTER)).thenReturn(1L);
+
+            var response = RESOURCES.client()
+                    .target("/audit/all/cursor")
+                    .queryParam("includeTotal", true)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<CursorPage<AuditRecord>>() {
+            });
+
+            assertThat(result.getContent()).extracting("id", "deployableSystemId").containsExactly(tuple(1L, 2L));
+            assertThat(result.getNextCursor()).isNull();
+            assertThat(result.getTotalElements()).isOne();
+
+            verify(AUDIT_RECORD_DAO).findAuditRecordsAfterCursor(ALL_SYSTEMS_FILTER, null, 51);
+            verify(AUDIT_RECORD_DAO).countAuditRecords(ALL_SYSTEMS_FILTER);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestForPageSizeOutOfBounds() {
+            var response = RESOURCES.client()
+                    .target("/audit/all/cursor")
+                    .queryParam("pageSize", 0)
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+    }
+
+    @Nested
+    class ExportAuditsForSystem {
+
+        @Test
+        void shouldStreamAuditRecordsAsNdjsonByDefault() {
+            var auditRecords = List.of(
+                    AuditRecord.builder().id(1L).recordId(42L).recordType("Host").action(Action.CREATED).deployableSystemId(1L).build(),
+                    AuditRecord.builder().id(2L).recordId(42L).recordType("Host").action(Action.UPDATED).deployableSystemId(1L).build());
+
+            doAnswer(invocation -> {
+                Consumer<AuditRecord> consumer = invocation.getArgument(1);
+                auditRecords.forEach(consumer);
+                return null;
+            }).when(AUDIT_RECORD_DAO).forEachAuditRecord(eq(SYSTEM_FILTER), any());
+
+            var response = RESOURCES.client()
+                    .target("/audit/export")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+            assertThat(response.getMediaType().toString()).isEqualTo("application/x-ndjson");
+            assertThat(response.getHeaderString(HttpHeaders.CONTENT_DISPOSITION)).contains("audit-records.ndjson");
+
+            var lines = response.readEntity(String.class).lines().toList();
+            assertThat(lines).hasSize(2);
+            assertThat(JSON_HELPER.toMap(lines.get(0))).containsEntry("id", 1).containsEntry("action", "CREATED");
+            assertThat(JSON_HELPER.toMap(lines.get(1))).containsEntry("id", 2).containsEntry("action", "UPDATED");
+
+            verify(AUDIT_RECORD_DAO).forEachAuditRecord(eq(SYSTEM_FILTER), any());
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldStreamAuditRecordsAsCsv() {
+            var auditRecord = AuditRecord.builder()
+                    .id(1L)
+                    .timestamp(Instant.parse("2023-05-01T12:00:00Z"))
+                    .userSystemIdentifier("doe, \"jd\"")
+                    .recordId(42L)
+                    .recordType("Host")
+                    .action(Action.CREATED)
+                    .deployableSystemId(1L)
+                    .build();
+
+            doAnswer(invocation -> {
+                Consumer<AuditRecord> consumer = invocation.getArgument(1);
+                consumer.accept(auditRecord);
+                return null;
+            }).when(AUDIT_RECORD_DAO).forEachAuditRecord(eq(SYSTEM_FILTER), any());
+
+            var response = RESOURCES.client()
+                    .target("/audit/export")
+                    .queryParam("format", "csv")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+            assertThat(response.getMediaType().toString()).isEqualTo("text/csv");
+
+            assertThat(response.readEntity(String.class).lines()).containsExactly(
+                    "id,timestamp,deployableSystemId,userSystemIdentifier,action,recordType,recordId",
+                    "1,2023-05-01T12:00:00Z,1,\"doe, \"\"jd\"\"\",CREATED,Host,42");
+        }
+
+        @Test
+        void shouldReturnBadRequestForInvalidFormat() {
+            var response = RESOURCES.client()
+                    .target("/audit/export")
+                    .queryParam("format", "xml")
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+    }
+
+    @Nested
+    class ExportAudits {
+
+        @Test
+        void shouldStreamAuditRecordsOfAllSystemsMatchingTheFilters() {
+            var expectedFilter = AuditRecordFilter.builder()
+                    .from(Instant.parse("2023-01-01T00:00:00Z"))
+                    .to(Instant.parse("2023-04-01T00:00:00Z"))
+                    .build();
+
+            var response = RESOURCES.client()
+                    .target("/audit/all/export")
+                    .queryParam("from", "2023-01-01T00:00:00Z")
+                    .queryParam("to", "2023-04-01T00:00:00Z")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+            assertThat(response.readEntity(String.class)).isEmpty();
+
+            verify(AUDIT_RECORD_DAO).forEachAuditRecord(eq(expectedFilter), any());
+
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+    }
 }
@@ -1,11 +1,16 @@
 package org.kiwiproject.champagne.resource;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertOkResponse;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.List;
 
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
@@ -20,6 +25,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.kiwiproject.champagne.dao.AuditRecordDao;
 import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.User;
+import org.kiwiproject.champagne.service.AuditRecordWriter;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.champagne.util.AuthHelper;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.test.junit.jupiter.ApplicationErrorExtension;
@@ -31,8 +39,9 @@ class AuditableResourceTest {
 
     private static final AuditRecordDao AUDIT_RECORD_DAO = mock(AuditRecordDao.class);
     private static final ApplicationErrorDao APPLICATION_ERROR_DAO = mock(ApplicationErrorDao.class);
+    private static final SystemResponseCache RESPONSE_CACHE = mock(SystemResponseCache.class);
 
-    private static final TestResource TEST_RESOURCE = new TestResource(AUDIT_RECORD_DAO, APPLICATION_ERROR_DAO);
+    private static final TestResource TEST_RESOURCE = new TestResource(new SyncAuditRecordWriter(AUDIT_RECORD_DAO), RESPONSE_CACHE, APPLICATION_ERROR_DAO);
 
     private static final ResourceExtension APP = ResourceExtension.builder()
             .bootstrapLogging(false)
@@ -42,7 +51,7 @@ class AuditableResourceTest {
 
     @AfterEach
     void clearMocks() {
-        reset(AUDIT_RECORD_DAO);
+        reset(AUDIT_RECORD_DAO, RESPONSE_CACHE);
     }
 
     @Nested
@@ -61,6 +70,20 @@ class AuditableResourceTest {
             verify(AUDIT_RECORD_DAO).insertAuditRecord(argThat(auditRecord -> auditRecord.getUserSystemIdentifier().equals("Bob")));
         }
 
+        @Test
+        void shouldInvalidateCachedResponsesOfTheCurrentSystem() {
+            TEST_RESOURCE.setupAuth = true;
+
+            var response = APP.client().target("/record")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            verify(RESPONSE_CACHE).invalidateSystem(isNull());
+            verifyNoMoreInteractions(RESPONSE_CACHE);
+        }
+
         @Test
         void shouldNotRecordActionWhenPrincipalIsMissing() {
             TEST_RESOURCE.setupAuth = false;
@@ -75,13 +98,91 @@ class AuditableResourceTest {
         }
     }
 
+    @Nested
+    class AuditActions {
+
+        @Test
+        void shouldRecordAllActionsInOneBatchWhenPrincipalExists() {
+            TEST_RESOURCE.setupAuth = true;
+
+            var response = APP.client().target("/records")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            verify(AUDIT_RECORD_DAO).insertAuditRecords(argThat(auditRecords -> auditRecords.size() == 2
+                    && auditRecords.stream().allMatch(auditRecord -> auditRecord.getUserSystemIdentifier().equals("Bob"))));
+            verifyNoMoreInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldNotRecordActionsWhenPrincipalIsMissing() {
+            TEST_RESOURCE.setupAuth = false;
+
+            var response = APP.client().target("/records")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            verifyNoInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldInvalidateCachedResponsesOfTheCurrentSystem() {
+            TEST_RESOURCE.setupAuth = true;
+
+            var response = APP.client().target("/records")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            verify(RESPONSE_CACHE).invalidateSystem(isNull());
+            verifyNoMoreInteractions(RESPONSE_CACHE);
+        }
+    }
+
+    @Nested
+    class NewAuditRecordTemplate {
+
+        @Test
+        void shouldReturnTemplateForCurrentUserWhenPrincipalExists() {
+            TEST_RESOURCE.setupAuth = true;
+
+            var response = APP.client().target("/template")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+            assertThat(response.readEntity(String.class)).isEqualTo("Bob CREATED");
+
+            verifyNoInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnEmptyWhenPrincipalIsMissing() {
+            TEST_RESOURCE.setupAuth = false;
+
+            var response = APP.client().target("/template")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+            assertThat(response.readEntity(String.class)).isEqualTo("none");
+
+            verifyNoInteractions(AUDIT_RECORD_DAO);
+        }
+    }
+
     @Path("/")
     public static class TestResource extends AuditableResource {
 
         public boolean setupAuth;
 
-        public TestResource(AuditRecordDao auditRecordDao, ApplicationErrorDao errorDao) {
-            super(auditRecordDao, errorDao);
+        public TestResource(AuditRecordWriter auditRecordWriter, SystemResponseCache responseCache, ApplicationErrorDao errorDao) {
+            super(auditRecordWriter, responseCache, errorDao);
         }
 
         @GET
@@ -99,5 +200,33 @@ class AuditableResourceTest {
             return Response.ok().build();
         }
 
+        @GET
+        @Path("/records")
+        public Response multipleRecords() {
+            if (setupAuth) {
+                AuthHelper.setupCurrentPrincipalFor("Bob");
+            }
+
+            auditActions(List.of(1L, 2L), User.class, AuditRecord.Action.UPDATED);
+
+            AuthHelper.removePrincipal();
+
+            return Response.ok().build();
+        }
+
+        @GET
+        @Path("/template")
+        public Response template() {
+            if (setupAuth) {
+                AuthHelper.setupCurrentPrincipalFor("Bob");
+            }
+
+            var template = newAuditRecordTemplate(User.class, AuditRecord.Action.CREATED);
+
+            AuthHelper.removePrincipal();
+
+            return Response.ok(template.map(audit -> audit.getUserSystemIdentifier() + " " + audit.getAction()).orElse("none")).build();
+        }
+
     }
 }
@@ -2,17 +2,24 @@ package org.kiwiproject.champagne.resource;
 
 import static jakarta.ws.rs.client.Entity.json;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.kiwiproject.test.constants.KiwiTestConstants.JSON_HELPER;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertAcceptedResponse;
+import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertBadRequest;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertOkResponse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -25,13 +32,19 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.kiwiproject.champagne.dao.BuildDao;
+import org.kiwiproject.champagne.dao.Counted;
 import org.kiwiproject.champagne.junit.jupiter.DeployableSystemExtension;
 import org.kiwiproject.champagne.junit.jupiter.JwtExtension;
 import org.kiwiproject.champagne.model.Build;
+import org.kiwiproject.champagne.model.CursorPage;
+import org.kiwiproject.champagne.util.Cursors;
 import org.kiwiproject.dropwizard.util.exception.JerseyViolationExceptionMapper;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
 import org.kiwiproject.spring.data.KiwiPage;
+import org.mockito.ArgumentCaptor;
 
 @DisplayName("BuildResource")
 @ExtendWith({DropwizardExtensionsSupport.class, DeployableSystemExtension.class})
@@ -74,8 +87,7 @@ class BuildResourceTest {
                     .deployableSystemId(1L)
                     .build();
 
-            when(BUILD_DAO.findPagedBuilds(0, 10, 1L, null)).thenReturn(List.of(build));
-            when(BUILD_DAO.countBuilds(1L, null)).thenReturn(1L);
+            when(BUILD_DAO.findPagedBuildsWithTotalCount(0, 10, 1L, null)).thenReturn(List.of(new Counted<>(build, 1L)));
 
             var response = RESOURCES.client()
                     .target("/build")
@@ -92,8 +104,93 @@ class BuildResourceTest {
             assertThat(result.getNumber()).isOne();
             assertThat(result.getTotalElements()).isOne();
 
-            verify(BUILD_DAO).findPagedBuilds(0, 10, 1L, null);
-            verify(BUILD_DAO).countBuilds(1L, null);
+            verify(BUILD_DAO).findPagedBuildsWithTotalCount(0, 10, 1L, null);
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldFallBackToCountQueryForPagePastTheEnd() {
+            when(BUILD_DAO.findPagedBuildsWithTotalCount(20, 10, 1L, "champagne")).thenReturn(List.of());
+            when(BUILD_DAO.countBuilds(1L, "champagne")).thenReturn(12L);
+
+            var response = RESOURCES.client()
+                    .target("/build")
+                    .queryParam("pageNumber", 3)
+                    .queryParam("pageSize", 10)
+                    .queryParam("componentFilter", "champagne")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<KiwiPage<Build>>() {
+            });
+
+            assertThat(result.getContent()).isEmpty();
+            assertThat(result.getTotalElements()).isEqualTo(12L);
+
+            verify(BUILD_DAO).findPagedBuildsWithTotalCount(20, 10, 1L, "champagne");
+            verify(BUILD_DAO).countBuilds(1L, "champagne");
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldFilterByExtraInfo() {
+            var build = Build.builder()
+                    .id(1L)
+                    .componentIdentifier("champagne_service")
+                    .extraDeploymentInfo(Map.of("region", "east"))
+                    .build();
+
+            when(BUILD_DAO.findPagedBuildsWithTotalCountWithExtraInfoFilter(0, 10, 1L, "{\"region\":\"east\"}"))
+                    .thenReturn(List.of(new Counted<>(build, 1L)));
+
+            var response = RESOURCES.client()
+                    .target("/build")
+                    .queryParam("pageNumber", 1)
+                    .queryParam("pageSize", 10)
+                    .queryParam("extraInfo", encodedJson("{\"region\": \"east\"}"))
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<KiwiPage<Build>>() {
+            });
+
+            assertThat(result.getTotalElements()).isOne();
+            assertThat(result.getContent()).extracting("id").containsExactly(1L);
+
+            verify(BUILD_DAO).findPagedBuildsWithTotalCountWithExtraInfoFilter(0, 10, 1L, "{\"region\":\"east\"}");
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestWhenExtraInfoIsNotJsonObject() {
+            var response = RESOURCES.client()
+                    .target("/build")
+                    .queryParam("extraInfo", "east")
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestWhenExtraInfoIsCombinedWithComponentFilter() {
+            var response = RESOURCES.client()
+                    .target("/build")
+                    .queryParam("componentFilter", "champagne")
+                    .queryParam("extraInfo", encodedJson("{\"region\": \"east\"}"))
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
 
             verifyNoMoreInteractions(BUILD_DAO);
         }
@@ -113,8 +210,7 @@ class BuildResourceTest {
                     .deployableSystemId(1L)
                     .build();
 
-            when(BUILD_DAO.findPagedBuilds(0, 50, 1L, null)).thenReturn(List.of(build));
-            when(BUILD_DAO.countBuilds(1L, null)).thenReturn(1L);
+            when(BUILD_DAO.findPagedBuildsWithTotalCount(0, 50, 1L, null)).thenReturn(List.of(new Counted<>(build, 1L)));
 
             var response = RESOURCES.client()
                     .target("/build")
@@ -130,8 +226,109 @@ class BuildResourceTest {
             assertThat(result.getSize()).isEqualTo(50);
             assertThat(result.getTotalElements()).isOne();
 
-            verify(BUILD_DAO).findPagedBuilds(0, 50, 1L, null);
-            verify(BUILD_DAO).countBuilds(1L, null);
+            verify(BUILD_DAO).findPagedBuildsWithTotalCount(0, 50, 1L, null);
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+    }
+
+    /**
+     * Query param values are URI templates to the test client, so the braces of a JSON value must be encoded.
+     */
+    private static String encodedJson(String json) {
+        return URLEncoder.encode(json, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    @Nested
+    class ListBuildsByCursor {
+
+        @Test
+        void shouldReturnFirstPageWithNextCursorAndNoTotal() {
+            var createdAt = Instant.parse("2023-05-01T12:00:00Z");
+            var builds = List.of(
+                    Build.builder().id(3L).createdAt(createdAt).componentIdentifier("champagne_service").build(),
+                    Build.builder().id(2L).createdAt(createdAt).componentIdentifier("champagne_service").build(),
+                    Build.builder().id(1L).createdAt(createdAt).componentIdentifier("champagne_service").build());
+
+            when(BUILD_DAO.findBuildsAfterCursor(null, 3, 1L, null)).thenReturn(builds);
+
+            var response = RESOURCES.client()
+                    .target("/build/cursor")
+                    .queryParam("pageSize", 2)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<CursorPage<Build>>() {
+            });
+
+            assertThat(result.getContent()).extracting("id").containsExactly(3L, 2L);
+            assertThat(result.getSize()).isEqualTo(2);
+            assertThat(result.getNextCursor()).isEqualTo(Cursors.encode(createdAt, 2L));
+            assertThat(result.getTotalElements()).isNull();
+
+            verify(BUILD_DAO).findBuildsAfterCursor(null, 3, 1L, null);
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldReturnLastPageFromCursorWithTotalWhenRequested() {
+            var createdAt = Instant.parse("2023-05-01T12:00:00Z");
+            var build = Build.builder().id(1L).createdAt(createdAt).componentIdentifier("champagne_service").build();
+            var cursor = new Cursors.Cursor(createdAt, 2L);
+
+            when(BUILD_DAO.findBuildsAfterCursor(cursor, 3, 1L, "champagne")).thenReturn(List.of(build));
+            when(BUILD_DAO.countBuilds(1L, "champagne")).thenReturn(3L);
+
+            var response = RESOURCES.client()
+                    .target("/build/cursor")
+                    .queryParam("cursor", Cursors.encode(createdAt, 2L))
+                    .queryParam("pageSize", 2)
+                    .queryParam("componentFilter", "champagne")
+                    .queryParam("includeTotal", true)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<CursorPage<Build>>() {
+            });
+
+            assertThat(result.getContent()).extracting("id").containsExactly(1L);
+            assertThat(result.getNextCursor()).isNull();
+            assertThat(result.getTotalElements()).isEqualTo(3L);
+
+            verify(BUILD_DAO).findBuildsAfterCursor(cursor, 3, 1L, "champagne");
+            verify(BUILD_DAO).countBuilds(1L, "champagne");
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = { -1, 0, Cursors.MAX_PAGE_SIZE + 1, Integer.MAX_VALUE })
+        void shouldReturnBadRequestForPageSizeOutOfBounds(int pageSize) {
+            var response = RESOURCES.client()
+                    .target("/build/cursor")
+                    .queryParam("pageSize", pageSize)
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestForInvalidCursor() {
+            var response = RESOURCES.client()
+                    .target("/build/cursor")
+                    .queryParam("cursor", "not-a-cursor")
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
 
             verifyNoMoreInteractions(BUILD_DAO);
         }
@@ -197,4 +394,68 @@ class BuildResourceTest {
             verifyNoMoreInteractions(BUILD_DAO);
         }
     }
+
+    @Nested
+    class AddNewBuilds {
+
+        @Test
+        void shouldSaveAllBuildsAndReturnTheirIds() {
+            var builds = List.of(
+                    newBuild("champagne_service", 2L),
+                    newBuild("champagne_ui", null));
+
+            when(BUILD_DAO.insertBuilds(anyList(), anyList())).thenReturn(List.of(10L, 11L));
+
+            var response = RESOURCES.client()
+                    .target("/build/bulk")
+                    .request()
+                    .post(json(builds));
+
+            assertOkResponse(response);
+
+            var ids = response.readEntity(new GenericType<List<Long>>() {
+            });
+            assertThat(ids).containsExactly(10L, 11L);
+
+            var buildsCaptor = ArgumentCaptor.forClass(List.class);
+            verify(BUILD_DAO).insertBuilds(buildsCaptor.capture(), eq(List.of("{}", "{}")));
+
+            assertThat(buildsCaptor.getValue())
+                    .extracting("componentIdentifier", "deployableSystemId")
+                    .containsExactly(tuple("champagne_service", 2L), tuple("champagne_ui", 1L));
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        @Test
+        void shouldNotInsertAnythingForEmptyList() {
+            var response = RESOURCES.client()
+                    .target("/build/bulk")
+                    .request()
+                    .post(json(List.of()));
+
+            assertOkResponse(response);
+
+            var ids = response.readEntity(new GenericType<List<Long>>() {
+            });
+            assertThat(ids).isEmpty();
+
+            verifyNoMoreInteractions(BUILD_DAO);
+        }
+
+        private Build newBuild(String componentIdentifier, Long systemId) {
+            return Build.builder()
+                    .repoNamespace("kiwiproject")
+                    .repoName("champagne-service")
+                    .commitRef("abc1234")
+                    .commitUser("jdoe")
+                    .sourceBranch("main")
+                    .componentIdentifier(componentIdentifier)
+                    .componentVersion("42.0.0")
+                    .distributionLocation("https://some-nexus-server.net/foo")
+                    .extraDeploymentInfo(Map.of())
+                    .deployableSystemId(systemId)
+                    .build();
+        }
+    }
 }
@@ -19,6 +19,7 @@ import static org.mockito.Mockito.when;
 import java.util.List;
 import java.util.Optional;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.core.GenericType;
@@ -33,10 +34,15 @@ import org.kiwiproject.champagne.dao.DeploymentEnvironmentDao;
 import org.kiwiproject.champagne.dao.UserDao;
 import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.DeployableSystem;
+import org.kiwiproject.champagne.model.DeployableSystemAccess;
 import org.kiwiproject.champagne.model.User;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.champagne.util.JwtResourceHelper;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.test.junit.jupiter.ApplicationErrorExtension;
+import org.kiwiproject.json.JsonHelper;
 import org.kiwiproject.spring.data.KiwiPage;
 
 @DisplayName("DeployableSystemResource")
@@ -48,13 +54,15 @@ class DeployableSystemResourceTest {
     private static final ApplicationErrorDao APPLICATION_ERROR_DAO = mock(ApplicationErrorDao.class);
     private static final UserDao USER_DAO = mock(UserDao.class);
     private static final DeploymentEnvironmentDao DEPLOYMENT_ENVIRONMENT_DAO = mock(DeploymentEnvironmentDao.class);
+    private static final DeployableSystemAccessCache SYSTEM_ACCESS_CACHE = mock(DeployableSystemAccessCache.class);
 
-    private static final DeployableSystemResource RESOURCE = new DeployableSystemResource(DEPLOYABLE_SYSTEM_DAO, USER_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO, APPLICATION_ERROR_DAO);
+    private static final SystemResponseCache RESPONSE_CACHE = new SystemResponseCache("maximumSize=100", JsonHelper.newDropwizardJsonHelper(), new MetricRegistry());
+    private static final DeployableSystemResource RESOURCE = new DeployableSystemResource(DEPLOYABLE_SYSTEM_DAO, USER_DAO, DEPLOYMENT_ENVIRONMENT_DAO, SYSTEM_ACCESS_CACHE, new SyncAuditRecordWriter(AUDIT_RECORD_DAO), RESPONSE_CACHE, APPLICATION_ERROR_DAO);
     private static final ResourceExtension RESOURCES = JwtResourceHelper.configureJwtResource(RESOURCE);
 
     @AfterEach
     void cleanup() {
-        reset(DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO, USER_DAO, DEPLOYMENT_ENVIRONMENT_DAO);
+        reset(DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO, USER_DAO, DEPLOYMENT_ENVIRONMENT_DAO, SYSTEM_ACCESS_CACHE);
     }
 
     @Nested
@@ -245,12 +253,14 @@ class DeployableSystemResourceTest {
 
         @Test
         void shouldUpdateTheDevEnvironmentForTheGivenSystem() {
-            var user = User.builder()
-                    .id(1L)
+            var access = DeployableSystemAccess.builder()
+                    .userId(1L)
+                    .systemId(2L)
+                    .member(true)
+                    .admin(true)
                     .build();
 
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.of(user));
-            when(DEPLOYABLE_SYSTEM_DAO.isUserAdminOfSystem(1L, 2L)).thenReturn(true);
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(access));
             when(DEPLOYABLE_SYSTEM_DAO.updateDevEnvironment(2L, 3L)).thenReturn(1);
 
             var token = generateJwt(true);
@@ -262,22 +272,23 @@ class DeployableSystemResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
-            verify(DEPLOYABLE_SYSTEM_DAO).isUserAdminOfSystem(1L, 2L);
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
             verify(DEPLOYABLE_SYSTEM_DAO).updateDevEnvironment(2L, 3L);
             verify(AUDIT_RECORD_DAO).insertAuditRecord(any(AuditRecord.class));
 
-            verifyNoMoreInteractions(USER_DAO, DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldNotAuditActionWhenNothingChanges() {
-            var user = User.builder()
-                    .id(1L)
+            var access = DeployableSystemAccess.builder()
+                    .userId(1L)
+                    .systemId(2L)
+                    .member(true)
+                    .admin(true)
                     .build();
 
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.of(user));
-            when(DEPLOYABLE_SYSTEM_DAO.isUserAdminOfSystem(1L, 2L)).thenReturn(true);
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(access));
             when(DEPLOYABLE_SYSTEM_DAO.updateDevEnvironment(2L, 3L)).thenReturn(0);
 
             var token = generateJwt(true);
@@ -289,22 +300,23 @@ class DeployableSystemResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
-            verify(DEPLOYABLE_SYSTEM_DAO).isUserAdminOfSystem(1L, 2L);
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
             verify(DEPLOYABLE_SYSTEM_DAO).updateDevEnvironment(2L, 3L);
 
-            verifyNoMoreInteractions(USER_DAO, DEPLOYABLE_SYSTEM_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO);
             verifyNoInteractions(AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldThrow403WhenUserIsNotAdminInSystem() {
-            var user = User.builder()
-                    .id(1L)
+            var access = DeployableSystemAccess.builder()
+                    .userId(1L)
+                    .systemId(2L)
+                    .member(true)
+                    .admin(false)
                     .build();
 
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.of(user));
-            when(DEPLOYABLE_SYSTEM_DAO.isUserAdminOfSystem(1L, 2L)).thenReturn(false);
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(access));
 
             var token = generateJwt(true);
             var response = RESOURCES.client()
@@ -315,16 +327,15 @@ class DeployableSystemResourceTest {
 
             assertUnauthorizedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
-            verify(DEPLOYABLE_SYSTEM_DAO).isUserAdminOfSystem(1L, 2L);
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
 
-            verifyNoMoreInteractions(USER_DAO, DEPLOYABLE_SYSTEM_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO);
             verifyNoInteractions(AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldThrow403WhenUserIsNotFound() {
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.empty());
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.empty());
 
             var token = generateJwt(true);
             var response = RESOURCES.client()
@@ -335,10 +346,10 @@ class DeployableSystemResourceTest {
 
             assertUnauthorizedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
 
-            verifyNoMoreInteractions(USER_DAO);
-            verifyNoInteractions(AUDIT_RECORD_DAO, DEPLOYABLE_SYSTEM_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO);
+            verifyNoInteractions(AUDIT_RECORD_DAO);
         }
     }
 
@@ -347,12 +358,14 @@ class DeployableSystemResourceTest {
 
         @Test
         void shouldUpdateTheEnvOrderForTheGivenSystem() {
-            var user = User.builder()
-                    .id(1L)
+            var access = DeployableSystemAccess.builder()
+                    .userId(1L)
+                    .systemId(2L)
+                    .member(true)
+                    .admin(true)
                     .build();
 
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.of(user));
-            when(DEPLOYABLE_SYSTEM_DAO.isUserAdminOfSystem(1L, 2L)).thenReturn(true);
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(access));
             when(DEPLOYABLE_SYSTEM_DAO.updateEnvironmentPromotionOrder(2L, "1,2,3")).thenReturn(1);
 
             var token = generateJwt(true);
@@ -364,22 +377,23 @@ class DeployableSystemResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
-            verify(DEPLOYABLE_SYSTEM_DAO).isUserAdminOfSystem(1L, 2L);
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
             verify(DEPLOYABLE_SYSTEM_DAO).updateEnvironmentPromotionOrder(2L, "1,2,3");
             verify(AUDIT_RECORD_DAO).insertAuditRecord(any(AuditRecord.class));
 
-            verifyNoMoreInteractions(USER_DAO, DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldNotAuditActionWhenNothingChanges() {
-            var user = User.builder()
-                    .id(1L)
+            var access = DeployableSystemAccess.builder()
+                    .userId(1L)
+                    .systemId(2L)
+                    .member(true)
+                    .admin(true)
                     .build();
 
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.of(user));
-            when(DEPLOYABLE_SYSTEM_DAO.isUserAdminOfSystem(1L, 2L)).thenReturn(true);
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(access));
             when(DEPLOYABLE_SYSTEM_DAO.updateEnvironmentPromotionOrder(2L, "1,2,3")).thenReturn(0);
 
             var token = generateJwt(true);
@@ -391,22 +405,23 @@ class DeployableSystemResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
-            verify(DEPLOYABLE_SYSTEM_DAO).isUserAdminOfSystem(1L, 2L);
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
             verify(DEPLOYABLE_SYSTEM_DAO).updateEnvironmentPromotionOrder(2L, "1,2,3");
 
-            verifyNoMoreInteractions(USER_DAO, DEPLOYABLE_SYSTEM_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO);
             verifyNoInteractions(AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldThrow403WhenUserIsNotAdminInSystem() {
-            var user = User.builder()
-                    .id(1L)
+            var access = DeployableSystemAccess.builder()
+                    .userId(1L)
+                    .systemId(2L)
+                    .member(true)
+                    .admin(false)
                     .build();
 
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.of(user));
-            when(DEPLOYABLE_SYSTEM_DAO.isUserAdminOfSystem(1L, 2L)).thenReturn(false);
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(access));
 
             var token = generateJwt(true);
             var response = RESOURCES.client()
@@ -417,16 +432,15 @@ class DeployableSystemResourceTest {
 
             assertUnauthorizedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
-            verify(DEPLOYABLE_SYSTEM_DAO).isUserAdminOfSystem(1L, 2L);
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
 
-            verifyNoMoreInteractions(USER_DAO, DEPLOYABLE_SYSTEM_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO);
             verifyNoInteractions(AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldThrow403WhenUserIsNotFound() {
-            when(USER_DAO.findBySystemIdentifier("bob")).thenReturn(Optional.empty());
+            when(DEPLOYABLE_SYSTEM_DAO.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.empty());
 
             var token = generateJwt(true);
             var response = RESOURCES.client()
@@ -437,10 +451,10 @@ class DeployableSystemResourceTest {
 
             assertUnauthorizedResponse(response);
 
-            verify(USER_DAO).findBySystemIdentifier("bob");
+            verify(DEPLOYABLE_SYSTEM_DAO).findAccessBySystemIdentifier("bob", 2L);
 
-            verifyNoMoreInteractions(USER_DAO);
-            verifyNoInteractions(AUDIT_RECORD_DAO, DEPLOYABLE_SYSTEM_DAO);
+            verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO);
+            verifyNoInteractions(AUDIT_RECORD_DAO);
         }
     }
 
@@ -462,6 +476,7 @@ class DeployableSystemResourceTest {
             assertNoContentResponse(response);
 
             verify(DEPLOYABLE_SYSTEM_DAO).deleteById(1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateSystem(1L);
             verify(AUDIT_RECORD_DAO).insertAuditRecord(any(AuditRecord.class));
 
             verifyNoMoreInteractions(DEPLOYABLE_SYSTEM_DAO, AUDIT_RECORD_DAO);
@@ -507,6 +522,7 @@ class DeployableSystemResourceTest {
             assertAcceptedResponse(response);
 
             verify(DEPLOYABLE_SYSTEM_DAO).insertOrUpdateSystemUser(1L, 2L, false);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(2L);
         }
     }
 
@@ -526,6 +542,7 @@ class DeployableSystemResourceTest {
             assertNoContentResponse(response);
 
             verify(DEPLOYABLE_SYSTEM_DAO).deleteUserFromSystem(1L, 1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
         }
     }
 }
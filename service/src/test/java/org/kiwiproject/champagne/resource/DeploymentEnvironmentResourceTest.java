@@ -5,7 +5,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.kiwiproject.collect.KiwiLists.first;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertAcceptedResponse;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertBadRequest;
-import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertNoContentResponse;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertOkResponse;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertResponseStatusCode;
 import static org.mockito.ArgumentMatchers.any;
@@ -19,6 +18,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.List;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.core.GenericType;
@@ -36,10 +36,14 @@ import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.DeployableSystemThreadLocal;
 import org.kiwiproject.champagne.model.DeploymentEnvironment;
+import org.kiwiproject.champagne.model.manualdeployment.EnvironmentStatusBackfill;
 import org.kiwiproject.champagne.service.ManualTaskService;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.test.junit.jupiter.ApplicationErrorExtension;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
+import org.kiwiproject.json.JsonHelper;
 import org.mockito.ArgumentCaptor;
 
 @DisplayName("DeploymentEnvironmentResource")
@@ -49,7 +53,8 @@ class DeploymentEnvironmentResourceTest {
     private static final AuditRecordDao AUDIT_RECORD_DAO = mock(AuditRecordDao.class);
     private static final ManualTaskService MANUAL_TASK_SERVICE = mock(ManualTaskService.class);
     private static final ApplicationErrorDao APPLICATION_ERROR_DAO = mock(ApplicationErrorDao.class);
-    private static final DeploymentEnvironmentResource DEPLOYMENT_ENVIRONMENT_RESOURCE = new DeploymentEnvironmentResource(DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO, APPLICATION_ERROR_DAO, MANUAL_TASK_SERVICE);
+    private static final SystemResponseCache RESPONSE_CACHE = new SystemResponseCache("maximumSize=100", JsonHelper.newDropwizardJsonHelper(), new MetricRegistry());
+    private static final DeploymentEnvironmentResource DEPLOYMENT_ENVIRONMENT_RESOURCE = new DeploymentEnvironmentResource(DEPLOYMENT_ENVIRONMENT_DAO, new SyncAuditRecordWriter(AUDIT_RECORD_DAO), RESPONSE_CACHE, APPLICATION_ERROR_DAO, MANUAL_TASK_SERVICE);
 
     private static final ResourceExtension APP = ResourceExtension.builder()
             .bootstrapLogging(false)
@@ -66,6 +71,7 @@ class DeploymentEnvironmentResourceTest {
     @AfterEach
     void tearDown() {
         reset(DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO, MANUAL_TASK_SERVICE);
+        RESPONSE_CACHE.invalidateAll();
     }
 
     @Nested
@@ -107,6 +113,10 @@ class DeploymentEnvironmentResourceTest {
         @Test
         void shouldAddTheGivenEnvironment() {
             when(DEPLOYMENT_ENVIRONMENT_DAO.insertEnvironment(any(DeploymentEnvironment.class))).thenReturn(1L);
+            when(MANUAL_TASK_SERVICE.addManualReleaseAndTaskStatusForNewEnv(1L)).thenReturn(EnvironmentStatusBackfill.builder()
+                    .releaseStatusesCreated(2)
+                    .taskStatusesCreated(5)
+                    .build());
 
             var env = DeploymentEnvironment.builder()
                     .name("DEV")
@@ -117,13 +127,18 @@ class DeploymentEnvironmentResourceTest {
                     .request()
                     .post(json(env));
 
-            assertNoContentResponse(response);
+            assertOkResponse(response);
+
+            var backfill = response.readEntity(EnvironmentStatusBackfill.class);
+            assertThat(backfill.getReleaseStatusesCreated()).isEqualTo(2);
+            assertThat(backfill.getTaskStatusesCreated()).isEqualTo(5);
 
             verify(DEPLOYMENT_ENVIRONMENT_DAO).insertEnvironment(isA(DeploymentEnvironment.class));
+            verify(MANUAL_TASK_SERVICE).addManualReleaseAndTaskStatusForNewEnv(1L);
 
             verifyAuditRecorded(Action.CREATED);
 
-            verifyNoMoreInteractions(DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
+            verifyNoMoreInteractions(DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO, MANUAL_TASK_SERVICE);
         }
 
         @Test
@@ -142,6 +157,7 @@ class DeploymentEnvironmentResourceTest {
         @Test
         void shouldSetTheSystemFromHeaderWhenNotPosted() {
             when(DEPLOYMENT_ENVIRONMENT_DAO.insertEnvironment(any(DeploymentEnvironment.class))).thenReturn(1L);
+            when(MANUAL_TASK_SERVICE.addManualReleaseAndTaskStatusForNewEnv(1L)).thenReturn(EnvironmentStatusBackfill.builder().build());
 
             var env = DeploymentEnvironment.builder()
                     .name("DEV")
@@ -151,7 +167,7 @@ class DeploymentEnvironmentResourceTest {
                     .request()
                     .post(json(env));
 
-            assertNoContentResponse(response);
+            assertOkResponse(response);
 
             verify(DEPLOYMENT_ENVIRONMENT_DAO).insertEnvironment(isA(DeploymentEnvironment.class));
 
@@ -1,6 +1,7 @@
 package org.kiwiproject.champagne.resource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertBadRequest;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertOkResponse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -8,10 +9,13 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
-import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Map;
 
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
@@ -23,18 +27,23 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
-import org.kiwiproject.champagne.dao.BuildDao;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.kiwiproject.champagne.dao.BuildMetricsDao;
+import org.kiwiproject.champagne.dao.DeploymentMetricsDao;
 import org.kiwiproject.champagne.junit.jupiter.DeployableSystemExtension;
 import org.kiwiproject.champagne.junit.jupiter.JwtExtension;
+import org.kiwiproject.champagne.model.DeploymentMetrics;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
 
 @DisplayName("MetricsResource")
 @ExtendWith({DropwizardExtensionsSupport.class})
 class MetricsResourceTest {
 
-    private static final BuildDao BUILD_DAO = mock(BuildDao.class);
+    private static final BuildMetricsDao BUILD_METRICS_DAO = mock(BuildMetricsDao.class);
+    private static final DeploymentMetricsDao DEPLOYMENT_METRICS_DAO = mock(DeploymentMetricsDao.class);
 
-    private static final MetricsResource RESOURCE = new MetricsResource(BUILD_DAO);
+    private static final MetricsResource RESOURCE = new MetricsResource(BUILD_METRICS_DAO, DEPLOYMENT_METRICS_DAO);
     private static final ResourceExtension RESOURCES = ResourceExtension.builder()
             .bootstrapLogging(false)
             .addResource(RESOURCE)
@@ -49,7 +58,7 @@ class MetricsResourceTest {
 
     @AfterEach
     void cleanup() {
-        reset(BUILD_DAO);
+        reset(BUILD_METRICS_DAO, DEPLOYMENT_METRICS_DAO);
     }
 
     @Nested
@@ -57,7 +66,7 @@ class MetricsResourceTest {
 
         @Test
         void shouldReturnMetrics() {
-            when(BUILD_DAO.countBuildsInSystemInRange(eq(1L), any(Instant.class), any(Instant.class)))
+            when(BUILD_METRICS_DAO.countBuildsInSystemInRange(eq(1L), any(LocalDate.class), any(LocalDate.class)))
                     .thenReturn(2L)
                     .thenReturn(1L);
 
@@ -72,8 +81,106 @@ class MetricsResourceTest {
 
             assertThat(result).isEqualTo(Map.of("builds", Map.of("current", 2L, "previous", 1L)));
 
-            verify(BUILD_DAO, times(2)).countBuildsInSystemInRange(eq(1L), any(Instant.class), any(Instant.class));
-            verifyNoMoreInteractions(BUILD_DAO);
+            verify(BUILD_METRICS_DAO, times(2)).countBuildsInSystemInRange(eq(1L), any(LocalDate.class), any(LocalDate.class));
+            verifyNoMoreInteractions(BUILD_METRICS_DAO);
+        }
+
+        @Test
+        void shouldUseRequestedWindow() {
+            var today = LocalDate.now(ZoneOffset.UTC);
+
+            when(BUILD_METRICS_DAO.countBuildsInSystemInRange(1L, today.minusDays(6), today)).thenReturn(5L);
+            when(BUILD_METRICS_DAO.countBuildsInSystemInRange(1L, today.minusDays(13), today.minusDays(7))).thenReturn(3L);
+
+            var response = RESOURCES
+                    .target("/metrics")
+                    .queryParam("days", 7)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<Map<String, Map<String, Long>>>() {});
+
+            assertThat(result).isEqualTo(Map.of("builds", Map.of("current", 5L, "previous", 3L)));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = { 0, -1, 367 })
+        void shouldReturnBadRequestForInvalidWindow(int days) {
+            var response = RESOURCES
+                    .target("/metrics")
+                    .queryParam("days", days)
+                    .request()
+                    .get();
+
+            assertBadRequest(response);
+
+            verifyNoInteractions(BUILD_METRICS_DAO);
+        }
+    }
+
+    @Nested
+    class GetComponentBuildCounts {
+
+        @Test
+        void shouldReturnBuildCountsPerComponent() {
+            var today = LocalDate.now(ZoneOffset.UTC);
+
+            when(BUILD_METRICS_DAO.countBuildsByComponentInRange(1L, today.minusDays(89), today))
+                    .thenReturn(Map.of("champagne-service", 4L, "champagne-ui", 2L));
+
+            var response = RESOURCES
+                    .target("/metrics/builds/components")
+                    .queryParam("days", 90)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<Map<String, Map<String, Long>>>() {});
+
+            assertThat(result).isEqualTo(Map.of("builds", Map.of("champagne-service", 4L, "champagne-ui", 2L)));
+
+            verify(BUILD_METRICS_DAO).countBuildsByComponentInRange(1L, today.minusDays(89), today);
+            verifyNoMoreInteractions(BUILD_METRICS_DAO);
+        }
+    }
+
+    @Nested
+    class GetDeploymentMetrics {
+
+        @Test
+        void shouldReturnMetricsPerEnvironment() {
+            var today = LocalDate.now(ZoneOffset.UTC);
+            var metrics = DeploymentMetrics.builder()
+                    .environmentId(2L)
+                    .deploymentCount(3L)
+                    .deploymentsPerDay(0.1)
+                    .failedDeploymentCount(1L)
+                    .changeFailureRate(0.25)
+                    .averageLeadTimeSeconds(3600.0)
+                    .executionCount(4L)
+                    .failedExecutionCount(1L)
+                    .averageExecutionSeconds(120.0)
+                    .build();
+
+            when(DEPLOYMENT_METRICS_DAO.findDeploymentMetrics(1L, today.minusDays(29), today, 30)).thenReturn(List.of(metrics));
+
+            var response = RESOURCES
+                    .target("/metrics/deployments")
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<List<DeploymentMetrics>>() {});
+
+            assertThat(result).containsExactly(metrics);
+
+            verify(DEPLOYMENT_METRICS_DAO).findDeploymentMetrics(1L, today.minusDays(29), today, 30);
+            verifyNoMoreInteractions(DEPLOYMENT_METRICS_DAO);
+            verifyNoInteractions(BUILD_METRICS_DAO);
         }
     }
 }
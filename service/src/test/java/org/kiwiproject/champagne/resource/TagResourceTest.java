@@ -16,9 +16,11 @@ import static org.mockito.Mockito.when;
 import java.util.List;
 import java.util.Map;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.HttpHeaders;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -31,9 +33,12 @@ import org.kiwiproject.champagne.junit.jupiter.DeployableSystemExtension;
 import org.kiwiproject.champagne.junit.jupiter.JwtExtension;
 import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.Tag;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.test.junit.jupiter.ApplicationErrorExtension;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
+import org.kiwiproject.json.JsonHelper;
 import org.mockito.ArgumentCaptor;
 
 @DisplayName("TagResource")
@@ -44,7 +49,8 @@ class TagResourceTest {
     private static final AuditRecordDao AUDIT_RECORD_DAO = mock(AuditRecordDao.class);
     private static final ApplicationErrorDao APPLICATION_ERROR_DAO = mock(ApplicationErrorDao.class);
 
-    private static final TagResource RESOURCE = new TagResource(TAG_DAO, AUDIT_RECORD_DAO, APPLICATION_ERROR_DAO);
+    private static final SystemResponseCache RESPONSE_CACHE = new SystemResponseCache("maximumSize=100", JsonHelper.newDropwizardJsonHelper(), new MetricRegistry());
+    private static final TagResource RESOURCE = new TagResource(TAG_DAO, new SyncAuditRecordWriter(AUDIT_RECORD_DAO), RESPONSE_CACHE, APPLICATION_ERROR_DAO);
     private static final ResourceExtension RESOURCES = ResourceExtension.builder()
             .bootstrapLogging(false)
             .addResource(RESOURCE)
@@ -61,6 +67,7 @@ class TagResourceTest {
     @AfterEach
     void cleanup() {
         reset(TAG_DAO, AUDIT_RECORD_DAO);
+        RESPONSE_CACHE.invalidateAll();
     }
 
     @Nested
@@ -90,6 +97,50 @@ class TagResourceTest {
             verify(TAG_DAO).findTagsForSystem(1L);
             verifyNoMoreInteractions(TAG_DAO);
         }
+
+        @Test
+        void shouldReturnNotModifiedWhenETagMatches() {
+            when(TAG_DAO.findTagsForSystem(1L)).thenReturn(List.of(Tag.builder().id(1L).name("bob").build()));
+
+            var response = RESOURCES.target("/tag").request().get();
+
+            assertOkResponse(response);
+            var etag = response.getHeaderString(HttpHeaders.ETAG);
+            assertThat(etag).isNotBlank();
+
+            var notModifiedResponse = RESOURCES.target("/tag")
+                    .request()
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .get();
+
+            assertThat(notModifiedResponse.getStatus()).isEqualTo(304);
+            assertThat(notModifiedResponse.hasEntity()).isFalse();
+
+            verify(TAG_DAO).findTagsForSystem(1L);
+            verifyNoMoreInteractions(TAG_DAO);
+        }
+
+        @Test
+        void shouldReloadTagsAfterTheyChange() {
+            when(TAG_DAO.findTagsForSystem(1L))
+                    .thenReturn(List.of(Tag.builder().id(1L).name("bob").build()))
+                    .thenReturn(List.of());
+            when(TAG_DAO.deleteTag(1L)).thenReturn(1);
+
+            var etag = RESOURCES.target("/tag").request().get().getHeaderString(HttpHeaders.ETAG);
+
+            assertNoContentResponse(RESOURCES.target("/tag/1").request().delete());
+
+            var response = RESOURCES.target("/tag")
+                    .request()
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .get();
+
+            assertOkResponse(response);
+            assertThat(response.getHeaderString(HttpHeaders.ETAG)).isNotEqualTo(etag);
+            assertThat(response.readEntity(new GenericType<List<Tag>>() {
+            })).isEmpty();
+        }
     }
 
     @Nested
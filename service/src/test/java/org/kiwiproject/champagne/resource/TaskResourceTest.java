@@ -11,6 +11,7 @@ import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertNotFoundResponse;
 import static org.kiwiproject.test.jaxrs.JaxrsTestHelper.assertOkResponse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -21,6 +22,7 @@ import static org.mockito.Mockito.when;
 import java.util.List;
 import java.util.Optional;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
 import io.dropwizard.testing.junit5.ResourceExtension;
 import jakarta.ws.rs.core.GenericType;
@@ -31,26 +33,30 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.kiwiproject.champagne.dao.AuditRecordDao;
-import org.kiwiproject.champagne.dao.DeploymentEnvironmentDao;
+import org.kiwiproject.champagne.dao.Counted;
 import org.kiwiproject.champagne.dao.ReleaseDao;
 import org.kiwiproject.champagne.dao.ReleaseStatusDao;
 import org.kiwiproject.champagne.dao.TaskDao;
 import org.kiwiproject.champagne.dao.TaskStatusDao;
 import org.kiwiproject.champagne.junit.jupiter.DeployableSystemExtension;
 import org.kiwiproject.champagne.junit.jupiter.JwtExtension;
+import org.kiwiproject.champagne.model.AuditRecord;
 import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.DeployableSystemThreadLocal;
-import org.kiwiproject.champagne.model.DeploymentEnvironment;
 import org.kiwiproject.champagne.model.manualdeployment.DeploymentTaskStatus;
 import org.kiwiproject.champagne.model.manualdeployment.Release;
 import org.kiwiproject.champagne.model.manualdeployment.ReleaseStage;
 import org.kiwiproject.champagne.model.manualdeployment.ReleaseStatus;
 import org.kiwiproject.champagne.model.manualdeployment.Task;
 import org.kiwiproject.champagne.model.manualdeployment.TaskStatus;
+import org.kiwiproject.champagne.model.manualdeployment.TaskStatusBulkUpdate;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.test.junit.jupiter.ApplicationErrorExtension;
 import org.kiwiproject.dropwizard.util.exception.JerseyViolationExceptionMapper;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
+import org.kiwiproject.json.JsonHelper;
 import org.kiwiproject.spring.data.KiwiPage;
 
 @DisplayName("TaskResource")
@@ -61,11 +67,11 @@ class TaskResourceTest {
     private static final ReleaseStatusDao RELEASE_STATUS_DAO = mock(ReleaseStatusDao.class);
     private static final TaskDao TASK_DAO = mock(TaskDao.class);
     private static final TaskStatusDao TASK_STATUS_DAO = mock(TaskStatusDao.class);
-    private static final DeploymentEnvironmentDao DEPLOYMENT_ENVIRONMENT_DAO = mock(DeploymentEnvironmentDao.class);
     private static final AuditRecordDao AUDIT_RECORD_DAO = mock(AuditRecordDao.class);
     private static final ApplicationErrorDao APPLICATION_ERROR_DAO = mock(ApplicationErrorDao.class);
 
-    private static final TaskResource RESOURCE = new TaskResource(RELEASE_DAO, RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO, APPLICATION_ERROR_DAO);
+    private static final SystemResponseCache RESPONSE_CACHE = new SystemResponseCache("maximumSize=100", JsonHelper.newDropwizardJsonHelper(), new MetricRegistry());
+    private static final TaskResource RESOURCE = new TaskResource(RELEASE_DAO, RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, new SyncAuditRecordWriter(AUDIT_RECORD_DAO), RESPONSE_CACHE, APPLICATION_ERROR_DAO);
 
     private static final ResourceExtension RESOURCES = ResourceExtension.builder()
             .bootstrapLogging(false)
@@ -79,7 +85,8 @@ class TaskResourceTest {
 
     @AfterEach
     void cleanup() {
-        reset(RELEASE_DAO, RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
+        reset(RELEASE_DAO, RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
+        RESPONSE_CACHE.invalidateAll();
     }
 
     @Nested
@@ -93,8 +100,7 @@ class TaskResourceTest {
                     .deployableSystemId(1L)
                     .build();
 
-            when(RELEASE_DAO.findPagedReleases(0, 10, 1L)).thenReturn(List.of(release));
-            when(RELEASE_DAO.countReleases(1L)).thenReturn(1L);
+            when(RELEASE_DAO.findPagedReleasesWithTotalCount(0, 10, 1L)).thenReturn(List.of(new Counted<>(release, 1L)));
 
             var releaseStatus = ReleaseStatus.builder()
                     .releaseId(1L)
@@ -102,7 +108,7 @@ class TaskResourceTest {
                     .environmentId(1L)
                     .build();
 
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
+            when(RELEASE_STATUS_DAO.findByReleaseIds(List.of(1L))).thenReturn(List.of(releaseStatus));
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/releases")
@@ -124,12 +130,11 @@ class TaskResourceTest {
             assertThat(releaseWithStatus.getReleaseNumber()).isEqualTo("2023.42");
             assertThat(releaseWithStatus.getEnvironmentStatus()).contains(entry(1L, releaseStatus));
 
-            verify(RELEASE_DAO).findPagedReleases(0, 10, 1L);
-            verify(RELEASE_DAO).countReleases(1L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
+            verify(RELEASE_DAO).findPagedReleasesWithTotalCount(0, 10, 1L);
+            verify(RELEASE_STATUS_DAO).findByReleaseIds(List.of(1L));
 
             verifyNoMoreInteractions(RELEASE_DAO, RELEASE_STATUS_DAO);
-            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
+            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
         }
 
         @Test
@@ -140,8 +145,7 @@ class TaskResourceTest {
                     .deployableSystemId(1L)
                     .build();
 
-            when(RELEASE_DAO.findPagedReleases(0, 50, 1L)).thenReturn(List.of(release));
-            when(RELEASE_DAO.countReleases(1L)).thenReturn(1L);
+            when(RELEASE_DAO.findPagedReleasesWithTotalCount(0, 50, 1L)).thenReturn(List.of(new Counted<>(release, 1L)));
 
             var releaseStatus = ReleaseStatus.builder()
                     .releaseId(1L)
@@ -149,7 +153,7 @@ class TaskResourceTest {
                     .environmentId(1L)
                     .build();
 
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
+            when(RELEASE_STATUS_DAO.findByReleaseIds(List.of(1L))).thenReturn(List.of(releaseStatus));
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/releases")
@@ -170,12 +174,38 @@ class TaskResourceTest {
             assertThat(releaseWithStatus.getReleaseNumber()).isEqualTo("2023.42");
             assertThat(releaseWithStatus.getEnvironmentStatus()).contains(entry(1L, releaseStatus));
 
-            verify(RELEASE_DAO).findPagedReleases(0, 50, 1L);
-            verify(RELEASE_DAO).countReleases(1L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
+            verify(RELEASE_DAO).findPagedReleasesWithTotalCount(0, 50, 1L);
+            verify(RELEASE_STATUS_DAO).findByReleaseIds(List.of(1L));
 
             verifyNoMoreInteractions(RELEASE_DAO, RELEASE_STATUS_DAO);
-            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
+            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldFallBackToCountQueryWhenPageIsPastTheLastRelease() {
+            when(RELEASE_DAO.findPagedReleasesWithTotalCount(10, 10, 1L)).thenReturn(List.of());
+            when(RELEASE_DAO.countReleases(1L)).thenReturn(3L);
+
+            var response = RESOURCES.client()
+                    .target("/manual/deployment/tasks/releases")
+                    .queryParam("pageNumber", 2)
+                    .queryParam("pageSize", 10)
+                    .request()
+                    .get();
+
+            assertOkResponse(response);
+
+            var result = response.readEntity(new GenericType<KiwiPage<ReleaseWithStatus>>() {
+            });
+
+            assertThat(result.getTotalElements()).isEqualTo(3);
+            assertThat(result.getContent()).isEmpty();
+
+            verify(RELEASE_DAO).findPagedReleasesWithTotalCount(10, 10, 1L);
+            verify(RELEASE_DAO).countReleases(1L);
+
+            verifyNoMoreInteractions(RELEASE_DAO);
+            verifyNoInteractions(RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
         }
     }
 
@@ -201,7 +231,7 @@ class TaskResourceTest {
                     .environmentId(1L)
                     .build();
 
-            when(TASK_STATUS_DAO.findByTaskId(1L)).thenReturn(List.of(taskStatus));
+            when(TASK_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(taskStatus));
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/releases/{releaseId}")
@@ -224,10 +254,10 @@ class TaskResourceTest {
             assertThat(taskWithStatus.getEnvironmentStatus()).contains(entry(1L, taskStatus));
 
             verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(1L);
+            verify(TASK_STATUS_DAO).findByReleaseId(1L);
 
             verifyNoMoreInteractions(TASK_DAO, TASK_STATUS_DAO);
-            verifyNoInteractions(RELEASE_DAO, RELEASE_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
+            verifyNoInteractions(RELEASE_DAO, RELEASE_STATUS_DAO, AUDIT_RECORD_DAO);
         }
     }
 
@@ -241,16 +271,7 @@ class TaskResourceTest {
                     .deployableSystemId(1L)
                     .build();
 
-            when(RELEASE_DAO.insertRelease(any(Release.class))).thenReturn(1L);
-
-            var env = DeploymentEnvironment.builder()
-                    .id(1L)
-                    .name("DEVELOPMENT")
-                    .build();
-
-            when(DEPLOYMENT_ENVIRONMENT_DAO.findAllEnvironments(1L)).thenReturn(List.of(env));
-
-            when(RELEASE_STATUS_DAO.insertReleaseStatus(any(ReleaseStatus.class))).thenReturn(2L);
+            when(RELEASE_DAO.insertReleaseWithStatuses(any(Release.class), any(AuditRecord.class))).thenReturn(1L);
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/releases")
@@ -259,15 +280,12 @@ class TaskResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(RELEASE_DAO).insertRelease(argThat(r -> "2023.01".equalsIgnoreCase(r.getReleaseNumber())));
-            verify(RELEASE_STATUS_DAO).insertReleaseStatus(any(ReleaseStatus.class));
-            verify(DEPLOYMENT_ENVIRONMENT_DAO).findAllEnvironments(1L);
-
-            verifyAuditRecorded(1L, Release.class, Action.CREATED);
-            verifyMultipleStatusRecordsAuditRecorded(ReleaseStatus.class, Action.CREATED);
+            verify(RELEASE_DAO).insertReleaseWithStatuses(
+                    argThat(r -> "2023.01".equalsIgnoreCase(r.getReleaseNumber()) && r.getDeployableSystemId() == 1L),
+                    argThat(audit -> audit.getAction() == Action.CREATED && "bob".equals(audit.getUserSystemIdentifier())));
 
-            verifyNoMoreInteractions(RELEASE_DAO, RELEASE_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO);
+            verifyNoMoreInteractions(RELEASE_DAO);
+            verifyNoInteractions(RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
         }
 
         @Test
@@ -276,16 +294,7 @@ class TaskResourceTest {
                     .releaseNumber("2023.01")
                     .build();
 
-            when(RELEASE_DAO.insertRelease(any(Release.class))).thenReturn(1L);
-
-            var env = DeploymentEnvironment.builder()
-                    .id(1L)
-                    .name("DEVELOPMENT")
-                    .build();
-
-            when(DEPLOYMENT_ENVIRONMENT_DAO.findAllEnvironments(1L)).thenReturn(List.of(env));
-
-            when(RELEASE_STATUS_DAO.insertReleaseStatus(any(ReleaseStatus.class))).thenReturn(2L);
+            when(RELEASE_DAO.insertReleaseWithStatuses(any(Release.class), any(AuditRecord.class))).thenReturn(1L);
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/releases")
@@ -294,15 +303,12 @@ class TaskResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(RELEASE_DAO).insertRelease(argThat(r -> "2023.01".equalsIgnoreCase(r.getReleaseNumber())));
-            verify(RELEASE_STATUS_DAO).insertReleaseStatus(any(ReleaseStatus.class));
-            verify(DEPLOYMENT_ENVIRONMENT_DAO).findAllEnvironments(1L);
+            verify(RELEASE_DAO).insertReleaseWithStatuses(
+                    argThat(r -> "2023.01".equalsIgnoreCase(r.getReleaseNumber()) && r.getDeployableSystemId() == 1L),
+                    any(AuditRecord.class));
 
-            verifyAuditRecorded(1L, Release.class, Action.CREATED);
-            verifyMultipleStatusRecordsAuditRecorded(ReleaseStatus.class, Action.CREATED);
-
-            verifyNoMoreInteractions(RELEASE_DAO, RELEASE_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO);
+            verifyNoMoreInteractions(RELEASE_DAO);
+            verifyNoInteractions(RELEASE_STATUS_DAO, TASK_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
         }
 
         @Test
@@ -337,40 +343,7 @@ class TaskResourceTest {
                     .component("super-service")
                     .build();
 
-            when(TASK_DAO.insertTask(any(Task.class))).thenReturn(2L);
-
-            var env = DeploymentEnvironment.builder()
-                    .id(1L)
-                    .name("DEVELOPMENT")
-                    .build();
-
-            when(DEPLOYMENT_ENVIRONMENT_DAO.findAllEnvironments(1L)).thenReturn(List.of(env));
-
-            var taskStatus = TaskStatus.builder()
-                    .status(DeploymentTaskStatus.COMPLETE)
-                    .environmentId(1L)
-                    .build();
-
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-
-            var savedTask = Task.builder()
-                    .id(2L)
-                    .releaseId(1L)
-                    .stage(ReleaseStage.PRE)
-                    .description("some things")
-                    .summary("Do it")
-                    .component("super-service")
-                    .build();
-
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(savedTask));
-
-            var status = ReleaseStatus.builder()
-                    .id(5L)
-                    .environmentId(1L)
-                    .status(DeploymentTaskStatus.PENDING)
-                    .build();
-
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(status));
+            when(TASK_DAO.insertTaskWithStatuses(any(Task.class), eq(1L), any(AuditRecord.class))).thenReturn(2L);
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks")
@@ -379,21 +352,13 @@ class TaskResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(TASK_DAO).insertTask(argThat(t -> JSON_HELPER.jsonEqualsIgnoringPaths(task, t, "id", "createdAt", "updatedAt")));
-            verify(TASK_STATUS_DAO).insertTaskStatus(any(TaskStatus.class));
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(5L, DeploymentTaskStatus.COMPLETE);
-            verify(DEPLOYMENT_ENVIRONMENT_DAO).findAllEnvironments(1L);
-
-            verifyAuditRecorded(2L, Task.class, Action.CREATED);
-            verifyMultipleStatusRecordsAuditRecorded(TaskStatus.class, Action.CREATED);
-            verifyMultipleStatusRecordsAuditRecorded(ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, TASK_STATUS_DAO, RELEASE_STATUS_DAO, DEPLOYMENT_ENVIRONMENT_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
+            verify(TASK_DAO).insertTaskWithStatuses(
+                    argThat(t -> JSON_HELPER.jsonEqualsIgnoringPaths(task, t, "id", "createdAt", "updatedAt")),
+                    eq(1L),
+                    argThat(audit -> audit.getAction() == Action.CREATED && "bob".equals(audit.getUserSystemIdentifier())));
 
+            verifyNoMoreInteractions(TASK_DAO);
+            verifyNoInteractions(RELEASE_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
         }
     }
 
@@ -438,7 +403,8 @@ class TaskResourceTest {
 
         @Test
         void shouldUpdateStatusForTask() {
-            when(TASK_STATUS_DAO.updateStatus(1L, DeploymentTaskStatus.COMPLETE)).thenReturn(1);
+            when(TASK_STATUS_DAO.updateStatusAndReleaseTaskCounts(eq(1L), eq(DeploymentTaskStatus.COMPLETE), any(AuditRecord.class)))
+                    .thenReturn(TaskStatusBulkUpdate.builder().taskStatusIds(List.of(1L)).releaseStatusIds(List.of(5L)).build());
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/{statusId}/{status}")
@@ -449,14 +415,19 @@ class TaskResourceTest {
 
             assertAcceptedResponse(response);
 
-            verify(TASK_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.COMPLETE);
+            verify(TASK_STATUS_DAO).updateStatusAndReleaseTaskCounts(
+                    eq(1L),
+                    eq(DeploymentTaskStatus.COMPLETE),
+                    argThat(audit -> audit.getAction() == Action.UPDATED && "bob".equals(audit.getUserSystemIdentifier())));
 
-            verifyAuditRecorded(1L, TaskStatus.class, Action.UPDATED);
+            verifyNoMoreInteractions(TASK_STATUS_DAO);
+            verifyNoInteractions(TASK_DAO, RELEASE_DAO, RELEASE_STATUS_DAO, AUDIT_RECORD_DAO);
         }
 
         @Test
         void shouldReturn404ResponseWhenStatusNotFound() {
-            when(TASK_STATUS_DAO.updateStatus(1L, DeploymentTaskStatus.COMPLETE)).thenReturn(0);
+            when(TASK_STATUS_DAO.updateStatusAndReleaseTaskCounts(eq(1L), eq(DeploymentTaskStatus.COMPLETE), any(AuditRecord.class)))
+                    .thenReturn(TaskStatusBulkUpdate.builder().taskStatusIds(List.of()).releaseStatusIds(List.of()).build());
 
             var response = RESOURCES.client()
                     .target("/manual/deployment/tasks/{statusId}/{status}")
@@ -469,6 +440,76 @@ class TaskResourceTest {
         }
     }
 
+    @Nested
+    class UpdateTaskStatuses {
+
+        @Test
+        void shouldUpdateGivenStatusesWithAuditRecordTemplate() {
+            when(TASK_STATUS_DAO.updateStatusesAndReleaseTaskCounts(eq(List.of(1L, 2L)), eq(DeploymentTaskStatus.COMPLETE), any(AuditRecord.class)))
+                    .thenReturn(TaskStatusBulkUpdate.builder().taskStatusIds(List.of(1L, 2L)).releaseStatusIds(List.of(5L)).build());
+
+            var response = RESOURCES.client()
+                    .target("/manual/deployment/tasks/statuses")
+                    .request()
+                    .put(json(new TaskResource.BulkTaskStatusUpdateRequest(List.of(1L, 2L), null, null, null, DeploymentTaskStatus.COMPLETE)));
+
+            assertAcceptedResponse(response);
+
+            verify(TASK_STATUS_DAO).updateStatusesAndReleaseTaskCounts(
+                    eq(List.of(1L, 2L)),
+                    eq(DeploymentTaskStatus.COMPLETE),
+                    argThat(audit -> audit.getAction() == Action.UPDATED && "bob".equals(audit.getUserSystemIdentifier())));
+
+            verifyNoMoreInteractions(TASK_STATUS_DAO);
+            verifyNoInteractions(TASK_DAO, RELEASE_DAO, RELEASE_STATUS_DAO, AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldUpdateStatusesSelectedByReleaseStageAndEnvironment() {
+            when(TASK_STATUS_DAO.findIdsByReleaseStageAndEnvironment(3L, ReleaseStage.PRE, 4L)).thenReturn(List.of(1L));
+            when(TASK_STATUS_DAO.updateStatusesAndReleaseTaskCounts(eq(List.of(1L)), eq(DeploymentTaskStatus.NOT_REQUIRED), any(AuditRecord.class)))
+                    .thenReturn(TaskStatusBulkUpdate.builder().taskStatusIds(List.of(1L)).releaseStatusIds(List.of()).build());
+
+            var response = RESOURCES.client()
+                    .target("/manual/deployment/tasks/statuses")
+                    .request()
+                    .put(json(new TaskResource.BulkTaskStatusUpdateRequest(null, 3L, ReleaseStage.PRE, 4L, DeploymentTaskStatus.NOT_REQUIRED)));
+
+            assertAcceptedResponse(response);
+
+            verify(TASK_STATUS_DAO).findIdsByReleaseStageAndEnvironment(3L, ReleaseStage.PRE, 4L);
+            verify(TASK_STATUS_DAO).updateStatusesAndReleaseTaskCounts(eq(List.of(1L)), eq(DeploymentTaskStatus.NOT_REQUIRED), any(AuditRecord.class));
+            verifyNoInteractions(AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturnBadRequestWhenNoStatusesOrSelectorGiven() {
+            var response = RESOURCES.client()
+                    .target("/manual/deployment/tasks/statuses")
+                    .request()
+                    .put(json(new TaskResource.BulkTaskStatusUpdateRequest(List.of(), 3L, null, null, DeploymentTaskStatus.COMPLETE)));
+
+            assertBadRequest(response);
+
+            verifyNoInteractions(TASK_DAO, TASK_STATUS_DAO, RELEASE_STATUS_DAO, AUDIT_RECORD_DAO);
+        }
+
+        @Test
+        void shouldReturn404ResponseWhenNoStatusesUpdated() {
+            when(TASK_STATUS_DAO.updateStatusesAndReleaseTaskCounts(eq(List.of(1L)), eq(DeploymentTaskStatus.COMPLETE), any(AuditRecord.class)))
+                    .thenReturn(TaskStatusBulkUpdate.builder().taskStatusIds(List.of()).releaseStatusIds(List.of()).build());
+
+            var response = RESOURCES.client()
+                    .target("/manual/deployment/tasks/statuses")
+                    .request()
+                    .put(json(new TaskResource.BulkTaskStatusUpdateRequest(List.of(1L), null, null, null, DeploymentTaskStatus.COMPLETE)));
+
+            assertNotFoundResponse(response);
+
+            verifyNoInteractions(TASK_DAO, RELEASE_STATUS_DAO, AUDIT_RECORD_DAO);
+        }
+    }
+
     @Nested
     class DeleteRelease {
 
@@ -506,9 +547,11 @@ class TaskResourceTest {
                     .delete();
 
             assertAcceptedResponse(response);
-            verify(TASK_DAO).deleteById(1L);
+            verify(TASK_DAO).deleteByIdAndReleaseTaskCounts(
+                    eq(1L),
+                    argThat(audit -> audit.getAction() == Action.DELETED && "bob".equals(audit.getUserSystemIdentifier())));
 
-            verifyAuditRecorded(1L, Task.class, Action.DELETED);
+            verifyNoInteractions(AUDIT_RECORD_DAO);
         }
 
         @Test
@@ -525,246 +568,6 @@ class TaskResourceTest {
         }
     }
 
-    @Nested
-    class CalculateReleaseStatus {
-
-        @Test
-        void shouldKeepOriginalStatusIfNoTasks() {
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of());
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO);
-            verifyNoInteractions(TASK_STATUS_DAO, RELEASE_DAO, AUDIT_RECORD_DAO);
-        }
-
-        private ReleaseStatus newReleaseStatus(DeploymentTaskStatus status) {
-            return ReleaseStatus.builder()
-                    .id(1L)
-                    .environmentId(1L)
-                    .status(status)
-                    .build();
-        }
-
-        @Test
-        void shouldIgnoreStatusUpdateWhenStatusDoesNotChange() {
-            var task = Task.builder().id(2L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.PENDING);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO);
-            verifyNoInteractions(RELEASE_DAO, AUDIT_RECORD_DAO);
-        }
-
-        private TaskStatus newTaskStatus(DeploymentTaskStatus status) {
-            return TaskStatus.builder()
-                    .id(1L)
-                    .environmentId(1L)
-                    .status(status)
-                    .build();
-        }
-
-        @Test
-        void shouldSetStatusToCompleteWhenOnlyTaskIsComplete() {
-            var task = Task.builder().id(2L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.COMPLETE);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.COMPLETE);
-
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-
-        @Test
-        void shouldSetStatusToCompleteWhenAllTasksAreComplete() {
-            var task = Task.builder().id(2L).build();
-            var task2 = Task.builder().id(3L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task, task2));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.COMPLETE);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-            when(TASK_STATUS_DAO.findByTaskId(3L)).thenReturn(List.of(taskStatus));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(TASK_STATUS_DAO).findByTaskId(3L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.COMPLETE);
-
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-
-        @Test
-        void shouldSetStatusToNotRequiredWhenOnlyTaskIsNotRequired() {
-            var task = Task.builder().id(2L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.NOT_REQUIRED);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.NOT_REQUIRED);
-
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-
-        @Test
-        void shouldSetStatusToNotRequiredWhenAllTasksAreNotRequired() {
-            var task = Task.builder().id(2L).build();
-            var task2 = Task.builder().id(3L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task, task2));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.NOT_REQUIRED);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-            when(TASK_STATUS_DAO.findByTaskId(3L)).thenReturn(List.of(taskStatus));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(TASK_STATUS_DAO).findByTaskId(3L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.NOT_REQUIRED);
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-
-        @Test
-        void shouldSetStatusToPendingWhenAllTasksArePending() {
-            var task = Task.builder().id(2L).build();
-            var task2 = Task.builder().id(3L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task, task2));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.PENDING);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-            when(TASK_STATUS_DAO.findByTaskId(3L)).thenReturn(List.of(taskStatus));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.COMPLETE);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(TASK_STATUS_DAO).findByTaskId(3L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.PENDING);
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-
-        @Test
-        void shouldSetStatusToPendingWhenSomeTasksArePending() {
-            var task = Task.builder().id(2L).build();
-            var task2 = Task.builder().id(3L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task, task2));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.PENDING);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-
-            var taskStatus2 = newTaskStatus(DeploymentTaskStatus.COMPLETE);
-            when(TASK_STATUS_DAO.findByTaskId(3L)).thenReturn(List.of(taskStatus2));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.COMPLETE);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(TASK_STATUS_DAO).findByTaskId(3L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.PENDING);
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-
-        @Test
-        void shouldSetStatusToCompleteWhenTasksContainCompleteAndNotRequired() {
-            var task = Task.builder().id(2L).build();
-            var task2 = Task.builder().id(3L).build();
-            when(TASK_DAO.findByReleaseId(1L)).thenReturn(List.of(task, task2));
-
-            var taskStatus = newTaskStatus(DeploymentTaskStatus.NOT_REQUIRED);
-            when(TASK_STATUS_DAO.findByTaskId(2L)).thenReturn(List.of(taskStatus));
-
-            var taskStatus2 = newTaskStatus(DeploymentTaskStatus.COMPLETE);
-            when(TASK_STATUS_DAO.findByTaskId(3L)).thenReturn(List.of(taskStatus2));
-
-            var releaseStatus = newReleaseStatus(DeploymentTaskStatus.PENDING);
-            when(RELEASE_STATUS_DAO.findByReleaseId(1L)).thenReturn(List.of(releaseStatus));
-
-            RESOURCE.calculateReleaseStatus(1L);
-
-            verify(TASK_DAO).findByReleaseId(1L);
-            verify(TASK_STATUS_DAO).findByTaskId(2L);
-            verify(TASK_STATUS_DAO).findByTaskId(3L);
-            verify(RELEASE_STATUS_DAO).findByReleaseId(1L);
-            verify(RELEASE_STATUS_DAO).updateStatus(1L, DeploymentTaskStatus.COMPLETE);
-            verifyAuditRecorded(1L, ReleaseStatus.class, Action.UPDATED);
-
-            verifyNoMoreInteractions(TASK_DAO, RELEASE_STATUS_DAO, TASK_STATUS_DAO, AUDIT_RECORD_DAO);
-            verifyNoInteractions(RELEASE_DAO);
-        }
-    }
-
     @Nested
     class GetReleaseStages {
 
@@ -791,10 +594,4 @@ class TaskResourceTest {
                 && audit.getRecordType().equalsIgnoreCase(taskClass.getSimpleName())
                 && audit.getAction() == action));
     }
-
-    private void verifyMultipleStatusRecordsAuditRecorded(Class<?> statusClass, Action action) {
-        verify(AUDIT_RECORD_DAO).insertAuditRecord(
-                argThat(audit -> audit.getRecordType().equalsIgnoreCase(statusClass.getSimpleName())
-                        && audit.getAction() == action));
-    }
 }
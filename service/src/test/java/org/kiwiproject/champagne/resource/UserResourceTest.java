@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.codahale.metrics.MetricRegistry;
 import io.dropwizard.testing.ResourceHelpers;
 import io.dropwizard.testing.junit5.DropwizardAppExtension;
 import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
@@ -47,9 +48,13 @@ import org.kiwiproject.champagne.model.AuditRecord.Action;
 import org.kiwiproject.champagne.model.User;
 import org.kiwiproject.champagne.model.UserInSystem;
 import org.kiwiproject.champagne.resource.apps.TestUserApp;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
 import org.kiwiproject.dropwizard.error.test.junit.jupiter.ApplicationErrorExtension;
 import org.kiwiproject.jaxrs.exception.JaxrsExceptionMapper;
+import org.kiwiproject.json.JsonHelper;
 import org.kiwiproject.spring.data.KiwiPage;
 import org.mockito.ArgumentCaptor;
 
@@ -61,7 +66,9 @@ public class UserResourceTest {
     private static final DeployableSystemDao SYSTEM_DAO = mock(DeployableSystemDao.class);
     private static final AuditRecordDao AUDIT_RECORD_DAO = mock(AuditRecordDao.class);
     private static final ApplicationErrorDao APPLICATION_ERROR_DAO = mock(ApplicationErrorDao.class);
-    private static final UserResource USER_RESOURCE = new UserResource(USER_DAO, SYSTEM_DAO, AUDIT_RECORD_DAO, APPLICATION_ERROR_DAO);
+    private static final DeployableSystemAccessCache SYSTEM_ACCESS_CACHE = mock(DeployableSystemAccessCache.class);
+    private static final SystemResponseCache RESPONSE_CACHE = new SystemResponseCache("maximumSize=100", JsonHelper.newDropwizardJsonHelper(), new MetricRegistry());
+    private static final UserResource USER_RESOURCE = new UserResource(USER_DAO, SYSTEM_DAO, SYSTEM_ACCESS_CACHE, new SyncAuditRecordWriter(AUDIT_RECORD_DAO), RESPONSE_CACHE, APPLICATION_ERROR_DAO);
 
     private static final ResourceExtension APP = ResourceExtension.builder()
             .bootstrapLogging(false)
@@ -77,7 +84,7 @@ public class UserResourceTest {
     
     @BeforeEach
     void setUp() {
-        reset(USER_DAO, SYSTEM_DAO, AUDIT_RECORD_DAO);
+        reset(USER_DAO, SYSTEM_DAO, SYSTEM_ACCESS_CACHE, AUDIT_RECORD_DAO);
     }
 
     @Nested
@@ -307,6 +314,7 @@ public class UserResourceTest {
             assertNoContentResponse(response);
 
             verify(USER_DAO).deleteUser(1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
             
             verifyAuditRecorded(1L, User.class, Action.DELETED);
 
@@ -446,6 +454,7 @@ public class UserResourceTest {
             assertAcceptedResponse(response);
 
             verify(USER_DAO).updateUser(any(User.class));
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
             
             verifyAuditRecorded(1L, User.class, Action.UPDATED);
 
@@ -508,6 +517,7 @@ public class UserResourceTest {
             assertNoContentResponse(response);
 
             verify(USER_DAO).removeUserFromSystem(1L, 1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
 
             verifyAuditRecorded(1L, UserInSystem.class, Action.DELETED);
 
@@ -546,6 +556,7 @@ public class UserResourceTest {
             assertAcceptedResponse(response);
 
             verify(USER_DAO).makeUserAdminInSystem(1L, 1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
 
             verifyAuditRecorded(1L, UserInSystem.class, Action.UPDATED);
 
@@ -564,6 +575,7 @@ public class UserResourceTest {
             assertAcceptedResponse(response);
 
             verify(USER_DAO).makeUserNonAdminInSystem(1L, 1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
 
             verifyAuditRecorded(1L, UserInSystem.class, Action.UPDATED);
 
@@ -603,6 +615,7 @@ public class UserResourceTest {
             assertAcceptedResponse(response);
 
             verify(USER_DAO).addUserToSystem(1L, 1L);
+            verify(SYSTEM_ACCESS_CACHE).invalidateUser(1L);
 
             verifyAuditRecorded(1L, User.class, Action.UPDATED);
 
@@ -10,7 +10,11 @@ import org.kiwiproject.champagne.dao.DeployableSystemDao;
 import org.kiwiproject.champagne.dao.UserDao;
 import org.kiwiproject.champagne.resource.AuthResource;
 import org.kiwiproject.champagne.resource.UserResource;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
+import org.kiwiproject.champagne.service.SyncAuditRecordWriter;
+import org.kiwiproject.champagne.service.SystemResponseCache;
 import org.kiwiproject.dropwizard.error.dao.ApplicationErrorDao;
+import org.kiwiproject.json.JsonHelper;
 
 public class TestUserApp extends Application<AppConfig> {
 
@@ -27,7 +31,11 @@ public class TestUserApp extends Application<AppConfig> {
 
     @Override
     public void run(AppConfig appConfig, Environment environment) {
-        environment.jersey().register(new UserResource(userDao, deployableSystemDao, auditRecordDao, errorDao));
+        var systemAccessCache = new DeployableSystemAccessCache(appConfig.getSystemAccessCacheSpec(), deployableSystemDao, environment.metrics());
+        var responseCache = new SystemResponseCache(appConfig.getResponseCacheSpec(), new JsonHelper(environment.getObjectMapper()), environment.metrics());
+
+        environment.jersey().register(new UserResource(userDao, deployableSystemDao, systemAccessCache,
+                new SyncAuditRecordWriter(auditRecordDao), responseCache, errorDao));
         environment.jersey().register(new AuthResource(userDao));
     }
 }
@@ -1,11 +1,13 @@
 package org.kiwiproject.champagne.resource.filter;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
 
+import com.codahale.metrics.MetricRegistry;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.SecurityContext;
 import org.dhatim.dropwizard.jwt.cookie.authentication.DefaultJwtCookiePrincipal;
@@ -13,10 +15,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.kiwiproject.champagne.dao.DeployableSystemDao;
-import org.kiwiproject.champagne.dao.UserDao;
+import org.kiwiproject.champagne.model.DeployableSystemAccess;
 import org.kiwiproject.champagne.model.DeployableSystemThreadLocal;
 import org.kiwiproject.champagne.model.DeployableSystemThreadLocal.DeployableSystemInfo;
-import org.kiwiproject.champagne.model.User;
+import org.kiwiproject.champagne.service.DeployableSystemAccessCache;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
 
 @DisplayName("DeployableSystemRequestFilter")
 class DeployableSystemRequestFilterTest {
@@ -29,8 +32,7 @@ class DeployableSystemRequestFilterTest {
     @Test
     void shouldNotSetDeployableSystemWhenHeaderNotSet() {
         var dao = mock(DeployableSystemDao.class);
-        var userDao = mock(UserDao.class);
-        var filter = new DeployableSystemRequestFilter(dao, userDao);
+        var filter = new DeployableSystemRequestFilter(new DeployableSystemAccessCache("maximumSize=10", dao, new MetricRegistry()));
 
         var context = mock(ContainerRequestContext.class);
         when(context.getHeaderString("Champagne-Deployable-System")).thenReturn(null);
@@ -43,8 +45,7 @@ class DeployableSystemRequestFilterTest {
     @Test
     void shouldNotSetDeployableSystemWhenHeaderSetButUserNotInSystem() {
         var dao = mock(DeployableSystemDao.class);
-        var userDao = mock(UserDao.class);
-        var filter = new DeployableSystemRequestFilter(dao, userDao);
+        var filter = new DeployableSystemRequestFilter(new DeployableSystemAccessCache("maximumSize=10", dao, new MetricRegistry()));
 
         var context = mock(ContainerRequestContext.class);
         when(context.getHeaderString("Champagne-Deployable-System")).thenReturn("1");
@@ -55,8 +56,8 @@ class DeployableSystemRequestFilterTest {
         var principal = new DefaultJwtCookiePrincipal("bob");
         when(securityContext.getUserPrincipal()).thenReturn(principal);
 
-        when(userDao.findBySystemIdentifier("bob")).thenReturn(Optional.of(User.builder().id(1L).build()));
-        when(dao.isUserInSystem(1L, 1L)).thenReturn(false);
+        var access = DeployableSystemAccess.builder().userId(1L).systemId(1L).member(false).admin(false).build();
+        when(dao.findAccessBySystemIdentifier("bob", 1L)).thenReturn(Optional.of(access));
 
         filter.filter(context);
 
@@ -66,8 +67,7 @@ class DeployableSystemRequestFilterTest {
     @Test
     void shouldSetDeployableSystemWhenHeaderSetAndUserInSystem() {
         var dao = mock(DeployableSystemDao.class);
-        var userDao = mock(UserDao.class);
-        var filter = new DeployableSystemRequestFilter(dao, userDao);
+        var filter = new DeployableSystemRequestFilter(new DeployableSystemAccessCache("maximumSize=10", dao, new MetricRegistry()));
 
         var context = mock(ContainerRequestContext.class);
         when(context.getHeaderString("Champagne-Deployable-System")).thenReturn("1");
@@ -78,12 +78,32 @@ class DeployableSystemRequestFilterTest {
         var principal = new DefaultJwtCookiePrincipal("bob");
         when(securityContext.getUserPrincipal()).thenReturn(principal);
 
-        when(userDao.findBySystemIdentifier("bob")).thenReturn(Optional.of(User.builder().id(1L).build()));
-        when(dao.isUserInSystem(1L, 1L)).thenReturn(true);
-        when(dao.isUserAdminOfSystem(1L, 1L)).thenReturn(true);
+        var access = DeployableSystemAccess.builder().userId(1L).systemId(1L).member(true).admin(true).build();
+        when(dao.findAccessBySystemIdentifier("bob", 1L)).thenReturn(Optional.of(access));
 
         filter.filter(context);
 
         assertThat(DeployableSystemThreadLocal.getCurrentDeployableSystem().map(DeployableSystemInfo::getId)).contains(1L);
     }
+
+    @Test
+    void shouldThrowBadRequestWhenUserNotFound() {
+        var dao = mock(DeployableSystemDao.class);
+        var filter = new DeployableSystemRequestFilter(new DeployableSystemAccessCache("maximumSize=10", dao, new MetricRegistry()));
+
+        var context = mock(ContainerRequestContext.class);
+        when(context.getHeaderString("Champagne-Deployable-System")).thenReturn("1");
+
+        var securityContext = mock(SecurityContext.class);
+        when(context.getSecurityContext()).thenReturn(securityContext);
+
+        var principal = new DefaultJwtCookiePrincipal("bob");
+        when(securityContext.getUserPrincipal()).thenReturn(principal);
+
+        when(dao.findAccessBySystemIdentifier("bob", 1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> filter.filter(context)).isInstanceOf(JaxrsBadRequestException.class);
+
+        assertThat(DeployableSystemThreadLocal.getCurrentDeployableSystem()).isEmpty();
+    }
 }
@@ -0,0 +1,217 @@
+package org.kiwiproject.champagne.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.champagne.dao.AuditRecordDao;
+import org.kiwiproject.champagne.model.AuditRecord;
+import org.kiwiproject.champagne.model.AuditRecord.Action;
+
+@DisplayName("AsyncAuditRecordWriter")
+class AsyncAuditRecordWriterTest {
+
+    private AuditRecordDao auditRecordDao;
+    private ScheduledExecutorService executor;
+    private MetricRegistry metrics;
+    private AsyncAuditRecordWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        auditRecordDao = mock(AuditRecordDao.class);
+        executor = mock(ScheduledExecutorService.class);
+        metrics = new MetricRegistry();
+
+        writer = new AsyncAuditRecordWriter(auditRecordDao, 3, 2, Duration.seconds(1), Duration.seconds(5), executor, metrics);
+    }
+
+    @Nested
+    class Write {
+
+        @Test
+        void shouldQueueRecordWithoutWritingIt() {
+            writer.write(newAuditRecord(1L));
+
+            assertThat(queueDepth()).isOne();
+
+            verifyNoInteractions(auditRecordDao, executor);
+        }
+
+        @Test
+        void shouldRequestFlushOnceBatchIsFull() {
+            writer.writeAll(List.of(newAuditRecord(1L), newAuditRecord(2L)));
+            writer.write(newAuditRecord(3L));
+
+            verify(executor).execute(any(Runnable.class));
+            verifyNoInteractions(auditRecordDao);
+        }
+
+        @Test
+        void shouldDropRecordsWhenQueueIsFull() {
+            writer.writeAll(List.of(newAuditRecord(1L), newAuditRecord(2L), newAuditRecord(3L), newAuditRecord(4L)));
+
+            assertThat(queueDepth()).isEqualTo(3);
+            assertThat(metrics.meter(MetricRegistry.name(AsyncAuditRecordWriter.class, "dropped")).getCount()).isOne();
+        }
+
+        @Test
+        void shouldWriteDirectlyOnceStopped() throws InterruptedException {
+            when(executor.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(true);
+            writer.stop();
+
+            var auditRecord = newAuditRecord(1L);
+            writer.write(auditRecord);
+
+            verify(auditRecordDao).insertAuditRecord(auditRecord);
+            assertThat(queueDepth()).isZero();
+        }
+    }
+
+    @Nested
+    class Flush {
+
+        @Test
+        void shouldWriteQueuedRecordsInBatches() {
+            writer.writeAll(List.of(newAuditRecord(1L), newAuditRecord(2L), newAuditRecord(3L)));
+
+            writer.flush();
+
+            verify(auditRecordDao).insertAuditRecords(argThat(records -> records.size() == 2));
+            verify(auditRecordDao).insertAuditRecords(argThat(records -> records.size() == 1));
+            verifyNoMoreInteractions(auditRecordDao);
+
+            assertThat(queueDepth()).isZero();
+            assertThat(metrics.timer(MetricRegistry.name(AsyncAuditRecordWriter.class, "flush")).getCount()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldCountFailedBatchAsDropped() {
+            doThrow(new RuntimeException("oops")).when(auditRecordDao).insertAuditRecords(anyList());
+            writer.writeAll(List.of(newAuditRecord(1L), newAuditRecord(2L)));
+
+            writer.flush();
+
+            assertThat(queueDepth()).isZero();
+            assertThat(metrics.meter(MetricRegistry.name(AsyncAuditRecordWriter.class, "dropped")).getCount()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldDoNothingWhenQueueIsEmpty() {
+            writer.flush();
+
+            verifyNoInteractions(auditRecordDao);
+        }
+    }
+
+    @Nested
+    class Lifecycle {
+
+        @Test
+        void shouldScheduleFlushEveryIntervalOnStart() {
+            writer.start();
+
+            verify(executor).scheduleWithFixedDelay(any(Runnable.class), eq(1_000L), eq(1_000L), eq(TimeUnit.MILLISECONDS));
+        }
+
+        @Test
+        void shouldDrainQueueOnStop() throws InterruptedException {
+            when(executor.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(true);
+            writer.write(newAuditRecord(1L));
+
+            writer.stop();
+
+            verify(executor).shutdown();
+            verify(auditRecordDao).insertAuditRecords(argThat(records -> records.size() == 1));
+            verify(auditRecordDao, never()).insertAuditRecord(any(AuditRecord.class));
+            assertThat(queueDepth()).isZero();
+        }
+
+        @Test
+        void shouldStillDrainQueueWhenExecutorDoesNotTerminateInTime() throws InterruptedException {
+            when(executor.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(false);
+            writer.writeAll(List.of(newAuditRecord(1L), newAuditRecord(2L), newAuditRecord(3L)));
+
+            writer.stop();
+
+            verify(auditRecordDao, times(2)).insertAuditRecords(anyList());
+        }
+
+        @Test
+        void shouldNotLeaveRecordsQueuedWhenWrittenConcurrentlyWithStop() throws Exception {
+            when(executor.awaitTermination(anyLong(), any(TimeUnit.class))).thenReturn(true);
+            var writtenCount = new AtomicInteger();
+            doAnswer(invocation -> writtenCount.incrementAndGet()).when(auditRecordDao).insertAuditRecord(any(AuditRecord.class));
+            doAnswer(invocation -> writtenCount.addAndGet(invocation.<List<?>>getArgument(0).size()))
+                    .when(auditRecordDao).insertAuditRecords(anyList());
+
+            var recordsPerThread = 1_000;
+            var threadCount = 4;
+            var largeWriter = new AsyncAuditRecordWriter(auditRecordDao, recordsPerThread * threadCount, 100,
+                    Duration.seconds(1), Duration.seconds(5), executor, new MetricRegistry());
+
+            var writers = Executors.newFixedThreadPool(threadCount);
+            try {
+                var startLatch = new CountDownLatch(1);
+                var futures = IntStream.range(0, threadCount)
+                        .mapToObj(thread -> writers.submit(() -> {
+                            startLatch.await();
+                            for (var i = 0; i < recordsPerThread; i++) {
+                                largeWriter.write(newAuditRecord(i));
+                            }
+                            return null;
+                        }))
+                        .toList();
+
+                startLatch.countDown();
+                largeWriter.stop();
+
+                for (var future : futures) {
+                    future.get(5, TimeUnit.SECONDS);
+                }
+            } finally {
+                writers.shutdownNow();
+            }
+
+            assertThat(writtenCount).hasValue(recordsPerThread * threadCount);
+        }
+    }
+
+    private int queueDepth() {
+        return (Integer) metrics.getGauges().get(MetricRegistry.name(AsyncAuditRecordWriter.class, "queueDepth")).getValue();
+    }
+
+    private static AuditRecord newAuditRecord(long recordId) {
+        return AuditRecord.builder()
+                .recordId(recordId)
+                .recordType("User")
+                .action(Action.CREATED)
+                .userSystemIdentifier("bob")
+                .build();
+    }
+}
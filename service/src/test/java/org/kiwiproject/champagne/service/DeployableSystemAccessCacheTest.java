@@ -0,0 +1,139 @@
+package org.kiwiproject.champagne.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.champagne.dao.DeployableSystemDao;
+import org.kiwiproject.champagne.model.DeployableSystemAccess;
+
+@DisplayName("DeployableSystemAccessCache")
+class DeployableSystemAccessCacheTest {
+
+    private static final DeployableSystemAccess BOB_ACCESS = DeployableSystemAccess.builder()
+            .userId(1L)
+            .systemId(2L)
+            .member(true)
+            .admin(true)
+            .build();
+
+    private DeployableSystemDao deployableSystemDao;
+    private MetricRegistry metrics;
+    private DeployableSystemAccessCache cache;
+
+    @BeforeEach
+    void setUp() {
+        deployableSystemDao = mock(DeployableSystemDao.class);
+        metrics = new MetricRegistry();
+
+        cache = new DeployableSystemAccessCache("maximumSize=10,expireAfterWrite=5m", deployableSystemDao, metrics);
+
+        when(deployableSystemDao.findAccessBySystemIdentifier("bob", 2L)).thenReturn(Optional.of(BOB_ACCESS));
+    }
+
+    @Nested
+    class GetAccess {
+
+        @Test
+        void shouldLoadAccessOnceAndThenUseCachedValue() {
+            assertThat(cache.getAccess("bob", 2L)).contains(BOB_ACCESS);
+            assertThat(cache.getAccess("bob", 2L)).contains(BOB_ACCESS);
+
+            verify(deployableSystemDao).findAccessBySystemIdentifier("bob", 2L);
+            verifyNoMoreInteractions(deployableSystemDao);
+
+            assertThat(metrics.getGauges().get(MetricRegistry.name(DeployableSystemAccessCache.class, "hits")).getValue()).isEqualTo(1L);
+            assertThat(metrics.getGauges().get(MetricRegistry.name(DeployableSystemAccessCache.class, "misses")).getValue()).isEqualTo(1L);
+        }
+
+        @Test
+        void shouldCacheNonMemberAccess() {
+            var nonMember = DeployableSystemAccess.builder().userId(1L).systemId(3L).build();
+            when(deployableSystemDao.findAccessBySystemIdentifier("bob", 3L)).thenReturn(Optional.of(nonMember));
+
+            assertThat(cache.getAccess("bob", 3L)).contains(nonMember);
+            assertThat(cache.getAccess("bob", 3L)).contains(nonMember);
+
+            verify(deployableSystemDao).findAccessBySystemIdentifier("bob", 3L);
+            verifyNoMoreInteractions(deployableSystemDao);
+        }
+
+        @Test
+        void shouldReturnEmptyAndNotCacheUnknownUser() {
+            when(deployableSystemDao.findAccessBySystemIdentifier("alice", 2L)).thenReturn(Optional.empty());
+
+            assertThat(cache.getAccess("alice", 2L)).isEmpty();
+            assertThat(cache.getAccess("alice", 2L)).isEmpty();
+
+            verify(deployableSystemDao, times(2)).findAccessBySystemIdentifier("alice", 2L);
+        }
+    }
+
+    @Nested
+    class Invalidate {
+
+        @Test
+        void shouldReloadAccessAfterUserIsInvalidated() {
+            cache.getAccess("bob", 2L);
+            cache.invalidateUser(1L);
+            cache.getAccess("bob", 2L);
+
+            verify(deployableSystemDao, times(2)).findAccessBySystemIdentifier("bob", 2L);
+        }
+
+        @Test
+        void shouldReloadAccessAfterSystemIsInvalidated() {
+            cache.getAccess("bob", 2L);
+            cache.invalidateSystem(2L);
+            cache.getAccess("bob", 2L);
+
+            verify(deployableSystemDao, times(2)).findAccessBySystemIdentifier("bob", 2L);
+        }
+
+        @Test
+        void shouldKeepEntriesOfOtherUsersAndSystems() {
+            cache.getAccess("bob", 2L);
+            cache.invalidateUser(42L);
+            cache.invalidateSystem(42L);
+            cache.getAccess("bob", 2L);
+
+            verify(deployableSystemDao).findAccessBySystemIdentifier("bob", 2L);
+        }
+
+        @Test
+        void shouldNotCacheAccessLoadedWhileUserIsInvalidated() {
+            when(deployableSystemDao.findAccessBySystemIdentifier("bob", 2L)).thenAnswer(invocation -> {
+                cache.invalidateUser(1L);
+                return Optional.of(BOB_ACCESS);
+            }).thenReturn(Optional.of(BOB_ACCESS));
+
+            cache.getAccess("bob", 2L);
+            cache.getAccess("bob", 2L);
+
+            verify(deployableSystemDao, times(2)).findAccessBySystemIdentifier("bob", 2L);
+        }
+
+        @Test
+        void shouldNotCacheAccessLoadedWhileSystemIsInvalidated() {
+            when(deployableSystemDao.findAccessBySystemIdentifier("bob", 2L)).thenAnswer(invocation -> {
+                cache.invalidateSystem(2L);
+                return Optional.of(BOB_ACCESS);
+            }).thenReturn(Optional.of(BOB_ACCESS));
+
+            cache.getAccess("bob", 2L);
+            cache.getAccess("bob", 2L);
+
+            verify(deployableSystemDao, times(2)).findAccessBySystemIdentifier("bob", 2L);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.kiwiproject.champagne.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.json.JsonHelper;
+
+@DisplayName("SystemResponseCache")
+class SystemResponseCacheTest {
+
+    private MetricRegistry metrics;
+    private SystemResponseCache cache;
+    private Request request;
+    private AtomicInteger loadCount;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MetricRegistry();
+        cache = new SystemResponseCache("maximumSize=10,expireAfterWrite=30s", JsonHelper.newDropwizardJsonHelper(), metrics);
+        request = mock(Request.class);
+        loadCount = new AtomicInteger();
+    }
+
+    private Supplier<List<String>> loader(String... values) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return List.of(values);
+        };
+    }
+
+    @Nested
+    class Respond {
+
+        @Test
+        void shouldLoadOnceAndReturnSerializedBodyWithETag() {
+            var response = cache.respond(1L, "tags", request, loader("a", "b"));
+            var cachedResponse = cache.respond(1L, "tags", request, loader("a", "b"));
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(new String((byte[]) response.getEntity(), UTF_8)).isEqualTo("[\"a\",\"b\"]");
+            assertThat(response.getEntityTag()).isNotNull();
+            assertThat(response.getEntityTag().isWeak()).isFalse();
+            assertThat(cachedResponse.getEntityTag()).isEqualTo(response.getEntityTag());
+            assertThat(loadCount).hasValue(1);
+
+            assertThat(metrics.getGauges().get(MetricRegistry.name(SystemResponseCache.class, "hits")).getValue()).isEqualTo(1L);
+            assertThat(metrics.getGauges().get(MetricRegistry.name(SystemResponseCache.class, "misses")).getValue()).isEqualTo(1L);
+        }
+
+        @Test
+        void shouldReturnNotModifiedWhenPreconditionsMatch() {
+            var etag = cache.respond(1L, "tags", request, loader("a")).getEntityTag();
+            when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(Response.notModified(etag));
+
+            var response = cache.respond(1L, "tags", request, loader("a"));
+
+            assertThat(response.getStatus()).isEqualTo(304);
+            assertThat(response.hasEntity()).isFalse();
+            assertThat(loadCount).hasValue(1);
+        }
+
+        @Test
+        void shouldUseSameETagForSameBody() {
+            var etag = cache.respond(1L, "tags", request, loader("a")).getEntityTag();
+            var otherSystemEtag = cache.respond(2L, "tags", request, loader("a")).getEntityTag();
+            var otherBodyEtag = cache.respond(3L, "tags", request, loader("b")).getEntityTag();
+
+            assertThat(otherSystemEtag).isEqualTo(etag);
+            assertThat(otherBodyEtag).isNotEqualTo(etag);
+        }
+    }
+
+    @Nested
+    class InvalidateSystem {
+
+        @Test
+        void shouldReloadResponsesOfTheInvalidatedSystem() {
+            cache.respond(1L, "tags", request, loader("a"));
+            cache.invalidateSystem(1L);
+
+            var response = cache.respond(1L, "tags", request, loader("b"));
+
+            assertThat(new String((byte[]) response.getEntity(), UTF_8)).isEqualTo("[\"b\"]");
+            assertThat(loadCount).hasValue(2);
+        }
+
+        @Test
+        void shouldKeepResponsesOfOtherSystems() {
+            cache.respond(1L, "tags", request, loader("a"));
+            cache.respond(2L, "tags", request, loader("a"));
+            cache.invalidateSystem(1L);
+
+            cache.respond(2L, "tags", request, loader("a"));
+
+            assertThat(loadCount).hasValue(2);
+        }
+
+        @Test
+        void shouldReloadEverySystemWhenSystemIsNull() {
+            cache.respond(1L, "tags", request, loader("a"));
+            cache.respond(SystemResponseCache.ALL_SYSTEMS, "stages", request, loader("a"));
+            cache.invalidateSystem(null);
+
+            cache.respond(1L, "tags", request, loader("a"));
+            cache.respond(SystemResponseCache.ALL_SYSTEMS, "stages", request, loader("a"));
+
+            assertThat(loadCount).hasValue(4);
+        }
+
+        @Test
+        void shouldNotServeResponseLoadedConcurrentlyWithInvalidatingEverySystem() {
+            cache.respond(1L, "tags", request, () -> {
+                cache.invalidateSystem(null);
+                return loader("a").get();
+            });
+
+            var response = cache.respond(1L, "tags", request, loader("b"));
+
+            assertThat(new String((byte[]) response.getEntity(), UTF_8)).isEqualTo("[\"b\"]");
+            assertThat(loadCount).hasValue(2);
+        }
+    }
+}
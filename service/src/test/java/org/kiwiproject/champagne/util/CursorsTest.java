@@ -0,0 +1,65 @@
+package org.kiwiproject.champagne.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.kiwiproject.champagne.util.Cursors.Cursor;
+import org.kiwiproject.jaxrs.exception.JaxrsBadRequestException;
+import org.kiwiproject.test.junit.jupiter.params.provider.BlankStringSource;
+
+@DisplayName("Cursors")
+class CursorsTest {
+
+    @Nested
+    class DecodeOrNull {
+
+        @Test
+        void shouldDecodeEncodedCursor() {
+            var timestamp = Instant.parse("2023-05-01T12:34:56.123456Z");
+
+            var cursor = Cursors.decodeOrNull(Cursors.encode(timestamp, 42L));
+
+            assertThat(cursor).isEqualTo(new Cursor(timestamp, 42L));
+        }
+
+        @ParameterizedTest
+        @BlankStringSource
+        void shouldReturnNullForBlankCursor(String cursor) {
+            assertThat(Cursors.decodeOrNull(cursor)).isNull();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = { "not a cursor", "Zm9v", "Zm9vfDQy", "MjAyMy0wNS0wMVQxMjozNDo1Nlp8Zm9v" })
+        void shouldThrowBadRequestForInvalidCursor(String cursor) {
+            assertThatThrownBy(() -> Cursors.decodeOrNull(cursor))
+                    .isInstanceOf(JaxrsBadRequestException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    @Nested
+    class CheckPageSize {
+
+        @ParameterizedTest
+        @ValueSource(ints = { 1, 50, Cursors.MAX_PAGE_SIZE })
+        void shouldAcceptPageSizeWithinBounds(int pageSize) {
+            assertThatCode(() -> Cursors.checkPageSize(pageSize)).doesNotThrowAnyException();
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = { Integer.MIN_VALUE, -1, 0, Cursors.MAX_PAGE_SIZE + 1, Integer.MAX_VALUE })
+        void shouldThrowBadRequestForPageSizeOutOfBounds(int pageSize) {
+            assertThatThrownBy(() -> Cursors.checkPageSize(pageSize))
+                    .isInstanceOf(JaxrsBadRequestException.class)
+                    .hasMessage("pageSize must be between 1 and " + Cursors.MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -95,7 +95,10 @@ public class TestObjects {
 
     public static long insertReleaseStatusRecord(Handle handle, DeploymentTaskStatus status, long releaseId, long systemId) {
         var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+        return insertReleaseStatusRecordForEnv(handle, status, releaseId, envId);
+    }
 
+    public static long insertReleaseStatusRecordForEnv(Handle handle, DeploymentTaskStatus status, long releaseId, long envId) {
         var testReleaseStatusRecord = ReleaseStatus.builder()
                 .releaseId(releaseId)
                 .environmentId(envId)
@@ -132,7 +135,10 @@ public class TestObjects {
 
     public static long insertTaskStatusRecord(Handle handle, DeploymentTaskStatus status, long taskId, long systemId) {
         var envId = insertDeploymentEnvironmentRecord(handle, "DEV", systemId);
+        return insertTaskStatusRecordForEnv(handle, status, taskId, envId);
+    }
 
+    public static long insertTaskStatusRecordForEnv(Handle handle, DeploymentTaskStatus status, long taskId, long envId) {
         var testTaskStatusRecord = TaskStatus.builder()
                 .taskId(taskId)
                 .environmentId(envId)
@@ -165,7 +171,7 @@ public class TestObjects {
                         insert into builds
                           (repo_namespace, repo_name, commit_ref, commit_user, source_branch, component_identifier, component_version, distribution_location, extra_deployment_info, git_provider, deployable_system_id)
                           values
-                          (:repoNamespace, :repoName, :commitRef, :commitUser, :sourceBranch, :componentIdentifier, :componentVersion, :distributionLocation, :extraData, :gitProvider, :deployableSystemId)
+                          (:repoNamespace, :repoName, :commitRef, :commitUser, :sourceBranch, :componentIdentifier, :componentVersion, :distributionLocation, cast(:extraData as jsonb), :gitProvider, :deployableSystemId)
                         """)
                 .bindBean(buildToInsert)
                 .bind("extraData", "{}")